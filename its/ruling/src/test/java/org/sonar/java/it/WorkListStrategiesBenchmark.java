@@ -0,0 +1,142 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.it;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.sonar.orchestrator.Orchestrator;
+import com.sonar.orchestrator.build.BuildResult;
+import com.sonar.orchestrator.build.SonarScanner;
+import com.sonar.orchestrator.locator.FileLocation;
+import com.sonar.orchestrator.locator.MavenLocation;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the symbolic execution work list strategies on the ruling projects: for each strategy, the projects are analyzed
+ * with the symbolic execution rules only, and the number of issues is compared to the number of steps spent by the exploration.
+ * Not part of the ruling: run it explicitly with "mvn test -Dtest=WorkListStrategiesBenchmark".
+ */
+public class WorkListStrategiesBenchmark {
+
+  private static final Logger LOG = LoggerFactory.getLogger(WorkListStrategiesBenchmark.class);
+
+  private static final List<String> STRATEGIES = ImmutableList.of("dfs", "bfs", "coverage");
+  private static final ImmutableSet<String> SYMBOLIC_EXECUTION_RULES = ImmutableSet.of(
+    "S2095", "S2189", "S2222", "S2259", "S2583", "S2589", "S2637", "S3516", "S3518", "S3655", "S3824", "S3958", "S3959", "S4165", "S4449");
+  private static final Pattern ISSUE_LINE = Pattern.compile("\\d+,");
+
+  @ClassRule
+  public static Orchestrator orchestrator = Orchestrator.builderEnv()
+    .setSonarVersion(System.getProperty("sonar.runtimeVersion", "LATEST_RELEASE[6.7]"))
+    .addPlugin(FileLocation.byWildcardMavenFilename(new File("../../sonar-java-plugin/target"), "sonar-java-plugin-*.jar"))
+    .addPlugin(MavenLocation.of("org.sonarsource.sonar-lits-plugin","sonar-lits-plugin", "0.6"))
+    .build();
+
+  @BeforeClass
+  public static void prepare_quality_profile() {
+    ProfileGenerator.generate(orchestrator, ImmutableMap.of(), ImmutableSet.of(), SYMBOLIC_EXECUTION_RULES, new HashSet<>());
+  }
+
+  @Test
+  public void compare_strategies() throws Exception {
+    List<String> results = new ArrayList<>();
+    results.add(String.format(Locale.ENGLISH, "%-22s %-9s %8s %10s %16s %8s", "project", "strategy", "issues", "steps", "issues/1k steps", "aborts"));
+    for (String strategy : STRATEGIES) {
+      results.add(analyze("jdk6", "launcher", strategy));
+      results.add(analyze("jboss-ejb3-tutorial", "asynch", strategy));
+    }
+    LOG.info("Symbolic execution work list strategies:" + System.lineSeparator() + String.join(System.lineSeparator(), results));
+  }
+
+  private static String analyze(String projectName, String binaries, String strategy) throws IOException {
+    String projectKey = projectName + "-" + strategy;
+    Path benchmarkDir = FileLocation.of("target/benchmark/" + projectKey).getFile().toPath().toAbsolutePath();
+    Path workDir = benchmarkDir.resolve("work");
+    Path issuesDir = benchmarkDir.resolve("issues");
+    Path noExpectedIssuesDir = Files.createDirectories(benchmarkDir.resolve("expected"));
+    orchestrator.getServer().provisionProject(projectKey, projectKey);
+    orchestrator.getServer().associateProjectToQualityProfile(projectKey, "java", "rules");
+    SonarScanner build = SonarScanner.create(FileLocation.of("../sources/" + projectName).getFile())
+      .setProjectKey(projectKey)
+      .setProjectName(projectKey)
+      .setProjectVersion("0.1.0-SNAPSHOT")
+      .setSourceEncoding("UTF-8")
+      .setSourceDirs(".")
+      .setProperty("sonar.java.source", "1.5")
+      // Dummy sonar.java.binaries to pass validation
+      .setProperty("sonar.java.binaries", binaries)
+      .setProperty("sonar.working.directory", workDir.toString())
+      .setProperty("sonar.cpd.skip", "true")
+      .setProperty("sonar.analysis.mode", "preview")
+      .setProperty("dump.old", noExpectedIssuesDir.toString())
+      .setProperty("dump.new", issuesDir.toString())
+      .setProperty("lits.differences", benchmarkDir.resolve("differences").toString())
+      .setProperty("sonar.java.xfile", "true")
+      .setProperty("sonar.java.se.report", "true")
+      .setProperty("sonar.java.se.workList", strategy);
+    if ("jdk6".equals(projectName)) {
+      build.setProperty("sonar.inclusions", "java/**/*.java");
+    }
+    BuildResult buildResult = orchestrator.executeBuild(build);
+    Assertions.assertThat(buildResult.isSuccess()).isTrue();
+
+    JsonObject report = new JsonParser().parse(new String(Files.readAllBytes(workDir.resolve("se-report.json")), StandardCharsets.UTF_8))
+      .getAsJsonObject().getAsJsonObject("project");
+    long steps = report.get("steps").getAsLong();
+    int aborts = report.getAsJsonObject("aborts").entrySet().stream().mapToInt(abort -> abort.getValue().getAsInt()).sum();
+    long issues = countIssues(issuesDir);
+    return String.format(Locale.ENGLISH, "%-22s %-9s %8d %10d %16.3f %8d", projectName, strategy, issues, steps, steps == 0 ? 0.0 : (issues * 1000.0 / steps), aborts);
+  }
+
+  /**
+   * Issues are dumped per rule, as the lines of the issues of each file.
+   */
+  private static long countIssues(Path issuesDir) throws IOException {
+    if (!issuesDir.toFile().isDirectory()) {
+      return 0;
+    }
+    long count = 0;
+    try (Stream<Path> dumps = Files.list(issuesDir)) {
+      for (Path dump : (Iterable<Path>) dumps::iterator) {
+        count += Files.readAllLines(dump, StandardCharsets.UTF_8).stream().filter(line -> ISSUE_LINE.matcher(line).matches()).count();
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.CodeSource;
+import javax.annotation.CheckForNull;
+
+/**
+ * Identifies the code of the analyzer, or of a plugin providing rules to it, so that results persisted by an analysis are not
+ * reused by the next one once this code changed.
+ */
+public final class AnalyzerVersion {
+
+  private AnalyzerVersion() {
+  }
+
+  /**
+   * @return implementation version of the package of the class, when declared by its manifest, followed by the location of the
+   * code of the class. The size and last modification date of the jar are added, so that a rebuilt jar of the same version is
+   * told apart.
+   */
+  public static String of(Class<?> type) {
+    Package typePackage = type.getPackage();
+    StringBuilder result = new StringBuilder(String.valueOf(typePackage == null ? null : typePackage.getImplementationVersion()));
+    CodeSource codeSource = type.getProtectionDomain().getCodeSource();
+    URL location = codeSource == null ? null : codeSource.getLocation();
+    if (location != null) {
+      result.append(' ').append(location);
+      File file = file(location);
+      if (file != null && file.isFile()) {
+        result.append(' ').append(file.length()).append(' ').append(file.lastModified());
+      }
+    }
+    return result.toString();
+  }
+
+  @CheckForNull
+  private static File file(URL location) {
+    try {
+      return new File(location.toURI());
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      // not a file: only its location identifies the code
+      return null;
+    }
+  }
+}
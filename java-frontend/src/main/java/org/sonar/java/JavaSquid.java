@@ -23,6 +23,7 @@ import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
 import com.sonar.sslr.api.typed.ActionParser;
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -35,6 +36,7 @@ import org.sonar.java.ast.JavaAstScanner;
 import org.sonar.java.ast.parser.JavaParser;
 import org.sonar.java.ast.visitors.FileLinesVisitor;
 import org.sonar.java.ast.visitors.SyntaxHighlighterVisitor;
+import org.sonar.java.bytecode.loader.SharedJarLoaders;
 import org.sonar.java.filters.SonarJavaIssueFilter;
 import org.sonar.java.model.VisitorsBridge;
 import org.sonar.java.se.SymbolicExecutionMode;
@@ -49,6 +51,10 @@ public class JavaSquid {
 
   private final JavaAstScanner astScanner;
   private final JavaAstScanner astScannerForTests;
+  @Nullable
+  private final SonarComponents sonarComponents;
+  private final JavaVersion javaVersion;
+  private final boolean xFileEnabled;
 
   public JavaSquid(JavaVersion javaVersion,
     @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
@@ -59,6 +65,9 @@ public class JavaSquid {
   public JavaSquid(JavaVersion javaVersion, boolean xFileEnabled,
                    @Nullable SonarComponents sonarComponents, @Nullable Measurer measurer,
                    JavaResourceLocator javaResourceLocator, @Nullable SonarJavaIssueFilter postAnalysisIssueFilter, JavaCheck... visitors) {
+    this.sonarComponents = sonarComponents;
+    this.javaVersion = javaVersion;
+    this.xFileEnabled = xFileEnabled;
 
     List<JavaCheck> commonVisitors = Lists.newArrayList(javaResourceLocator);
     if (postAnalysisIssueFilter != null) {
@@ -87,28 +96,47 @@ public class JavaSquid {
       testCodeVisitors.addAll(sonarComponents.testCheckClasses());
     }
 
+    // libraries are usually part of both classpaths: they are opened once and the classes read from them are shared
+    SharedJarLoaders sharedJarLoaders = new SharedJarLoaders();
+
     //AstScanner for main files
     ActionParser<Tree> parser = JavaParser.createParser();
     astScanner = new JavaAstScanner(parser, sonarComponents);
-    astScanner.setVisitorBridge(createVisitorBridge(codeVisitors, classpath, javaVersion, sonarComponents, SymbolicExecutionMode.getMode(visitors, xFileEnabled)));
+    astScanner.setVisitorBridge(createVisitorBridge(codeVisitors, classpath, javaVersion, sonarComponents, SymbolicExecutionMode.getMode(visitors, xFileEnabled),
+      sharedJarLoaders));
 
     //AstScanner for test files
     astScannerForTests = new JavaAstScanner(parser, sonarComponents);
-    astScannerForTests.setVisitorBridge(createVisitorBridge(testCodeVisitors, testClasspath, javaVersion, sonarComponents, SymbolicExecutionMode.DISABLED));
+    astScannerForTests.setVisitorBridge(createVisitorBridge(testCodeVisitors, testClasspath, javaVersion, sonarComponents, SymbolicExecutionMode.DISABLED, sharedJarLoaders));
+
+    int threads = sonarComponents == null ? 1 : sonarComponents.analysisThreads();
+    if (threads > 1) {
+      LOG.info("Java analysis will parse files using {} threads", threads);
+      astScanner.setParallelism(threads, JavaParser::createParser);
+      astScannerForTests.setParallelism(threads, JavaParser::createParser);
+    }
 
   }
 
-  private static VisitorsBridge createVisitorBridge(
-    Iterable<JavaCheck> codeVisitors, List<File> classpath, JavaVersion javaVersion, @Nullable SonarComponents sonarComponents, SymbolicExecutionMode symbolicExecutionMode) {
-    VisitorsBridge visitorsBridge = new VisitorsBridge(codeVisitors, classpath, sonarComponents, symbolicExecutionMode);
+  private static VisitorsBridge createVisitorBridge(Iterable<JavaCheck> codeVisitors, List<File> classpath, JavaVersion javaVersion, @Nullable SonarComponents sonarComponents,
+    SymbolicExecutionMode symbolicExecutionMode, SharedJarLoaders sharedJarLoaders) {
+    VisitorsBridge visitorsBridge = new VisitorsBridge(codeVisitors, classpath, sonarComponents, symbolicExecutionMode, sharedJarLoaders);
     visitorsBridge.setJavaVersion(javaVersion);
     return visitorsBridge;
   }
 
 
   public void scan(Collection<File> sourceFiles, Collection<File> testFiles) {
+    if (sonarComponents != null) {
+      List<File> files = new ArrayList<>(sourceFiles);
+      files.addAll(testFiles);
+      sonarComponents.loadIncrementalAnalysisStore(files, javaVersion.toString(), Boolean.toString(xFileEnabled));
+    }
     scanSources(sourceFiles);
     scanTests(testFiles);
+    if (sonarComponents != null) {
+      sonarComponents.saveIncrementalAnalysisStore();
+    }
   }
 
   private void scanSources(Collection<File> sourceFiles) {
@@ -21,22 +21,25 @@ package org.sonar.java;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Lists;
 import com.google.gson.Gson;
 import com.sonar.sslr.api.RecognitionException;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Locale;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.api.SonarProduct;
 import org.sonar.api.batch.ScannerSide;
@@ -56,6 +59,10 @@ import org.sonar.api.measures.Metric;
 import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.incremental.IncrementalAnalysisStore;
+import org.sonar.java.incremental.StoredIssue;
+import org.sonar.java.se.ExplodedGraphWalker;
+import org.sonar.java.se.WorkList;
 import org.sonar.plugins.java.api.CheckRegistrar;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonarsource.api.sonarlint.SonarLintSide;
@@ -72,6 +79,12 @@ public class SonarComponents {
   public static final Metric<String> FEEDBACK_METRIC = new Metric.Builder("sonarjava_feedback", "SonarJava feedback", Metric.ValueType.DATA).setHidden(true).create();
   public static final String COLLECT_ANALYSIS_ERRORS_KEY = "sonar.java.collectAnalysisErrors";
   public static final String FAIL_ON_EXCEPTION_KEY = "sonar.java.failOnException";
+  public static final String ANALYSIS_THREADS_KEY = "sonar.java.analysis.threads";
+  public static final String INCREMENTAL_ANALYSIS_KEY = "sonar.java.incremental";
+  public static final String SE_STATE_SUBSUMPTION_KEY = "sonar.java.se.stateSubsumption";
+  public static final String SE_REPORT_KEY = "sonar.java.se.report";
+  public static final String SE_WORK_LIST_KEY = "sonar.java.se.workList";
+  public static final String SE_MAX_MEMORY_PER_METHOD_KEY = "sonar.java.se.maxMemoryPerMethod";
   /**
    * Approximate limit of feedback of 200ko to roughly 100_000 characters of useful feedback.
    * This does not take into account eventual overhead of serialization.
@@ -93,6 +106,12 @@ public class SonarComponents {
   @VisibleForTesting
   public List<AnalysisError> analysisErrors;
   private int errorsSize = 0;
+  @Nullable
+  private IncrementalAnalysisStore incrementalAnalysisStore;
+  /**
+   * Files read for the analysis, until their analysis is over: values are soft as files which are not analyzed are never released.
+   */
+  private final Cache<File, SourceText> sourceTexts = CacheBuilder.newBuilder().softValues().build();
 
   public SonarComponents(FileLinesContextFactory fileLinesContextFactory, FileSystem fs,
                          JavaClasspath javaClasspath, JavaTestClasspath javaTestClasspath,
@@ -258,6 +277,10 @@ public class SonarComponents {
     }
     Double cost = analyzerMessage.getCost();
     reportIssue(analyzerMessage, key, inputPath, cost);
+    if (incrementalAnalysisStore != null && !(check instanceof EndOfAnalysisCheck)) {
+      // issues of checks relying on the whole project are never replayed, as these checks are always executed on all the files
+      incrementalAnalysisStore.record(file, StoredIssue.of(key, analyzerMessage));
+    }
   }
 
   @VisibleForTesting
@@ -294,31 +317,35 @@ public class SonarComponents {
   }
 
   public String fileContent(File file) {
-    try {
-      return inputFromIOFile(file).contents();
-    } catch (IOException e) {
-      throw new AnalysisException("Unable to read file "+file, e);
-    }
+    return sourceText(file).content();
   }
 
   public List<String> fileLines(File file) {
-    List<String> lines = new ArrayList<>();
-    try(Scanner scanner = new Scanner(getInputStream(file), getCharset(file).name())) {
-      while (scanner.hasNextLine()) {
-        lines.add(scanner.nextLine());
-      }
-    } catch (IOException e) {
-      throw new AnalysisException("Unable to read file "+file, e);
+    return sourceText(file).lines();
+  }
+
+  /**
+   * Content of the file, read and decoded only once while the file is analyzed.
+   */
+  public SourceText sourceText(File file) {
+    SourceText sourceText = sourceTexts.getIfPresent(file);
+    if (sourceText == null) {
+      sourceText = new SourceText(readFile(file));
+      sourceTexts.put(file, sourceText);
     }
-    return lines;
+    return sourceText;
   }
 
-  private InputStream getInputStream(File file) throws IOException {
-    return inputFromIOFile(file).inputStream();
+  public void releaseSourceText(File file) {
+    sourceTexts.invalidate(file);
   }
 
-  private Charset getCharset(File file) {
-    return inputFromIOFile(file).charset();
+  private String readFile(File file) {
+    try {
+      return inputFromIOFile(file).contents();
+    } catch (IOException e) {
+      throw new AnalysisException("Unable to read file "+file, e);
+    }
   }
 
   public boolean analysisCancelled() {
@@ -344,6 +371,94 @@ public class SonarComponents {
     return context.config().getBoolean(FAIL_ON_EXCEPTION_KEY).orElse(false);
   }
 
+  /**
+   * Number of threads used to parse and build the semantic model of files. Analysis is sequential by default.
+   */
+  public int analysisThreads() {
+    return Math.max(1, context.config().getInt(ANALYSIS_THREADS_KEY).orElse(1));
+  }
+
+  public boolean isStateSubsumptionEnabled() {
+    return context.config().getBoolean(SE_STATE_SUBSUMPTION_KEY).orElse(false);
+  }
+
+  /**
+   * Order in which symbolic execution explores the paths of a method: one of the {@link WorkList.Strategy}, depth-first by default.
+   */
+  public WorkList.Strategy symbolicExecutionWorkList() {
+    String strategy = context.config().get(SE_WORK_LIST_KEY).orElse(WorkList.Strategy.DFS.name());
+    try {
+      return WorkList.Strategy.valueOf(strategy.trim().toUpperCase(Locale.ENGLISH));
+    } catch (IllegalArgumentException e) {
+      LOG.warn("Unknown symbolic execution work list strategy \"{}\" ({}), depth-first exploration is used.", strategy, SE_WORK_LIST_KEY);
+      return WorkList.Strategy.DFS;
+    }
+  }
+
+  /**
+   * Limit, in bytes, of the estimated memory of the exploded graph of a method explored by symbolic execution.
+   * Configured in megabytes, unlimited when not configured.
+   */
+  public long symbolicExecutionMaxMemoryPerMethod() {
+    return context.config().getLong(SE_MAX_MEMORY_PER_METHOD_KEY)
+      .filter(megabytes -> megabytes > 0)
+      .map(megabytes -> megabytes * 1024 * 1024)
+      .orElse(ExplodedGraphWalker.DEFAULT_MAX_EXPLODED_GRAPH_MEMORY);
+  }
+
+  /**
+   * When enabled, statistics of the symbolic execution of each method are written to a report in the work directory.
+   */
+  public boolean isSymbolicExecutionReportEnabled() {
+    return !isSonarLintContext() && context.config().getBoolean(SE_REPORT_KEY).orElse(false);
+  }
+
+  public boolean isIncrementalAnalysisEnabled() {
+    return !isSonarLintContext() && context.config().getBoolean(INCREMENTAL_ANALYSIS_KEY).orElse(false);
+  }
+
+  /**
+   * Loads the results of the previous analysis, to reuse them for the files which did not change since then.
+   *
+   * @param files all the files to analyze
+   * @param settings settings of the analysis which are not part of the sensor context configuration, e.g. the java version
+   */
+  public void loadIncrementalAnalysisStore(Collection<File> files, String... settings) {
+    if (!isIncrementalAnalysisEnabled()) {
+      return;
+    }
+    List<File> classpath = new ArrayList<>(getJavaClasspath());
+    classpath.addAll(getJavaTestClasspath());
+    List<String> fingerprintSettings = new ArrayList<>(Arrays.asList(settings));
+    fingerprintSettings.addAll(analyzerVersions());
+    String fingerprint = IncrementalAnalysisStore.configurationFingerprint(context.activeRules().findAll(), classpath, fingerprintSettings.toArray(new String[0]));
+    incrementalAnalysisStore = IncrementalAnalysisStore.load(new File(workDir(), IncrementalAnalysisStore.FILE_NAME), fs.baseDir(), fingerprint,
+      IncrementalAnalysisStore.compiledClasses(classpath));
+    incrementalAnalysisStore.invalidate(files, this::readFile);
+  }
+
+  /**
+   * @return versions of the code of the analyzer and of the plugins providing the checks of the analysis, custom rules included
+   */
+  @VisibleForTesting
+  Set<String> analyzerVersions() {
+    Set<String> result = new TreeSet<>();
+    result.add(AnalyzerVersion.of(SonarComponents.class));
+    allChecks.forEach(createdChecks -> createdChecks.all().forEach(check -> result.add(AnalyzerVersion.of(check.getClass()))));
+    return result;
+  }
+
+  @CheckForNull
+  public IncrementalAnalysisStore incrementalAnalysisStore() {
+    return incrementalAnalysisStore;
+  }
+
+  public void saveIncrementalAnalysisStore() {
+    if (incrementalAnalysisStore != null) {
+      incrementalAnalysisStore.save();
+    }
+  }
+
   private boolean shouldCollectAnalysisErrors() {
     return context.config().getBoolean(COLLECT_ANALYSIS_ERRORS_KEY).orElse(false);
   }
@@ -0,0 +1,104 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Content of a source file decoded once, with the offsets of its lines, shared by the parser and all the checks of the file.
+ * Lines are split like {@link java.util.Scanner#nextLine()} does: on {@code \r\n}, {@code \n}, {@code \r}, {@code \u2028},
+ * {@code \u2029} and {@code \u0085}, a terminator ending the content not being followed by an empty line.
+ */
+public final class SourceText {
+
+  private final String content;
+  private final int[] lineStarts;
+  private final int[] lineEnds;
+  private final String[] lines;
+
+  public SourceText(String content) {
+    this.content = content;
+    int[] starts = new int[16];
+    int[] ends = new int[16];
+    int count = 0;
+    int start = 0;
+    int i = 0;
+    while (i < content.length()) {
+      char c = content.charAt(i);
+      if (isLineTerminator(c)) {
+        if (count == starts.length) {
+          starts = Arrays.copyOf(starts, count * 2);
+          ends = Arrays.copyOf(ends, count * 2);
+        }
+        starts[count] = start;
+        ends[count] = i;
+        count++;
+        i += c == '\r' && i + 1 < content.length() && content.charAt(i + 1) == '\n' ? 2 : 1;
+        start = i;
+      } else {
+        i++;
+      }
+    }
+    if (start < content.length()) {
+      starts = Arrays.copyOf(starts, count + 1);
+      ends = Arrays.copyOf(ends, count + 1);
+      starts[count] = start;
+      ends[count] = content.length();
+      count++;
+    }
+    this.lineStarts = Arrays.copyOf(starts, count);
+    this.lineEnds = Arrays.copyOf(ends, count);
+    this.lines = new String[count];
+  }
+
+  private static boolean isLineTerminator(char c) {
+    return c == '\n' || c == '\r' || c == '\u2028' || c == '\u2029' || c == '\u0085';
+  }
+
+  public String content() {
+    return content;
+  }
+
+  /**
+   * @return unmodifiable list of the lines, without their terminator. Each line is extracted from the content on first access only.
+   */
+  public List<String> lines() {
+    return new AbstractList<String>() {
+      @Override
+      public String get(int index) {
+        String line = lines[index];
+        if (line == null) {
+          // racy but safe publication: strings are immutable and extracting a line again yields an equal one
+          line = content.substring(lineStarts[index], lineEnds[index]);
+          lines[index] = line;
+        }
+        return line;
+      }
+
+      @Override
+      public int size() {
+        return lines.length;
+      }
+    };
+  }
+
+}
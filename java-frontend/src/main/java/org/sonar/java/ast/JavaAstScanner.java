@@ -25,9 +25,23 @@ import com.sonar.sslr.api.RecognitionException;
 import com.sonar.sslr.api.typed.ActionParser;
 import java.io.File;
 import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
 import org.sonar.api.utils.log.Logger;
@@ -47,26 +61,43 @@ public class JavaAstScanner {
   private final ActionParser<Tree> parser;
   private final SonarComponents sonarComponents;
   private VisitorsBridge visitor;
+  private int threads = 1;
+  private Supplier<ActionParser<Tree>> parserFactory;
 
   public JavaAstScanner(ActionParser<Tree> parser, @Nullable SonarComponents sonarComponents) {
     this.parser = parser;
     this.sonarComponents = sonarComponents;
   }
 
+  /**
+   * Parsing and semantic analysis of files will be dispatched on the given number of threads, each of them using its own parser.
+   * Checks are still executed on the calling thread, one file after the other, starting with the files which are the most expensive to analyze.
+   */
+  public void setParallelism(int threads, Supplier<ActionParser<Tree>> parserFactory) {
+    this.threads = threads;
+    this.parserFactory = parserFactory;
+  }
+
   public void scan(Collection<File> files) {
+    boolean parallel = threads > 1 && files.size() > 1;
+    Collection<File> filesToScan = parallel ? byDecreasingCost(files) : files;
     ProgressReport progressReport = new ProgressReport("Report about progress of Java AST analyzer", TimeUnit.SECONDS.toMillis(10));
-    progressReport.start(files.stream().map(File::getAbsolutePath).collect(Collectors.toList()));
+    progressReport.start(filesToScan.stream().map(File::getAbsolutePath).collect(Collectors.toList()));
 
     boolean successfullyCompleted = false;
     boolean cancelled = false;
     try {
-      for (File file : files) {
-        if (analysisCancelled()) {
-          cancelled = true;
-          break;
+      if (parallel) {
+        cancelled = scanInParallel(filesToScan, progressReport);
+      } else {
+        for (File file : files) {
+          if (analysisCancelled()) {
+            cancelled = true;
+            break;
+          }
+          simpleScan(file, () -> prepare(file, parser));
+          progressReport.nextFile();
         }
-        simpleScan(file);
-        progressReport.nextFile();
       }
       successfullyCompleted = !cancelled;
     } finally {
@@ -79,21 +110,79 @@ public class JavaAstScanner {
     }
   }
 
+  /**
+   * Files are ordered by decreasing estimated cost of analysis, so that a large file scheduled last does not delay the end of the analysis
+   * while the other threads are idle. The size of a file is used as estimation: it is known without reading the file and is roughly
+   * proportional to the number of methods to analyze.
+   */
+  @VisibleForTesting
+  static List<File> byDecreasingCost(Collection<File> files) {
+    List<File> result = new ArrayList<>(files);
+    result.sort(Comparator.comparingLong(File::length).reversed());
+    return result;
+  }
+
+  private boolean scanInParallel(Collection<File> files, ProgressReport progressReport) {
+    // files are submitted from the analysis thread only, in the order they are analyzed: a shared queue is all that is needed
+    ExecutorService executor = Executors.newFixedThreadPool(threads, new AnalysisThreadFactory());
+    ThreadLocal<ActionParser<Tree>> workerParser = ThreadLocal.withInitial(parserFactory);
+    // bound the number of files kept in memory while waiting for their checks to be executed
+    int maxPendingFiles = threads * 2;
+    Iterator<File> toSubmit = files.iterator();
+    Deque<Future<VisitorsBridge.PreparedFile>> pending = new ArrayDeque<>();
+    try {
+      for (File file : files) {
+        while (pending.size() < maxPendingFiles && toSubmit.hasNext()) {
+          File next = toSubmit.next();
+          pending.add(executor.submit(() -> prepare(next, workerParser.get())));
+        }
+        if (analysisCancelled()) {
+          return true;
+        }
+        Future<VisitorsBridge.PreparedFile> preparedFile = pending.remove();
+        simpleScan(file, () -> getPreparedFile(preparedFile));
+        progressReport.nextFile();
+      }
+      return false;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private static VisitorsBridge.PreparedFile getPreparedFile(Future<VisitorsBridge.PreparedFile> preparedFile) throws Exception {
+    try {
+      return preparedFile.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw e;
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw (Exception) cause;
+    }
+  }
+
   private boolean analysisCancelled() {
     return sonarComponents != null && sonarComponents.analysisCancelled();
   }
 
-  private void simpleScan(File file) {
+  private VisitorsBridge.PreparedFile prepare(File file, ActionParser<Tree> fileParser) {
+    String fileContent = getFileContent(file);
+    Tree ast;
+    if (fileContent.isEmpty()) {
+      ast = fileParser.parse(file);
+    } else {
+      ast = fileParser.parse(fileContent);
+    }
+    return visitor.prepare(file, ast);
+  }
+
+  private void simpleScan(File file, Callable<VisitorsBridge.PreparedFile> preparation) {
     visitor.setCurrentFile(file);
     try {
-      String fileContent = getFileContent(file);
-      Tree ast;
-      if(fileContent.isEmpty()) {
-        ast = parser.parse(file);
-      } else {
-        ast = parser.parse(fileContent);
-      }
-      visitor.visitFile(ast);
+      visitor.visitPreparedFile(preparation.call());
     } catch (RecognitionException e) {
       checkInterrupted(e);
       LOG.error("Unable to parse source file : " + file.getAbsolutePath());
@@ -106,6 +195,10 @@ public class JavaAstScanner {
     } catch (StackOverflowError error) {
       LOG.error("A stack overflow error occured while analyzing file: " + file.getAbsolutePath(), error);
       throw error;
+    } finally {
+      if (sonarComponents != null) {
+        sonarComponents.releaseSourceText(file);
+      }
     }
   }
 
@@ -140,6 +233,18 @@ public class JavaAstScanner {
     this.visitor = visitor;
   }
 
+  private static class AnalysisThreadFactory implements ThreadFactory {
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Thread newThread(Runnable runnable) {
+      Thread thread = new Thread(runnable);
+      thread.setName("java-analysis-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    }
+  }
+
   @VisibleForTesting
   public static void scanSingleFileForTests(File file, VisitorsBridge visitorsBridge) {
     scanSingleFileForTests(file, visitorsBridge, new JavaVersionImpl());
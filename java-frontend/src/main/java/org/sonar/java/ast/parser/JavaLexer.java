@@ -299,15 +299,6 @@ public enum JavaLexer implements GrammarRuleKey {
     "|" + "0[xX][0-9_a-fA-F]++" + BINARY_EXP_REGEXP +
     ")";
 
-  private static final String INTEGER_LITERAL_REGEXP = "(?:" +
-  // Hexadecimal
-    "0[xX][0-9_a-fA-F]++" +
-    // Binary (Java 7)
-    "|" + "0[bB][01_]++" +
-    // Decimal and Octal
-    "|" + "[0-9][0-9_]*+" +
-    ")";
-
   public static LexerlessGrammarBuilder createGrammarBuilder() {
     LexerlessGrammarBuilder b = LexerlessGrammarBuilder.create();
 
@@ -379,7 +370,7 @@ public enum JavaLexer implements GrammarRuleKey {
   }
 
   private static void keywords(LexerlessGrammarBuilder b) {
-    b.rule(LETTER_OR_DIGIT).is(javaIdentifierPart(b));
+    b.rule(LETTER_OR_DIGIT).is(javaIdentifierPart());
     for (JavaKeyword tokenType : JavaKeyword.values()) {
       b.rule(tokenType).is(tokenType.getValue(), b.nextNot(LETTER_OR_DIGIT), SPACING);
     }
@@ -426,56 +417,60 @@ public enum JavaLexer implements GrammarRuleKey {
    */
   private static void literals(LexerlessGrammarBuilder b) {
     b.rule(SPACING).is(
-      b.skippedTrivia(whitespace(b)),
+      b.skippedTrivia(whitespace()),
       b.zeroOrMore(
-        b.commentTrivia(b.firstOf(inlineComment(b), multilineComment(b))),
-        b.skippedTrivia(whitespace(b))));
+        b.commentTrivia(b.firstOf(inlineComment(), multilineComment())),
+        b.skippedTrivia(whitespace())));
 
     b.rule(EOF).is(b.token(GenericTokenType.EOF, b.endOfInput()));
 
     b.rule(CHARACTER_LITERAL).is(characterLiteral(b), SPACING);
     b.rule(JavaTokenType.STRING_LITERAL).is(stringLiteral(b), SPACING);
 
-    b.rule(FLOAT_LITERAL).is(b.regexp(FLOATING_LITERAL_WITHOUT_SUFFIX_REGEXP + "[fF]|[0-9][0-9_]*+[fF]"), SPACING);
-    b.rule(DOUBLE_LITERAL).is(b.regexp(FLOATING_LITERAL_WITHOUT_SUFFIX_REGEXP + "[dD]?+|[0-9][0-9_]*+[dD]"), SPACING);
+    b.rule(FLOAT_LITERAL).is(b.next(floatingLiteralStart()), b.regexp(FLOATING_LITERAL_WITHOUT_SUFFIX_REGEXP + "[fF]|[0-9][0-9_]*+[fF]"), SPACING);
+    b.rule(DOUBLE_LITERAL).is(b.next(floatingLiteralStart()), b.regexp(FLOATING_LITERAL_WITHOUT_SUFFIX_REGEXP + "[dD]?+|[0-9][0-9_]*+[dD]"), SPACING);
 
-    b.rule(LONG_LITERAL).is(b.regexp(INTEGER_LITERAL_REGEXP + "[lL]"), SPACING);
-    b.rule(INTEGER_LITERAL).is(b.regexp(INTEGER_LITERAL_REGEXP), SPACING);
+    b.rule(LONG_LITERAL).is(new ScannerExpression("long literal", JavaScanners::longLiteral), SPACING);
+    b.rule(INTEGER_LITERAL).is(new ScannerExpression("integer literal", JavaScanners::integerLiteral), SPACING);
 
     b.rule(JavaTokenType.IDENTIFIER).is(
       b.firstOf(
         b.next(ENUM),
         b.nextNot(KEYWORD)),
-      javaIdentifier(b),
+      javaIdentifier(),
       SPACING);
   }
 
   private static Object characterLiteral(LexerlessGrammarBuilder b) {
-    return b.sequence(b.next("'"), b.regexp("'([^'\\\\]*+(\\\\[\\s\\S])?+)*+'"));
+    return b.sequence(b.next("'"), new ScannerExpression("character literal", JavaScanners::characterLiteral));
   }
 
   private static Object stringLiteral(LexerlessGrammarBuilder b) {
-    return b.sequence(b.next("\""), b.regexp("\"([^\"\\\\]*+(\\\\[\\s\\S])?+)*+\""));
+    return b.sequence(b.next("\""), new ScannerExpression("string literal", JavaScanners::stringLiteral));
+  }
+
+  private static Object whitespace() {
+    return new ScannerExpression("whitespace", JavaScanners::whitespace);
   }
 
-  private static Object whitespace(LexerlessGrammarBuilder b) {
-    return b.regexp("\\s*+");
+  private static Object inlineComment() {
+    return new ScannerExpression("inline comment", JavaScanners::inlineComment);
   }
 
-  private static Object inlineComment(LexerlessGrammarBuilder b) {
-    return b.regexp("//[^\\n\\r]*+");
+  private static Object multilineComment() {
+    return new ScannerExpression("multiline comment", JavaScanners::multilineComment);
   }
 
-  private static Object multilineComment(LexerlessGrammarBuilder b) {
-    return b.regexp("/\\*[\\s\\S]*?\\*\\/");
+  private static Object floatingLiteralStart() {
+    return new ScannerExpression("floating point literal start", JavaScanners::floatingLiteralStart);
   }
 
-  private static Object javaIdentifier(LexerlessGrammarBuilder b) {
-    return b.regexp("\\p{javaJavaIdentifierStart}++\\p{javaJavaIdentifierPart}*+");
+  private static Object javaIdentifier() {
+    return new ScannerExpression("identifier", JavaScanners::identifier);
   }
 
-  private static Object javaIdentifierPart(LexerlessGrammarBuilder b) {
-    return b.regexp("\\p{javaJavaIdentifierPart}");
+  private static Object javaIdentifierPart() {
+    return new ScannerExpression("identifier part", JavaScanners::identifierPart);
   }
 
 }
@@ -19,7 +19,7 @@
  */
 package org.sonar.java.ast.parser;
 
-import com.google.common.collect.Lists;
+import com.google.common.collect.ImmutableList;
 import com.sonar.sslr.api.GenericTokenType;
 import com.sonar.sslr.api.Rule;
 import com.sonar.sslr.api.Token;
@@ -33,10 +33,18 @@ import org.sonar.java.model.InternalSyntaxTrivia;
 import org.sonar.plugins.java.api.tree.SyntaxTrivia;
 import org.sonar.sslr.grammar.GrammarRuleKey;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class JavaNodeBuilder implements NodeBuilder {
 
+  /**
+   * Texts of the tokens of the input being parsed: the same keyword, punctuator or identifier is then shared by all its tokens.
+   * Cleared by {@link JavaParser} once the input is parsed.
+   */
+  private final Map<String, String> tokenTexts = new HashMap<>();
+
   @Override
   public Object createNonTerminal(GrammarRuleKey ruleKey, Rule rule, List<Object> children, int startIndex, int endIndex) {
     for (Object child : children) {
@@ -54,22 +62,33 @@ public class JavaNodeBuilder implements NodeBuilder {
     boolean isEof = GenericTokenType.EOF.equals(type);
     LineColumnValue lineColumnValue = tokenPosition(input, startIndex, endIndex);
     return new InternalSyntaxToken(lineColumnValue.line, lineColumnValue.column, lineColumnValue.value,
-      createTrivias(trivias), startIndex, endIndex, isEof);
+      createTrivias(trivias), startIndex, isEof);
   }
 
   private static List<SyntaxTrivia> createTrivias(List<Trivia> trivias) {
-    List<SyntaxTrivia> result = Lists.newArrayList();
+    if (trivias.isEmpty()) {
+      return ImmutableList.of();
+    }
+    ImmutableList.Builder<SyntaxTrivia> result = ImmutableList.builder();
     for (Trivia trivia : trivias) {
       Token trivialToken = trivia.getToken();
       result.add(InternalSyntaxTrivia.create(trivialToken.getValue(), trivialToken.getLine(), trivialToken.getColumn()));
     }
-    return result;
+    return result.build();
   }
 
-  private static LineColumnValue tokenPosition(Input input, int startIndex, int endIndex) {
+  private LineColumnValue tokenPosition(Input input, int startIndex, int endIndex) {
     int[] lineAndColumn = input.lineAndColumnAt(startIndex);
-    String value = input.substring(startIndex, endIndex);
-    return new LineColumnValue(lineAndColumn[0], lineAndColumn[1] - 1, value);
+    return new LineColumnValue(lineAndColumn[0], lineAndColumn[1] - 1, tokenText(input, startIndex, endIndex));
+  }
+
+  void clearTokenTexts() {
+    tokenTexts.clear();
+  }
+
+  private String tokenText(Input input, int startIndex, int endIndex) {
+    String text = input.substring(startIndex, endIndex);
+    return tokenTexts.computeIfAbsent(text, t -> t);
   }
 
   private static class LineColumnValue {
@@ -31,10 +31,12 @@ import java.util.LinkedList;
 
 public class JavaParser extends ActionParser<Tree> {
   private Deque<JavaTree> parentList = new LinkedList<>();
+  private final JavaNodeBuilder javaNodeBuilder;
 
   private JavaParser(LexerlessGrammarBuilder grammarBuilder, Class<JavaGrammar> javaGrammarClass,
     TreeFactory treeFactory, JavaNodeBuilder javaNodeBuilder, JavaLexer compilationUnit) {
     super(StandardCharsets.UTF_8, grammarBuilder, javaGrammarClass, treeFactory, javaNodeBuilder, compilationUnit);
+    this.javaNodeBuilder = javaNodeBuilder;
   }
 
   public static ActionParser<Tree> createParser() {
@@ -47,12 +49,20 @@ public class JavaParser extends ActionParser<Tree> {
 
   @Override
   public Tree parse(File file) {
-    return createParentLink((JavaTree) super.parse(file));
+    try {
+      return createParentLink((JavaTree) super.parse(file));
+    } finally {
+      javaNodeBuilder.clearTokenTexts();
+    }
   }
 
   @Override
   public Tree parse(String source) {
-    return createParentLink((JavaTree) super.parse(source));
+    try {
+      return createParentLink((JavaTree) super.parse(source));
+    } finally {
+      javaNodeBuilder.clearTokenTexts();
+    }
   }
 
   private Tree createParentLink(JavaTree topParent) {
@@ -0,0 +1,202 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.parser;
+
+import java.util.function.IntPredicate;
+
+/**
+ * Scanners for the lexical elements of the Java language tried by the parser at almost every position of the input.
+ * Each of them matches exactly the same text as the regular expression it replaces, given in its documentation.
+ */
+final class JavaScanners {
+
+  private JavaScanners() {
+  }
+
+  /**
+   * {@code \s*+}
+   */
+  static int whitespace(CharSequence input) {
+    return skip(input, 0, JavaScanners::isWhitespace);
+  }
+
+  /**
+   * {@code //[^\n\r]*+}
+   */
+  static int inlineComment(CharSequence input) {
+    if (!startsWith(input, '/', '/')) {
+      return -1;
+    }
+    return skip(input, 2, c -> c != '\n' && c != '\r');
+  }
+
+  /**
+   * {@code /\*[\s\S]*?\*\/}
+   */
+  static int multilineComment(CharSequence input) {
+    if (!startsWith(input, '/', '*')) {
+      return -1;
+    }
+    for (int i = 2; i + 1 < input.length(); i++) {
+      if (input.charAt(i) == '*' && input.charAt(i + 1) == '/') {
+        return i + 2;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * {@code \p{javaJavaIdentifierStart}++\p{javaJavaIdentifierPart}*+}
+   */
+  static int identifier(CharSequence input) {
+    if (input.length() == 0) {
+      return -1;
+    }
+    int codePoint = Character.codePointAt(input, 0);
+    if (!Character.isJavaIdentifierStart(codePoint)) {
+      return -1;
+    }
+    int i = Character.charCount(codePoint);
+    while (i < input.length()) {
+      codePoint = Character.codePointAt(input, i);
+      if (!Character.isJavaIdentifierPart(codePoint)) {
+        break;
+      }
+      i += Character.charCount(codePoint);
+    }
+    return i;
+  }
+
+  /**
+   * {@code \p{javaJavaIdentifierPart}}
+   */
+  static int identifierPart(CharSequence input) {
+    if (input.length() == 0) {
+      return -1;
+    }
+    int codePoint = Character.codePointAt(input, 0);
+    return Character.isJavaIdentifierPart(codePoint) ? Character.charCount(codePoint) : -1;
+  }
+
+  /**
+   * {@code '([^'\\]*+(\\[\s\S])?+)*+'}
+   */
+  static int characterLiteral(CharSequence input) {
+    return quoted(input, '\'');
+  }
+
+  /**
+   * {@code "([^"\\]*+(\\[\s\S])?+)*+"}
+   */
+  static int stringLiteral(CharSequence input) {
+    return quoted(input, '"');
+  }
+
+  /**
+   * {@code 0[xX][0-9_a-fA-F]++|0[bB][01_]++|[0-9][0-9_]*+}
+   */
+  static int integerLiteral(CharSequence input) {
+    if (input.length() == 0 || !isDigit(input.charAt(0))) {
+      return -1;
+    }
+    if (input.charAt(0) == '0' && input.length() > 1) {
+      char radix = input.charAt(1);
+      int end = 2;
+      if (radix == 'x' || radix == 'X') {
+        end = skip(input, 2, c -> isDigit(c) || c == '_' || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F'));
+      } else if (radix == 'b' || radix == 'B') {
+        end = skip(input, 2, c -> c == '0' || c == '1' || c == '_');
+      }
+      if (end > 2) {
+        return end;
+      }
+    }
+    return skip(input, 1, c -> isDigit(c) || c == '_');
+  }
+
+  /**
+   * Integer literal followed by {@code [lL]}
+   */
+  static int longLiteral(CharSequence input) {
+    int end = integerLiteral(input);
+    if (end < 0 || end == input.length()) {
+      return -1;
+    }
+    char suffix = input.charAt(end);
+    return suffix == 'l' || suffix == 'L' ? (end + 1) : -1;
+  }
+
+  /**
+   * Lookahead for floating point literals: {@code [0-9]|\.[0-9]}
+   */
+  static int floatingLiteralStart(CharSequence input) {
+    if (input.length() == 0) {
+      return -1;
+    }
+    char c = input.charAt(0);
+    if (isDigit(c)) {
+      return 1;
+    }
+    return c == '.' && input.length() > 1 && isDigit(input.charAt(1)) ? 2 : -1;
+  }
+
+  private static int quoted(CharSequence input, char quote) {
+    if (input.length() == 0 || input.charAt(0) != quote) {
+      return -1;
+    }
+    int i = 1;
+    while (i < input.length()) {
+      char c = input.charAt(i);
+      if (c == quote) {
+        return i + 1;
+      }
+      if (c == '\\') {
+        if (i + 1 == input.length()) {
+          return -1;
+        }
+        i += 2;
+      } else {
+        i++;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean startsWith(CharSequence input, char first, char second) {
+    return input.length() > 1 && input.charAt(0) == first && input.charAt(1) == second;
+  }
+
+  private static int skip(CharSequence input, int start, IntPredicate predicate) {
+    int i = start;
+    while (i < input.length() && predicate.test(input.charAt(i))) {
+      i++;
+    }
+    return i;
+  }
+
+  private static boolean isDigit(int c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static boolean isWhitespace(int c) {
+    return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+  }
+
+}
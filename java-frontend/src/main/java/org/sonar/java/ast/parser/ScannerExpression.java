@@ -0,0 +1,64 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.parser;
+
+import org.sonar.sslr.internal.matchers.Matcher;
+import org.sonar.sslr.internal.vm.Machine;
+import org.sonar.sslr.internal.vm.NativeExpression;
+
+/**
+ * Parsing expression matching the input with a hand-written {@link Scanner}, in place of a regular expression.
+ * The parse tree it produces is the same as the one of the equivalent regular expression.
+ */
+class ScannerExpression extends NativeExpression implements Matcher {
+
+  @FunctionalInterface
+  interface Scanner {
+    /**
+     * @return length of the text matched at the beginning of the input, or -1 when there is no match
+     */
+    int scan(CharSequence input);
+  }
+
+  private final String name;
+  private final Scanner scanner;
+
+  ScannerExpression(String name, Scanner scanner) {
+    this.name = name;
+    this.scanner = scanner;
+  }
+
+  @Override
+  public void execute(Machine machine) {
+    int length = scanner.scan(machine);
+    if (length < 0) {
+      machine.backtrack();
+    } else {
+      machine.createLeafNode(this, length);
+      machine.jump(1);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "Scanner " + name;
+  }
+
+}
@@ -59,12 +59,23 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
 
   @Override
   public void scanFile(JavaFileScannerContext context) {
+    setContext(context);
+    scanTree(context.getTree());
+  }
+
+  void setContext(JavaFileScannerContext context) {
     this.context = context;
     semanticModel = (SemanticModel) context.getSemanticModel();
-    scanTree(context.getTree());
   }
 
   protected void scanTree(Tree tree) {
+    subscribedKinds();
+    visitToken = isVisitingTokens();
+    visitTrivia = isVisitingTrivia();
+    visit(tree);
+  }
+
+  EnumSet<Tree.Kind> subscribedKinds() {
     if(nodesToVisit == null) {
       List<Tree.Kind> kinds = nodesToVisit();
       if(kinds.isEmpty()) {
@@ -73,9 +84,7 @@ public abstract class SubscriptionVisitor implements JavaFileScanner {
         nodesToVisit = EnumSet.copyOf(kinds);
       }
     }
-    visitToken = isVisitingTokens();
-    visitTrivia = isVisitingTrivia();
-    visit(tree);
+    return nodesToVisit;
   }
 
   private void visit(Tree tree) {
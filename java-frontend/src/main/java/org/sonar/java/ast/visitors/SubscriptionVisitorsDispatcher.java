@@ -0,0 +1,180 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.visitors;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import org.sonar.java.model.JavaTree;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Runs a group of {@link SubscriptionVisitor} with a single traversal of the syntax tree.
+ * Each node is only dispatched to the visitors subscribed to its kind, and trivia are only iterated when at least one visitor requires them.
+ * A visitor failing on a file is not called anymore for this file, the other visitors are not impacted.
+ */
+public class SubscriptionVisitorsDispatcher implements JavaFileScanner {
+
+  private static final int[] NO_SUBSCRIBER = new int[0];
+
+  private final SubscriptionVisitor[] visitors;
+  private final BiConsumer<JavaFileScanner, RuntimeException> exceptionHandler;
+  private final Map<Tree.Kind, int[]> subscribersByKind = new EnumMap<>(Tree.Kind.class);
+  private final boolean[] visitingTokens;
+  private final boolean[] visitingTrivia;
+  private final boolean[] failed;
+  private int[] tokenSubscribers;
+  private boolean initialized = false;
+
+  public SubscriptionVisitorsDispatcher(List<SubscriptionVisitor> visitors, BiConsumer<JavaFileScanner, RuntimeException> exceptionHandler) {
+    this.visitors = visitors.toArray(new SubscriptionVisitor[0]);
+    this.exceptionHandler = exceptionHandler;
+    this.visitingTokens = new boolean[this.visitors.length];
+    this.visitingTrivia = new boolean[this.visitors.length];
+    this.failed = new boolean[this.visitors.length];
+  }
+
+  /**
+   * Only visitors relying on the default traversal of {@link SubscriptionVisitor} can share the traversal of other visitors.
+   */
+  public static boolean canBeDispatched(JavaFileScanner scanner) {
+    return scanner instanceof SubscriptionVisitor
+      && !overrides(scanner.getClass(), "scanFile", JavaFileScannerContext.class)
+      && !overrides(scanner.getClass(), "scanTree", Tree.class);
+  }
+
+  private static boolean overrides(Class<?> scannerClass, String methodName, Class<?> parameterType) {
+    for (Class<?> c = scannerClass; c != SubscriptionVisitor.class; c = c.getSuperclass()) {
+      if (Arrays.stream(c.getDeclaredMethods()).anyMatch(m -> m.getName().equals(methodName) && Arrays.equals(m.getParameterTypes(), new Class<?>[] {parameterType}))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public void scanFile(JavaFileScannerContext context) {
+    if (!initialized) {
+      // subscriptions are read on first scanned file, as for a non dispatched visitor
+      buildSubscriptions();
+      initialized = true;
+    }
+    for (int i = 0; i < visitors.length; i++) {
+      failed[i] = false;
+      visitors[i].setContext(context);
+    }
+    visit(context.getTree());
+  }
+
+  private void buildSubscriptions() {
+    Map<Tree.Kind, List<Integer>> subscribers = new EnumMap<>(Tree.Kind.class);
+    List<Integer> tokenOrTriviaSubscribers = new ArrayList<>();
+    for (int i = 0; i < visitors.length; i++) {
+      for (Tree.Kind kind : visitors[i].subscribedKinds()) {
+        if (kind == Tree.Kind.TOKEN) {
+          visitingTokens[i] = true;
+        } else if (kind == Tree.Kind.TRIVIA) {
+          visitingTrivia[i] = true;
+        } else {
+          subscribers.computeIfAbsent(kind, k -> new ArrayList<>()).add(i);
+        }
+      }
+      if (visitingTokens[i] || visitingTrivia[i]) {
+        tokenOrTriviaSubscribers.add(i);
+      }
+    }
+    subscribers.forEach((kind, indexes) -> subscribersByKind.put(kind, toArray(indexes)));
+    tokenSubscribers = toArray(tokenOrTriviaSubscribers);
+  }
+
+  private static int[] toArray(List<Integer> indexes) {
+    return indexes.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  private void visit(Tree tree) {
+    if (tree.is(Tree.Kind.TOKEN)) {
+      visitToken((SyntaxToken) tree);
+      return;
+    }
+    int[] subscribers = subscribersByKind.getOrDefault(tree.kind(), NO_SUBSCRIBER);
+    for (int i : subscribers) {
+      if (!failed[i]) {
+        try {
+          visitors[i].visitNode(tree);
+        } catch (RuntimeException e) {
+          fail(i, e);
+        }
+      }
+    }
+    visitChildren(tree);
+    for (int i : subscribers) {
+      if (!failed[i]) {
+        try {
+          visitors[i].leaveNode(tree);
+        } catch (RuntimeException e) {
+          fail(i, e);
+        }
+      }
+    }
+  }
+
+  private void visitToken(SyntaxToken syntaxToken) {
+    for (int i : tokenSubscribers) {
+      if (!failed[i]) {
+        SubscriptionVisitor visitor = visitors[i];
+        try {
+          if (visitingTokens[i]) {
+            visitor.visitToken(syntaxToken);
+          }
+          if (visitingTrivia[i]) {
+            for (SyntaxTrivia syntaxTrivia : syntaxToken.trivias()) {
+              visitor.visitTrivia(syntaxTrivia);
+            }
+          }
+        } catch (RuntimeException e) {
+          fail(i, e);
+        }
+      }
+    }
+  }
+
+  private void visitChildren(Tree tree) {
+    JavaTree javaTree = (JavaTree) tree;
+    if (!javaTree.isLeaf()) {
+      for (Tree next : javaTree.getChildren()) {
+        if (next != null) {
+          visit(next);
+        }
+      }
+    }
+  }
+
+  private void fail(int visitorIndex, RuntimeException e) {
+    failed[visitorIndex] = true;
+    exceptionHandler.accept(visitors[visitorIndex], e);
+  }
+}
@@ -22,8 +22,11 @@ package org.sonar.java.bytecode;
 import com.google.common.collect.Lists;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.bytecode.loader.SharedJarLoaders;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
 
+import javax.annotation.Nullable;
+
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
@@ -37,6 +40,10 @@ public final class ClassLoaderBuilder {
   }
 
   public static SquidClassLoader create(Collection<File> bytecodeFilesOrDirectories) {
+    return create(bytecodeFilesOrDirectories, null);
+  }
+
+  public static SquidClassLoader create(Collection<File> bytecodeFilesOrDirectories, @Nullable SharedJarLoaders sharedJarLoaders) {
     List<File> files = Lists.newArrayList();
     for (File file : bytecodeFilesOrDirectories) {
       if (file.isFile() && file.getPath().endsWith(".class")) {
@@ -55,7 +62,7 @@ public final class ClassLoaderBuilder {
     }
 
     try {
-      return new SquidClassLoader(files);
+      return new SquidClassLoader(files, sharedJarLoaders);
     } catch (Exception e) {
       throw new IllegalStateException("Can not create ClassLoader", e);
     }
@@ -19,14 +19,19 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 class FileSystemLoader implements Loader {
 
@@ -72,6 +77,22 @@ class FileSystemLoader implements Loader {
     }
   }
 
+  @CheckForNull
+  @Override
+  public Set<String> packageNames() {
+    if (baseDirPath == null) {
+      throw new IllegalStateException("Loader closed");
+    }
+    try (Stream<Path> files = Files.walk(baseDirPath)) {
+      return files
+        .filter(Files::isRegularFile)
+        .map(filePath -> Loader.packageName(baseDirPath.relativize(filePath).toString().replace(File.separatorChar, '/')))
+        .collect(Collectors.toSet());
+    } catch (IOException | UncheckedIOException e) {
+      return null;
+    }
+  }
+
   @Override
   public void close() {
     baseDirPath = null;
@@ -19,9 +19,10 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.cache.Cache;
+import com.google.common.io.ByteStreams;
 import javax.annotation.Nullable;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -29,6 +30,10 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
@@ -36,14 +41,27 @@ class JarLoader implements Loader {
 
   private final JarFile jarFile;
   private final URL jarUrl;
+  @Nullable
+  private final Cache<String, byte[]> classBytes;
+  private final String cacheKeyPrefix;
 
   /**
    * @throws IllegalStateException if an I/O error has occurred
    */
   public JarLoader(@Nullable File file) {
+    this(file, null);
+  }
+
+  /**
+   * @param classBytes cache of the content of class files, possibly shared with other loaders
+   * @throws IllegalStateException if an I/O error has occurred
+   */
+  JarLoader(@Nullable File file, @Nullable Cache<String, byte[]> classBytes) {
     if (file == null) {
       throw new IllegalArgumentException("file can't be null");
     }
+    this.classBytes = classBytes;
+    this.cacheKeyPrefix = file.getAbsolutePath() + "!/";
     try {
       jarFile = new JarFile(file);
       jarUrl = new URL("jar", "", -1, file.getAbsolutePath() + "!/");
@@ -65,8 +83,27 @@ class JarLoader implements Loader {
     return null;
   }
 
+  /**
+   * {@inheritDoc}
+   * Content of class files may come from a cache shared with other loaders: returned arrays must not be modified.
+   */
   @Override
   public byte[] loadBytes(String name) {
+    boolean cached = classBytes != null && name.endsWith(".class");
+    if (cached) {
+      byte[] bytes = classBytes.getIfPresent(cacheKeyPrefix + name);
+      if (bytes != null) {
+        return bytes;
+      }
+    }
+    byte[] bytes = readEntry(name);
+    if (cached && bytes.length > 0) {
+      classBytes.put(cacheKeyPrefix + name, bytes);
+    }
+    return bytes;
+  }
+
+  private byte[] readEntry(String name) {
     try {
       ZipEntry entry = jarFile.getEntry(name);
       if (entry == null) {
@@ -74,13 +111,14 @@ class JarLoader implements Loader {
       }
 
       try (InputStream is = jarFile.getInputStream(entry)) {
-        byte[] buffer = new byte[8192];
-        ByteArrayOutputStream array = new ByteArrayOutputStream((int) entry.getSize());
-        int i;
-        while ((i = is.read(buffer)) >= 0) {
-          array.write(buffer, 0, i);
+        long size = entry.getSize();
+        if (size < 0 || size > Integer.MAX_VALUE) {
+          return ByteStreams.toByteArray(is);
         }
-        return array.toByteArray();
+        // decompress directly into an array of the final size
+        byte[] bytes = new byte[(int) size];
+        ByteStreams.readFully(is, bytes);
+        return bytes;
       }
     } catch (IOException e) {
       // TODO Godin: not sure that we should silently ignore exception here,
@@ -89,6 +127,19 @@ class JarLoader implements Loader {
     }
   }
 
+  @Override
+  public Set<String> packageNames() {
+    Set<String> packageNames = new HashSet<>();
+    Enumeration<JarEntry> entries = jarFile.entries();
+    while (entries.hasMoreElements()) {
+      JarEntry entry = entries.nextElement();
+      if (!entry.isDirectory()) {
+        packageNames.add(Loader.packageName(entry.getName()));
+      }
+    }
+    return packageNames;
+  }
+
   @Override
   public void close() {
     try {
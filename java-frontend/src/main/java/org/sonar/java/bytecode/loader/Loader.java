@@ -20,6 +20,8 @@
 package org.sonar.java.bytecode.loader;
 
 import java.net.URL;
+import java.util.Set;
+import javax.annotation.CheckForNull;
 
 /**
  * Specifies resource loading behavior.
@@ -46,10 +48,28 @@ interface Loader {
    */
   byte[] loadBytes(String name);
 
+  /**
+   * Lists the packages containing the resources of this loader, as returned by {@link #packageName(String)}.
+   *
+   * @return names of the packages, or <tt>null</tt> if the content of this loader can not be listed
+   * @throws IllegalStateException if loader has been closed
+   */
+  @CheckForNull
+  Set<String> packageNames();
+
   /**
    * Closes this loader, so that it can no longer be used to load new resources.
    * If loader is already closed, then invoking this method has no effect.
    */
   void close();
 
+  /**
+   * @param name resource name, e.g. <tt>org/sonar/tests/Hello.class</tt>
+   * @return name of the directory containing the resource, e.g. <tt>org/sonar/tests</tt>, or an empty string for resources at the root
+   */
+  static String packageName(String name) {
+    int lastSlash = name.lastIndexOf('/');
+    return lastSlash < 0 ? "" : name.substring(0, lastSlash);
+  }
+
 }
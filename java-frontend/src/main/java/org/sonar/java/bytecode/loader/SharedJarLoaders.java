@@ -0,0 +1,94 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.loader;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JAR files opened once for all the class loaders of an analysis (e.g. for main and test files), with a cache of the
+ * decompressed class files read from them. The cache is bounded by the total size of the class files it holds.
+ * A JAR file is closed when all the class loaders using it have been closed.
+ */
+public class SharedJarLoaders {
+
+  private static final long DEFAULT_CACHE_SIZE = 64L * 1024 * 1024;
+
+  private final Cache<String, byte[]> classBytes;
+  private final Map<File, SharedJarLoader> jarLoaders = new HashMap<>();
+
+  public SharedJarLoaders() {
+    this(DEFAULT_CACHE_SIZE);
+  }
+
+  @VisibleForTesting
+  SharedJarLoaders(long cacheSize) {
+    classBytes = CacheBuilder.newBuilder()
+      .maximumWeight(cacheSize)
+      .<String, byte[]>weigher((name, bytes) -> bytes.length)
+      .build();
+  }
+
+  synchronized Loader acquire(File jar) {
+    SharedJarLoader loader = jarLoaders.computeIfAbsent(jar.getAbsoluteFile(), file -> new SharedJarLoader(file, classBytes));
+    loader.users++;
+    return loader;
+  }
+
+  /**
+   * @return true if the loader was provided by this instance and is now released
+   */
+  synchronized boolean release(Loader loader) {
+    if (!(loader instanceof SharedJarLoader) || jarLoaders.get(((SharedJarLoader) loader).file) != loader) {
+      return false;
+    }
+    SharedJarLoader sharedLoader = (SharedJarLoader) loader;
+    sharedLoader.users--;
+    if (sharedLoader.users == 0) {
+      jarLoaders.remove(sharedLoader.file);
+      sharedLoader.close();
+    }
+    return true;
+  }
+
+  @VisibleForTesting
+  synchronized int openedJars() {
+    return jarLoaders.size();
+  }
+
+  @VisibleForTesting
+  long cachedBytes() {
+    return classBytes.asMap().values().stream().mapToLong(bytes -> bytes.length).sum();
+  }
+
+  private static class SharedJarLoader extends JarLoader {
+    private final File file;
+    private int users = 0;
+
+    SharedJarLoader(File file, Cache<String, byte[]> classBytes) {
+      super(file, classBytes);
+      this.file = file;
+    }
+  }
+}
@@ -19,6 +19,8 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterators;
 import com.google.common.io.ByteStreams;
 import java.io.Closeable;
@@ -28,37 +30,100 @@ import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
 import org.apache.commons.lang.ArrayUtils;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.tree.ClassNode;
 import org.sonar.java.AnalysisException;
+import org.sonar.java.resolve.BytecodeCompleter;
 import org.sonar.java.resolve.Convert;
 
 /**
  * Class loader, which is able to load classes from a list of JAR files and directories.
+ * Packages available from each JAR file or directory are indexed when the class loader is created,
+ * so that a lookup only queries the loaders which may contain the resource.
  */
 public class SquidClassLoader extends ClassLoader implements Closeable {
 
   private final List<Loader> loaders;
+  /**
+   * Loaders able to provide resources of each package, in classpath order. Loaders whose content can not be listed are part of all lists.
+   */
+  private final Map<String, List<Loader>> loadersByPackage = new HashMap<>();
+  private final List<Loader> unindexedLoaders = new ArrayList<>();
+  /**
+   * Names of the resources which could not be found by any loader.
+   */
+  private final Set<String> missingResources = ConcurrentHashMap.newKeySet();
+  /**
+   * Class structures shared by all the files analyzed with this class loader, indexed by bytecode name.
+   * Soft values let the garbage collector reclaim them under memory pressure, they are then parsed again when needed.
+   */
+  private final Cache<String, Optional<ClassNode>> classStructures = CacheBuilder.newBuilder().softValues().build();
+
+  /**
+   * Resources of the parent class loader only, which have precedence over the ones of the classpath.
+   */
+  private final ClassLoader parentResources;
+  @Nullable
+  private final SharedJarLoaders sharedJarLoaders;
+  private boolean closed = false;
 
   /**
    * @param files ordered list of files and directories from which to load classes and resources
    */
   public SquidClassLoader(List<File> files) {
+    this(files, null);
+  }
+
+  /**
+   * @param files ordered list of files and directories from which to load classes and resources
+   * @param sharedJarLoaders provider of the JAR files shared with other class loaders, if any
+   */
+  public SquidClassLoader(List<File> files, @Nullable SharedJarLoaders sharedJarLoaders) {
     super(computeParent());
+    this.parentResources = new ClassLoader(getParent()) {
+    };
+    this.sharedJarLoaders = sharedJarLoaders;
     loaders = new ArrayList<>();
     for (File file : files) {
       if (file.exists()) {
         if (file.isDirectory()) {
           loaders.add(new FileSystemLoader(file));
         } else if (file.getName().endsWith(".jar")) {
-          loaders.add(new JarLoader(file));
+          loaders.add(sharedJarLoaders == null ? new JarLoader(file) : sharedJarLoaders.acquire(file));
         } else if (file.getName().endsWith(".aar")) {
           loaders.add(new AarLoader(file));
         }
       }
     }
+    loaders.forEach(this::index);
+  }
+
+  private void index(Loader loader) {
+    Set<String> packageNames = loader.packageNames();
+    if (packageNames == null) {
+      unindexedLoaders.add(loader);
+      loadersByPackage.values().forEach(packageLoaders -> packageLoaders.add(loader));
+    } else {
+      packageNames.forEach(packageName -> loadersByPackage.computeIfAbsent(packageName, k -> new ArrayList<>(unindexedLoaders)).add(loader));
+    }
+  }
+
+  private List<Loader> loadersFor(String name) {
+    if (missingResources.contains(name)) {
+      return Collections.emptyList();
+    }
+    return loadersByPackage.getOrDefault(Loader.packageName(name), unindexedLoaders);
   }
 
   private static ClassLoader computeParent() {
@@ -72,7 +137,7 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   @Override
   protected Class findClass(String name) throws ClassNotFoundException {
     String resourceName = name.replace('.', '/') + ".class";
-    for (Loader loader : loaders) {
+    for (Loader loader : loadersFor(resourceName)) {
       byte[] classBytes = loader.loadBytes(resourceName);
       if (ArrayUtils.isNotEmpty(classBytes)) {
         // TODO Godin: definePackage ?
@@ -84,19 +149,20 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
 
   @Override
   public URL findResource(String name) {
-    for (Loader loader : loaders) {
+    for (Loader loader : loadersFor(name)) {
       URL url = loader.findResource(name);
       if (url != null) {
         return url;
       }
     }
+    missingResources.add(name);
     return null;
   }
 
   @Override
   protected Enumeration<URL> findResources(String name) throws IOException {
     List<URL> result = new ArrayList<>();
-    for (Loader loader : loaders) {
+    for (Loader loader : loadersFor(name)) {
       URL url = loader.findResource(name);
       if (url != null) {
         result.add(url);
@@ -108,20 +174,53 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
   /**
    * Read bytes representing class with name passed as an argument. Modify the class version in bytecode so ASM can read
    * returned array without issues.
+   * Classes of the classpath are read directly from their loader, and may be shared with other callers: the returned array must not be modified.
    *
    * @param className canonical name of the class (e.g. org.acme.Foo )
    * @return bytes or null if class is not found
    */
   @CheckForNull
   public byte[] getBytesForClass(String className) {
-    try (InputStream is = getResourceAsStream(Convert.bytecodeName(className) + ".class")) {
-      if (is == null) {
-        return null;
+    String resourceName = Convert.bytecodeName(className) + ".class";
+    try (InputStream is = parentResources.getResourceAsStream(resourceName)) {
+      if (is != null) {
+        return ByteStreams.toByteArray(is);
       }
-      return ByteStreams.toByteArray(is);
     } catch (IOException e) {
       throw new AnalysisException("An IOException occurred in SonarJava classLoader.",e);
     }
+    for (Loader loader : loadersFor(resourceName)) {
+      byte[] classBytes = loader.loadBytes(resourceName);
+      if (ArrayUtils.isNotEmpty(classBytes)) {
+        return classBytes;
+      }
+    }
+    missingResources.add(resourceName);
+    return null;
+  }
+
+  /**
+   * Read the structure of the class with name passed as an argument: header, fields and method signatures, without method bodies nor debug information.
+   * The structure is parsed only once and then shared, it must not be modified by callers.
+   *
+   * @param className canonical or flat name of the class (e.g. org.acme.Foo or org.acme.Foo$Bar)
+   * @return structure of the class or null if class is not found
+   */
+  @CheckForNull
+  public ClassNode getClassStructure(String className) {
+    String bytecodeName = Convert.bytecodeName(className);
+    Optional<ClassNode> classStructure = classStructures.getIfPresent(bytecodeName);
+    if (classStructure == null) {
+      byte[] bytes = getBytesForClass(className);
+      ClassNode classNode = null;
+      if (bytes != null) {
+        classNode = new ClassNode(BytecodeCompleter.ASM_API_VERSION);
+        new ClassReader(bytes).accept(classNode, ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+      }
+      classStructure = Optional.ofNullable(classNode);
+      classStructures.put(bytecodeName, classStructure);
+    }
+    return classStructure.orElse(null);
   }
 
   /**
@@ -132,9 +231,16 @@ public class SquidClassLoader extends ClassLoader implements Closeable {
    */
   @Override
   public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
     for (Loader loader : loaders) {
-      loader.close();
+      if (sharedJarLoaders == null || !sharedJarLoaders.release(loader)) {
+        loader.close();
+      }
     }
+    classStructures.invalidateAll();
   }
 
 }
@@ -0,0 +1,182 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.se;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.commons.JSRInlinerAdapter;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.MethodNode;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+import static org.sonar.java.resolve.BytecodeCompleter.ASM_API_VERSION;
+
+/**
+ * Library classes read during an analysis to compute method behaviors from bytecode.
+ * Each class file is parsed once, its methods and direct supertypes are indexed, and the code of all the requested methods of the class
+ * is visited from that single parse. Method lookups are resolved once for the rest of the analysis, including the ones which fail.
+ */
+public class BytecodeAnalysisSession {
+
+  private final SquidClassLoader classLoader;
+  /**
+   * Parsed classes, indexed by name. Soft values let the garbage collector reclaim them under memory pressure, they are then parsed again when needed.
+   */
+  private final Cache<String, Optional<ClassSession>> classes = CacheBuilder.newBuilder().softValues().build();
+  private final Map<String, Optional<MethodLookup>> lookups = new HashMap<>();
+
+  public BytecodeAnalysisSession(SquidClassLoader classLoader) {
+    this.classLoader = classLoader;
+  }
+
+  /**
+   *  Lookup method as described in JVM spec https://docs.oracle.com/javase/specs/jvms/se9/html/jvms-5.html#jvms-5.4.3.3
+   *  Some steps of the algorithm are not followed precisely, mostly the concept of maximally-specific superinterface,
+   *  this should be OK, because such code should not compile anyway (i.e this can happen only if runtime and compile-time
+   *  dependencies are different)
+   *
+   * @param signature signature of the method, as class name, '#', method name and descriptor
+   * @return the method found in the class or in its supertypes, or null if there is no such method
+   */
+  @CheckForNull
+  public MethodLookup lookup(String signature) {
+    // lookups of supertypes are resolved recursively: the map can not be updated through computeIfAbsent
+    Optional<MethodLookup> lookup = lookups.get(signature);
+    if (lookup == null) {
+      int separator = signature.indexOf('#');
+      lookup = Optional.ofNullable(resolve(signature.substring(0, separator), signature.substring(separator + 1)));
+      lookups.put(signature, lookup);
+    }
+    return lookup.orElse(null);
+  }
+
+  @CheckForNull
+  private MethodLookup resolve(String className, String method) {
+    ClassSession classSession = classSession(className);
+    if (classSession == null) {
+      return null;
+    }
+    MethodNode methodNode = classSession.methods.get(method);
+    if (methodNode != null) {
+      return new MethodLookup(className, methodNode);
+    }
+    // we didn't succeed to find the method in the class, try recursively on superclasses and interfaces
+    if (classSession.superName != null) {
+      MethodLookup result = lookup(className(classSession.superName) + "#" + method);
+      if (result != null) {
+        return result;
+      }
+    }
+    return classSession.interfaces.stream()
+      .map(iface -> lookup(className(iface) + "#" + method))
+      .filter(Objects::nonNull)
+      .findFirst().orElse(null);
+  }
+
+  private static String className(String internalName) {
+    return internalName.replace('/', '.');
+  }
+
+  /**
+   * @return names of the class and of all its supertypes, including the ones which can not be found in the classpath
+   */
+  public Set<String> hierarchy(String className) {
+    Set<String> result = new HashSet<>();
+    Deque<String> classesToVisit = new ArrayDeque<>();
+    classesToVisit.push(className);
+    while (!classesToVisit.isEmpty()) {
+      String name = classesToVisit.pop();
+      ClassSession classSession = result.add(name) ? classSession(name) : null;
+      if (classSession != null) {
+        if (classSession.superName != null) {
+          classesToVisit.push(className(classSession.superName));
+        }
+        classSession.interfaces.forEach(iface -> classesToVisit.push(className(iface)));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Visits the code of a method found by {@link #lookup(String)}, unless the visitor does not require it.
+   * The code is visited with subroutines inlined.
+   *
+   * @param signature signature of the looked up method, provided to {@link MethodLookup.LookupMethodVisitor#shouldVisitMethod(int, String)}
+   */
+  public void visitMethod(String signature, MethodLookup lookup, MethodLookup.LookupMethodVisitor methodVisitor) {
+    if (!methodVisitor.shouldVisitMethod(lookup.access, signature)) {
+      // avoid computing CFG when the method behavior won't be used
+      return;
+    }
+    ClassSession classSession = classSession(lookup.declaringClassName);
+    MethodNode methodNode = classSession == null ? null : classSession.methods.get(lookup.method);
+    if (methodNode == null) {
+      return;
+    }
+    String[] exceptions = methodNode.exceptions.toArray(new String[0]);
+    methodNode.accept(new JSRInlinerAdapter(methodVisitor, methodNode.access, methodNode.name, methodNode.desc, methodNode.signature, exceptions));
+  }
+
+  @CheckForNull
+  private ClassSession classSession(String className) {
+    Optional<ClassSession> classSession = classes.getIfPresent(className);
+    if (classSession == null) {
+      byte[] bytes = classLoader.getBytesForClass(className);
+      classSession = Optional.ofNullable(bytes == null ? null : new ClassSession(bytes));
+      classes.put(className, classSession);
+    }
+    return classSession.orElse(null);
+  }
+
+  /**
+   * A class file parsed once, with the code of its methods but without debug information.
+   */
+  private static final class ClassSession {
+    @Nullable
+    private final String superName;
+    private final List<String> interfaces;
+    /**
+     * Methods declared by the class, indexed by name and descriptor.
+     */
+    private final Map<String, MethodNode> methods = new HashMap<>();
+
+    private ClassSession(byte[] bytes) {
+      ClassNode classNode = new ClassNode(ASM_API_VERSION);
+      new ClassReader(bytes).accept(classNode, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+      superName = classNode.superName;
+      interfaces = classNode.interfaces;
+      for (MethodNode methodNode : classNode.methods) {
+        methods.put(methodNode.name + methodNode.desc, methodNode);
+      }
+    }
+  }
+}
@@ -39,7 +39,6 @@ import org.sonar.api.utils.log.Loggers;
 import org.sonar.java.bytecode.cfg.BytecodeCFG;
 import org.sonar.java.bytecode.cfg.BytecodeCFGMethodVisitor;
 import org.sonar.java.bytecode.cfg.Instruction;
-import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.java.resolve.SemanticModel;
 import org.sonar.java.resolve.Symbols;
 import org.sonar.java.se.ExceptionUtils;
@@ -281,7 +280,7 @@ public class BytecodeEGWalker {
   }
 
   @CheckForNull
-  public MethodBehavior getMethodBehavior(String signature, SquidClassLoader classLoader) {
+  public MethodBehavior getMethodBehavior(String signature) {
     if (methodFromArray(signature)) {
       // should not generate any method behavior
       return null;
@@ -290,7 +289,7 @@ public class BytecodeEGWalker {
     if (!methodBehavior.isVisited()) {
       try {
         methodBehavior.visited();
-        execute(signature, classLoader);
+        execute(signature);
       } catch (ExplodedGraphWalker.MaximumStepsReachedException
         | RelationalSymbolicValue.TransitiveRelationExceededException
         | BytecodeAnalysisException e) {
@@ -311,15 +310,17 @@ public class BytecodeEGWalker {
     return MAX_STEPS;
   }
 
-  private void execute(String signature, SquidClassLoader classLoader) {
-    BytecodeCFGMethodVisitor cfgVisitor = new BytecodeCFGMethodVisitor();
-    MethodLookup lookup = MethodLookup.lookup(signature, classLoader, cfgVisitor);
+  private void execute(String signature) {
+    BytecodeAnalysisSession session = behaviorCache.bytecodeAnalysisSession();
+    MethodLookup lookup = session.lookup(signature);
     if (lookup == null) {
       LOG.debug("Method body not found: %s", signature);
       return;
     }
     methodBehavior.setDeclaredExceptions(lookup.declaredExceptions);
     methodBehavior.setVarArgs(lookup.isVarArgs);
+    BytecodeCFGMethodVisitor cfgVisitor = new BytecodeCFGMethodVisitor();
+    session.visitMethod(signature, lookup, cfgVisitor);
     BytecodeCFG bytecodeCFG = cfgVisitor.getCfg();
     if (bytecodeCFG == null) {
       return;
@@ -86,6 +86,14 @@ public class CFG implements ControlFlowGraph {
   private Symbol.MethodSymbol methodSymbol;
   private Block currentBlock;
 
+  /**
+   * Liveness of variables, computed on demand by {@link LiveVariables} and shared by all users of this CFG.
+   */
+  @Nullable
+  LiveVariables liveVariables;
+  @Nullable
+  LiveVariables liveVariablesWithFields;
+
   /**
    * List of all blocks in order they were created.
    */
@@ -1111,6 +1119,9 @@ public class CFG implements ControlFlowGraph {
 
   public void setMethodSymbol(Symbol.MethodSymbol methodSymbol) {
     this.methodSymbol = methodSymbol;
+    // liveness depends on the method owning local variables
+    liveVariables = null;
+    liveVariablesWithFields = null;
   }
 
 }
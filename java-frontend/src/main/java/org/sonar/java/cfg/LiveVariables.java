@@ -66,17 +66,25 @@ public class LiveVariables {
   }
 
   /**
-   * Returns LiveVariables object with information concerning local variables and parameters
+   * Returns LiveVariables object with information concerning local variables and parameters.
+   * Analysis is done once per CFG, subsequent calls return the same result.
    */
   public static LiveVariables analyze(CFG cfg) {
-    return analyze(cfg, false);
+    if (cfg.liveVariables == null) {
+      cfg.liveVariables = analyze(cfg, false);
+    }
+    return cfg.liveVariables;
   }
 
   /**
-   * Returns LiveVariables object with information concerning local variables, parameters and fields
+   * Returns LiveVariables object with information concerning local variables, parameters and fields.
+   * Analysis is done once per CFG, subsequent calls return the same result.
    */
   public static LiveVariables analyzeWithFields(CFG cfg) {
-    return analyze(cfg, true);
+    if (cfg.liveVariablesWithFields == null) {
+      cfg.liveVariablesWithFields = analyze(cfg, true);
+    }
+    return cfg.liveVariablesWithFields;
   }
 
   private static LiveVariables analyze(CFG cfg, boolean includeFields) {
@@ -97,10 +105,13 @@ public class LiveVariables {
       throw new IllegalStateException("Out of exit block should be empty");
     }
 
-    // Make things immutable.
+    // Make things immutable, as results are shared.
     for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.out.entrySet()) {
       blockSetEntry.setValue(ImmutableSet.copyOf(blockSetEntry.getValue()));
     }
+    for (Map.Entry<CFG.Block, Set<Symbol>> blockSetEntry : liveVariables.in.entrySet()) {
+      blockSetEntry.setValue(ImmutableSet.copyOf(blockSetEntry.getValue()));
+    }
 
     return liveVariables;
   }
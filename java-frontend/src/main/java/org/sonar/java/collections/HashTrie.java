@@ -0,0 +1,562 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.collections;
+
+import com.google.common.base.Preconditions;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Compressed hash array mapped prefix trie (CHAMP).
+ *
+ * https://michael.steindorfer.name/publications/oopsla15.pdf
+ *
+ * Trie is kept in canonical form: a sub-node never holds a single entry, so two equal maps always have the same shape,
+ * whatever the order of operations used to build them. Size and hash code are maintained on updates.
+ */
+final class HashTrie<K, V> implements PMap<K, V>, PSet<K> {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+  private static final int HASH_BITS = 32;
+
+  private static final HashTrie EMPTY = new HashTrie(BitmapNode.EMPTY_NODE, 0, 0);
+
+  private final Node root;
+  private final int size;
+  private final int hashCode;
+
+  private HashTrie(Node root, int size, int hashCode) {
+    this.root = root;
+    this.size = size;
+    this.hashCode = hashCode;
+  }
+
+  /**
+   * @return empty trie
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> HashTrie<K, V> create() {
+    return EMPTY;
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public HashTrie<K, V> add(K e) {
+    Preconditions.checkNotNull(e);
+    return put(e, (V) e);
+  }
+
+  @Override
+  public boolean contains(K k) {
+    return get(k) != null;
+  }
+
+  @Override
+  public HashTrie<K, V> put(K key, V value) {
+    Preconditions.checkNotNull(key);
+    Preconditions.checkNotNull(value);
+    Change change = new Change();
+    Node newRoot = root.put(key, value, key.hashCode(), 0, change);
+    if (newRoot == root) {
+      return this;
+    }
+    return new HashTrie<>(newRoot, size + change.sizeDelta, hashCode + change.hashCodeDelta);
+  }
+
+  @Override
+  public HashTrie<K, V> remove(K key) {
+    Preconditions.checkNotNull(key);
+    Change change = new Change();
+    Node newRoot = root.remove(key, key.hashCode(), 0, change);
+    if (newRoot == root) {
+      return this;
+    }
+    return newRoot == BitmapNode.EMPTY_NODE ? create() : new HashTrie<>(newRoot, size + change.sizeDelta, hashCode + change.hashCodeDelta);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Nullable
+  @Override
+  public V get(K key) {
+    Preconditions.checkNotNull(key);
+    return (V) root.get(key, key.hashCode(), 0);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void forEach(BiConsumer<K, V> action) {
+    root.forEach((BiConsumer<Object, Object>) action);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public void forEach(Consumer<K> action) {
+    root.forEach((k, v) -> action.accept((K) k));
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj instanceof HashTrie) {
+      HashTrie other = (HashTrie) obj;
+      return size == other.size
+        && hashCode == other.hashCode
+        && root.equals(other.root);
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    List<Object[]> entries = new ArrayList<>(size);
+    root.forEach((k, v) -> entries.add(new Object[] {k, v}));
+    // stable sort: keys with same hash code keep the order of the trie
+    entries.sort(Comparator.comparingInt(entry -> entry[0].hashCode()));
+    StringBuilder sb = new StringBuilder();
+    for (Object[] entry : entries) {
+      sb.append(' ').append(entry[0]).append("->").append(entry[1]);
+    }
+    return sb.toString();
+  }
+
+  /**
+   * @return hash code of an entry, the key is multiplied by 31 to avoid K ^ V == 0 when K == V in case of set
+   */
+  private static int entryHashCode(Object key, Object value) {
+    return (31 * key.hashCode()) ^ value.hashCode();
+  }
+
+  private static int bit(int hash, int shift) {
+    return 1 << ((hash >>> shift) & MASK);
+  }
+
+  /**
+   * Records the effect of an update on size and hash code of the trie.
+   */
+  private static class Change {
+    int sizeDelta;
+    int hashCodeDelta;
+
+    void added(Object key, Object value) {
+      sizeDelta++;
+      hashCodeDelta += entryHashCode(key, value);
+    }
+
+    void removed(Object key, Object value) {
+      sizeDelta--;
+      hashCodeDelta -= entryHashCode(key, value);
+    }
+  }
+
+  private abstract static class Node {
+
+    @Nullable
+    abstract Object get(Object key, int hash, int shift);
+
+    abstract Node put(Object key, Object value, int hash, int shift, Change change);
+
+    abstract Node remove(Object key, int hash, int shift, Change change);
+
+    abstract void forEach(BiConsumer<Object, Object> action);
+
+    abstract int payloadArity();
+
+    abstract int nodeArity();
+
+    abstract Object key(int index);
+
+    abstract Object value(int index);
+
+    /**
+     * @return true if this node holds a single entry and should be inlined into its parent
+     */
+    final boolean isSingleEntry() {
+      return payloadArity() == 1 && nodeArity() == 0;
+    }
+  }
+
+  /**
+   * Node indexed by 5 bits of hash: entries are stored inline, sub-nodes are stored in reverse order at the end of the content.
+   */
+  private static final class BitmapNode extends Node {
+
+    static final BitmapNode EMPTY_NODE = new BitmapNode(0, 0, new Object[0]);
+
+    private final int dataMap;
+    private final int nodeMap;
+    private final Object[] content;
+
+    BitmapNode(int dataMap, int nodeMap, Object[] content) {
+      this.dataMap = dataMap;
+      this.nodeMap = nodeMap;
+      this.content = content;
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int bit = bit(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = dataIndex(bit);
+        return key.equals(key(index)) ? value(index) : null;
+      }
+      if ((nodeMap & bit) != 0) {
+        return nodeAt(bit).get(key, hash, shift + BITS);
+      }
+      return null;
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift, Change change) {
+      int bit = bit(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = dataIndex(bit);
+        Object currentKey = key(index);
+        Object currentValue = value(index);
+        if (key.equals(currentKey)) {
+          if (value.equals(currentValue)) {
+            return this;
+          }
+          change.removed(currentKey, currentValue);
+          change.added(key, value);
+          Object[] newContent = content.clone();
+          newContent[2 * index + 1] = value;
+          return new BitmapNode(dataMap, nodeMap, newContent);
+        }
+        change.added(key, value);
+        Node subNode = merge(currentKey, currentValue, currentKey.hashCode(), key, value, hash, shift + BITS);
+        return copyAndMigrateToNode(bit, index, subNode);
+      }
+      if ((nodeMap & bit) != 0) {
+        Node subNode = nodeAt(bit);
+        Node newSubNode = subNode.put(key, value, hash, shift + BITS, change);
+        return newSubNode == subNode ? this : copyAndSetNode(bit, newSubNode);
+      }
+      change.added(key, value);
+      return copyAndInsertValue(bit, key, value);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift, Change change) {
+      int bit = bit(hash, shift);
+      if ((dataMap & bit) != 0) {
+        int index = dataIndex(bit);
+        if (!key.equals(key(index))) {
+          return this;
+        }
+        change.removed(key(index), value(index));
+        return copyAndRemoveValue(bit, index);
+      }
+      if ((nodeMap & bit) != 0) {
+        Node subNode = nodeAt(bit);
+        Node newSubNode = subNode.remove(key, hash, shift + BITS, change);
+        if (newSubNode == subNode) {
+          return this;
+        }
+        if (newSubNode.isSingleEntry()) {
+          return copyAndMigrateToValue(bit, newSubNode.key(0), newSubNode.value(0));
+        }
+        return copyAndSetNode(bit, newSubNode);
+      }
+      return this;
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      int payloadArity = payloadArity();
+      for (int i = 0; i < payloadArity; i++) {
+        action.accept(key(i), value(i));
+      }
+      for (int i = 2 * payloadArity; i < content.length; i++) {
+        ((Node) content[i]).forEach(action);
+      }
+    }
+
+    @Override
+    int payloadArity() {
+      return Integer.bitCount(dataMap);
+    }
+
+    @Override
+    int nodeArity() {
+      return Integer.bitCount(nodeMap);
+    }
+
+    @Override
+    Object key(int index) {
+      return content[2 * index];
+    }
+
+    @Override
+    Object value(int index) {
+      return content[2 * index + 1];
+    }
+
+    private int dataIndex(int bit) {
+      return Integer.bitCount(dataMap & (bit - 1));
+    }
+
+    private int nodeIndex(int bit) {
+      return content.length - 1 - Integer.bitCount(nodeMap & (bit - 1));
+    }
+
+    private Node nodeAt(int bit) {
+      return (Node) content[nodeIndex(bit)];
+    }
+
+    private BitmapNode copyAndSetNode(int bit, Node node) {
+      Object[] newContent = content.clone();
+      newContent[nodeIndex(bit)] = node;
+      return new BitmapNode(dataMap, nodeMap, newContent);
+    }
+
+    private BitmapNode copyAndInsertValue(int bit, Object key, Object value) {
+      int index = 2 * dataIndex(bit);
+      Object[] newContent = new Object[content.length + 2];
+      System.arraycopy(content, 0, newContent, 0, index);
+      newContent[index] = key;
+      newContent[index + 1] = value;
+      System.arraycopy(content, index, newContent, index + 2, content.length - index);
+      return new BitmapNode(dataMap | bit, nodeMap, newContent);
+    }
+
+    private BitmapNode copyAndRemoveValue(int bit, int dataIndex) {
+      int index = 2 * dataIndex;
+      Object[] newContent = new Object[content.length - 2];
+      System.arraycopy(content, 0, newContent, 0, index);
+      System.arraycopy(content, index + 2, newContent, index, content.length - index - 2);
+      return newContent.length == 0 ? EMPTY_NODE : new BitmapNode(dataMap ^ bit, nodeMap, newContent);
+    }
+
+    private BitmapNode copyAndMigrateToNode(int bit, int dataIndex, Node node) {
+      int oldIndex = 2 * dataIndex;
+      int newNodeMap = nodeMap | bit;
+      // position of the node, counted from the end of the new content
+      int newIndex = content.length - 2 - Integer.bitCount(nodeMap & (bit - 1));
+      Object[] newContent = new Object[content.length - 1];
+      System.arraycopy(content, 0, newContent, 0, oldIndex);
+      System.arraycopy(content, oldIndex + 2, newContent, oldIndex, newIndex - oldIndex);
+      newContent[newIndex] = node;
+      System.arraycopy(content, newIndex + 2, newContent, newIndex + 1, content.length - newIndex - 2);
+      return new BitmapNode(dataMap ^ bit, newNodeMap, newContent);
+    }
+
+    private BitmapNode copyAndMigrateToValue(int bit, Object key, Object value) {
+      int oldIndex = nodeIndex(bit);
+      int newIndex = 2 * dataIndex(bit);
+      Object[] newContent = new Object[content.length + 1];
+      System.arraycopy(content, 0, newContent, 0, newIndex);
+      newContent[newIndex] = key;
+      newContent[newIndex + 1] = value;
+      System.arraycopy(content, newIndex, newContent, newIndex + 2, oldIndex - newIndex);
+      System.arraycopy(content, oldIndex + 1, newContent, oldIndex + 2, content.length - oldIndex - 1);
+      return new BitmapNode(dataMap | bit, nodeMap ^ bit, newContent);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * dataMap + nodeMap;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof BitmapNode)) {
+        return false;
+      }
+      BitmapNode other = (BitmapNode) obj;
+      if (dataMap != other.dataMap || nodeMap != other.nodeMap) {
+        return false;
+      }
+      for (int i = 0; i < content.length; i++) {
+        if (!content[i].equals(other.content[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Node holding entries with keys having the same hash code.
+   */
+  private static final class CollisionNode extends Node {
+
+    private final int hash;
+    private final Object[] content;
+
+    CollisionNode(int hash, Object[] content) {
+      this.hash = hash;
+      this.content = content;
+    }
+
+    @Override
+    Object get(Object key, int hash, int shift) {
+      int index = indexOf(key);
+      return index < 0 ? null : value(index);
+    }
+
+    @Override
+    Node put(Object key, Object value, int hash, int shift, Change change) {
+      int index = indexOf(key);
+      Object[] newContent;
+      if (index < 0) {
+        newContent = new Object[content.length + 2];
+        System.arraycopy(content, 0, newContent, 0, content.length);
+        newContent[content.length] = key;
+        newContent[content.length + 1] = value;
+        change.added(key, value);
+      } else {
+        Object currentValue = value(index);
+        if (value.equals(currentValue)) {
+          return this;
+        }
+        newContent = content.clone();
+        newContent[2 * index + 1] = value;
+        change.removed(key(index), currentValue);
+        change.added(key, value);
+      }
+      return new CollisionNode(this.hash, newContent);
+    }
+
+    @Override
+    Node remove(Object key, int hash, int shift, Change change) {
+      int index = indexOf(key);
+      if (index < 0) {
+        return this;
+      }
+      change.removed(key(index), value(index));
+      Object[] newContent = new Object[content.length - 2];
+      System.arraycopy(content, 0, newContent, 0, 2 * index);
+      System.arraycopy(content, 2 * index + 2, newContent, 2 * index, content.length - 2 * index - 2);
+      if (newContent.length == 2) {
+        // will be inlined by the parent
+        return new BitmapNode(bit(this.hash, 0), 0, newContent);
+      }
+      return new CollisionNode(this.hash, newContent);
+    }
+
+    @Override
+    void forEach(BiConsumer<Object, Object> action) {
+      for (int i = 0; i < content.length; i += 2) {
+        action.accept(content[i], content[i + 1]);
+      }
+    }
+
+    @Override
+    int payloadArity() {
+      return content.length / 2;
+    }
+
+    @Override
+    int nodeArity() {
+      return 0;
+    }
+
+    @Override
+    Object key(int index) {
+      return content[2 * index];
+    }
+
+    @Override
+    Object value(int index) {
+      return content[2 * index + 1];
+    }
+
+    private int indexOf(Object key) {
+      for (int i = 0; i < content.length; i += 2) {
+        if (key.equals(content[i])) {
+          return i / 2;
+        }
+      }
+      return -1;
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof CollisionNode)) {
+        return false;
+      }
+      CollisionNode other = (CollisionNode) obj;
+      if (hash != other.hash || content.length != other.content.length) {
+        return false;
+      }
+      // order of entries depends on order of operations
+      for (int i = 0; i < content.length; i += 2) {
+        int index = other.indexOf(content[i]);
+        if (index < 0 || !content[i + 1].equals(other.value(index))) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * @return node holding both entries, which are known to have different keys
+   */
+  private static Node merge(Object key1, Object value1, int hash1, Object key2, Object value2, int hash2, int shift) {
+    if (shift >= HASH_BITS) {
+      return new CollisionNode(hash1, new Object[] {key1, value1, key2, value2});
+    }
+    int bit1 = bit(hash1, shift);
+    int bit2 = bit(hash2, shift);
+    if (bit1 == bit2) {
+      Node subNode = merge(key1, value1, hash1, key2, value2, hash2, shift + BITS);
+      return new BitmapNode(0, bit1, new Object[] {subNode});
+    }
+    Object[] content = Integer.compareUnsigned(bit1, bit2) < 0
+      ? new Object[] {key1, value1, key2, value2}
+      : new Object[] {key2, value2, key1, value1};
+    return new BitmapNode(bit1 | bit2, 0, content);
+  }
+
+}
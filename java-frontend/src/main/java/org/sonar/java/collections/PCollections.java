@@ -21,15 +21,22 @@ package org.sonar.java.collections;
 
 public final class PCollections {
 
+  /**
+   * When set, persistent maps and sets are backed by a {@link HashTrie} instead of an {@link AVLTree}.
+   */
+  static final String HASH_TRIE_PROPERTY = "sonar.java.collections.hashTrie";
+
+  private static final boolean HASH_TRIE = Boolean.getBoolean(HASH_TRIE_PROPERTY);
+
   private PCollections() {
   }
 
   public static <E> PSet<E> emptySet() {
-    return AVLTree.create();
+    return HASH_TRIE ? HashTrie.create() : AVLTree.create();
   }
 
   public static <E, V> PMap<E, V> emptyMap() {
-    return AVLTree.create();
+    return HASH_TRIE ? HashTrie.create() : AVLTree.create();
   }
 
   public static <E> PStack<E> emptyStack() {
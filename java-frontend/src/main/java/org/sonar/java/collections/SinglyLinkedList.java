@@ -128,7 +128,8 @@ final class SinglyLinkedList<E> implements PStack<E> {
     }
     if (obj instanceof SinglyLinkedList) {
       final SinglyLinkedList other = (SinglyLinkedList) obj;
-      return this.element.equals(other.element)
+      return this.hashCode() == other.hashCode()
+        && this.element.equals(other.element)
         && Objects.equals(this.next, other.next);
     }
     return false;
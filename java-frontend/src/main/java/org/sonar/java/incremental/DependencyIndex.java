@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.incremental;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reverse dependencies of the files of the project: for each type, the files referencing it and its direct subtypes.
+ */
+class DependencyIndex {
+
+  private final Map<String, Set<String>> filesByType = new HashMap<>();
+  private final Map<String, Set<String>> filesBySimpleName = new HashMap<>();
+  private final Map<String, Set<String>> subtypesByType = new HashMap<>();
+
+  void add(String file, Collection<String> referencedTypes) {
+    for (String type : referencedTypes) {
+      filesByType.computeIfAbsent(type, t -> new HashSet<>()).add(file);
+      filesBySimpleName.computeIfAbsent(simpleName(type), t -> new HashSet<>()).add(file);
+    }
+  }
+
+  void addSubtypes(Collection<String> supertypes, Collection<String> subtypes) {
+    for (String supertype : supertypes) {
+      subtypesByType.computeIfAbsent(supertype, t -> new HashSet<>()).addAll(subtypes);
+    }
+  }
+
+  /**
+   * @return all the subtypes, direct or not, of the given types
+   */
+  Set<String> subtypes(Collection<String> types) {
+    Set<String> result = new HashSet<>();
+    Deque<String> typesToVisit = new ArrayDeque<>(types);
+    while (!typesToVisit.isEmpty()) {
+      for (String subtype : subtypesByType.getOrDefault(typesToVisit.pop(), Collections.emptySet())) {
+        if (result.add(subtype)) {
+          typesToVisit.push(subtype);
+        }
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return files referencing any of the given types
+   */
+  Set<String> dependents(Collection<String> types) {
+    Set<String> result = new HashSet<>();
+    for (String type : types) {
+      result.addAll(filesByType.getOrDefault(type, Collections.emptySet()));
+    }
+    return result;
+  }
+
+  /**
+   * @return files referencing a type with any of the given simple names, whatever its package
+   */
+  Set<String> dependentsBySimpleName(Collection<String> simpleNames) {
+    Set<String> result = new HashSet<>();
+    for (String simpleName : simpleNames) {
+      result.addAll(filesBySimpleName.getOrDefault(simpleName, Collections.emptySet()));
+    }
+    return result;
+  }
+
+  /**
+   * @param binaryName name of a class as found in the classpath, e.g. {@code org.foo.A$B}
+   * @return name of its top-level class, e.g. {@code org.foo.A}
+   */
+  static String topLevelClass(String binaryName) {
+    int dollar = binaryName.indexOf('$', binaryName.lastIndexOf('.') + 1);
+    return dollar < 0 ? binaryName : binaryName.substring(0, dollar);
+  }
+
+  private static String simpleName(String type) {
+    return type.substring(type.lastIndexOf('.') + 1);
+  }
+}
@@ -0,0 +1,393 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.incremental;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.apache.commons.lang.StringUtils;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Results of the previous analysis, used to skip the rules on files which did not change since then.
+ * A file is considered unchanged when its content is the same, when none of the types it depends on changed
+ * and when the configuration of the analysis (active rules and their parameters, libraries, analysis settings) did not change.
+ * Issues of unchanged files are replayed from this store, while the files themselves are still parsed to compute
+ * metrics, highlighting and issue filters.
+ */
+public class IncrementalAnalysisStore {
+
+  private static final Logger LOG = Loggers.get(IncrementalAnalysisStore.class);
+
+  public static final String FILE_NAME = "java-incremental-analysis.bin";
+  private static final int VERSION = 3;
+
+  private final File storeFile;
+  private final File baseDir;
+  private final String configurationFingerprint;
+  private final Map<String, String> compiledClasses;
+  private final Map<String, String> previousCompiledClasses;
+  private final Map<String, FileEntry> previousEntries;
+  private final Map<String, FileEntry> currentEntries = new HashMap<>();
+  @Nullable
+  private FileEntry recordingEntry;
+  @Nullable
+  private String recordingKey;
+  private int unchangedFiles = 0;
+
+  private IncrementalAnalysisStore(File storeFile, File baseDir, String configurationFingerprint, Map<String, String> compiledClasses,
+    Map<String, String> previousCompiledClasses, Map<String, FileEntry> previousEntries) {
+    this.storeFile = storeFile;
+    this.baseDir = baseDir;
+    this.configurationFingerprint = configurationFingerprint;
+    this.compiledClasses = compiledClasses;
+    this.previousCompiledClasses = previousCompiledClasses;
+    this.previousEntries = previousEntries;
+  }
+
+  /**
+   * Reads the results of the previous analysis. They are ignored if they were produced with another configuration.
+   *
+   * @param compiledClasses hash of the compiled classes of the project, see {@link #compiledClasses(List)}
+   */
+  public static IncrementalAnalysisStore load(File storeFile, File baseDir, String configurationFingerprint, Map<String, String> compiledClasses) {
+    Map<String, FileEntry> entries = new HashMap<>();
+    Map<String, String> previousCompiledClasses = new HashMap<>();
+    if (storeFile.isFile()) {
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(storeFile.toPath())))) {
+        if (in.readInt() == VERSION && configurationFingerprint.equals(StoredIssue.readString(in))) {
+          int classCount = in.readInt();
+          for (int i = 0; i < classCount; i++) {
+            previousCompiledClasses.put(StoredIssue.readString(in), StoredIssue.readString(in));
+          }
+          String[] types = new String[in.readInt()];
+          for (int i = 0; i < types.length; i++) {
+            types[i] = StoredIssue.readString(in);
+          }
+          int count = in.readInt();
+          for (int i = 0; i < count; i++) {
+            String key = StoredIssue.readString(in);
+            entries.put(key, FileEntry.read(in, types));
+          }
+        } else {
+          LOG.info("Configuration of the analysis changed, all files will be analyzed");
+        }
+      } catch (IOException | RuntimeException e) {
+        LOG.debug("Unable to read results of previous analysis from {} : {}", storeFile, e.getMessage());
+        entries.clear();
+        previousCompiledClasses.clear();
+      }
+    }
+    return new IncrementalAnalysisStore(storeFile, baseDir, configurationFingerprint, compiledClasses, previousCompiledClasses, entries);
+  }
+
+  /**
+   * Discards the results of the previous analysis which can not be reused: the ones of files which changed, and the ones of files
+   * depending on a type which changed, was removed or might now be resolved differently. A type inherits the changes of its supertypes,
+   * so the files depending on a subtype of a changed type are analyzed again as well.
+   *
+   * @param files all the files of the current analysis
+   */
+  public void invalidate(Collection<File> files, Function<File, String> contentProvider) {
+    Set<String> invalidatedTypes = new HashSet<>();
+    Set<String> addedTypes = new HashSet<>();
+    compiledClasses.forEach((name, hash) -> {
+      if (!hash.equals(previousCompiledClasses.get(name))) {
+        invalidatedTypes.add(DependencyIndex.topLevelClass(name));
+      }
+    });
+    previousCompiledClasses.keySet().stream()
+      .filter(name -> !compiledClasses.containsKey(name))
+      .forEach(name -> invalidatedTypes.add(DependencyIndex.topLevelClass(name)));
+
+    Set<String> changedFiles = new HashSet<>();
+    Set<String> removedFiles = new HashSet<>(previousEntries.keySet());
+    for (File file : files) {
+      String key = key(file);
+      removedFiles.remove(key);
+      FileEntry previous = previousEntries.get(key);
+      if (previous == null) {
+        // types declared by a new file are not known before it is parsed: public top-level types are named after their file
+        addedTypes.add(StringUtils.substringBeforeLast(file.getName(), "."));
+        changedFiles.add(key);
+      } else if (!previous.contentHash.equals(contentHash(contentProvider.apply(file)))) {
+        invalidatedTypes.addAll(previous.declaredTypes);
+        changedFiles.add(key);
+      }
+    }
+    removedFiles.forEach(key -> invalidatedTypes.addAll(previousEntries.get(key).declaredTypes));
+
+    DependencyIndex dependencyIndex = new DependencyIndex();
+    previousEntries.forEach((key, entry) -> {
+      dependencyIndex.add(key, entry.referencedTypes);
+      dependencyIndex.addSubtypes(entry.supertypes, entry.declaredTypes);
+    });
+    invalidatedTypes.addAll(dependencyIndex.subtypes(invalidatedTypes));
+    Set<String> dependentFiles = dependencyIndex.dependents(invalidatedTypes);
+    if (!addedTypes.isEmpty()) {
+      dependentFiles.addAll(dependencyIndex.dependentsBySimpleName(addedTypes));
+      previousEntries.forEach((key, entry) -> {
+        if (!entry.complete) {
+          dependentFiles.add(key);
+        }
+      });
+    }
+    dependentFiles.removeAll(changedFiles);
+    dependentFiles.removeAll(removedFiles);
+    LOG.debug("{} changed files, {} files depending on changed types", changedFiles.size(), dependentFiles.size());
+    previousEntries.keySet().removeAll(dependentFiles);
+    previousEntries.keySet().removeAll(removedFiles);
+  }
+
+  /**
+   * Starts the analysis of a file.
+   *
+   * @return issues to replay if the file did not change since the previous analysis, null if the file has to be analyzed.
+   * In the latter case, the issues reported on the file are recorded until {@link #endFile(Set, Set, Set, boolean)}.
+   */
+  @CheckForNull
+  public List<StoredIssue> startFile(File file, String content) {
+    String key = key(file);
+    String contentHash = contentHash(content);
+    FileEntry previous = previousEntries.get(key);
+    if (previous != null && previous.contentHash.equals(contentHash)) {
+      currentEntries.put(key, previous);
+      unchangedFiles++;
+      return previous.issues;
+    }
+    recordingKey = key;
+    recordingEntry = new FileEntry(contentHash, new ArrayList<>());
+    currentEntries.put(key, recordingEntry);
+    return null;
+  }
+
+  /**
+   * Records an issue reported on the file being analyzed. Issues reported on other files, or on unchanged files, are ignored.
+   */
+  public void record(File file, StoredIssue issue) {
+    if (recordingEntry != null && key(file).equals(recordingKey)) {
+      recordingEntry.issues.add(issue);
+    }
+  }
+
+  /**
+   * Ends the analysis of a file, recording its dependencies if it was analyzed.
+   *
+   * @param declaredTypes fully qualified names of the top-level types declared by the file
+   * @param supertypes fully qualified names of the top-level types declaring the supertypes of the types declared by the file
+   * @param referencedTypes fully qualified names of the top-level types the file depends on
+   * @param complete false when some types used by the file could not be resolved
+   */
+  public void endFile(Set<String> declaredTypes, Set<String> supertypes, Set<String> referencedTypes, boolean complete) {
+    if (recordingEntry != null) {
+      recordingEntry.declaredTypes = declaredTypes;
+      recordingEntry.supertypes = supertypes;
+      recordingEntry.referencedTypes = referencedTypes;
+      recordingEntry.complete = complete;
+    }
+    recordingKey = null;
+    recordingEntry = null;
+  }
+
+  /**
+   * Writes the results of the files handled by the current analysis, replacing the ones of the previous analysis.
+   */
+  public void save() {
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(storeFile.toPath())))) {
+      out.writeInt(VERSION);
+      StoredIssue.writeString(out, configurationFingerprint);
+      out.writeInt(compiledClasses.size());
+      for (Map.Entry<String, String> compiledClass : compiledClasses.entrySet()) {
+        StoredIssue.writeString(out, compiledClass.getKey());
+        StoredIssue.writeString(out, compiledClass.getValue());
+      }
+      // names of types are shared by many files: they are written once and referenced by their index
+      Map<String, Integer> typeIds = new HashMap<>();
+      List<String> types = new ArrayList<>();
+      for (FileEntry entry : currentEntries.values()) {
+        Stream.of(entry.declaredTypes, entry.supertypes, entry.referencedTypes).flatMap(Set::stream).forEach(type -> typeIds.computeIfAbsent(type, t -> {
+          types.add(t);
+          return types.size() - 1;
+        }));
+      }
+      out.writeInt(types.size());
+      for (String type : types) {
+        StoredIssue.writeString(out, type);
+      }
+      out.writeInt(currentEntries.size());
+      for (Map.Entry<String, FileEntry> entry : currentEntries.entrySet()) {
+        StoredIssue.writeString(out, entry.getKey());
+        entry.getValue().write(out, typeIds);
+      }
+    } catch (IOException e) {
+      LOG.warn("Unable to save results of the analysis to {} : {}", storeFile, e.getMessage());
+      return;
+    }
+    LOG.info("{}/{} unchanged files were not analyzed again", unchangedFiles, currentEntries.size());
+  }
+
+  private String key(File file) {
+    return baseDir.toPath().relativize(file.getAbsoluteFile().toPath()).toString().replace(File.separatorChar, '/');
+  }
+
+  private static String contentHash(String content) {
+    return Hashing.murmur3_128().hashString(content, StandardCharsets.UTF_8).toString();
+  }
+
+  /**
+   * Computes a fingerprint of everything, besides the content of a file and the types it depends on, which has an impact on the issues reported on it.
+   *
+   * @param classpath libraries are identified by their size and last modification date, while directories of compiled classes
+   *                  are only identified by their path, their content being handled by {@link #compiledClasses(List)}
+   * @param settings any other setting of the analysis, including the versions of the analyzer and of the plugins providing rules
+   */
+  public static String configurationFingerprint(Collection<ActiveRule> activeRules, List<File> classpath, String... settings) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    hasher.putInt(VERSION);
+    for (String setting : settings) {
+      hasher.putString(setting, StandardCharsets.UTF_8);
+    }
+    activeRules.stream()
+      .sorted(Comparator.comparing(activeRule -> activeRule.ruleKey().toString()))
+      .forEach(activeRule -> {
+        hasher.putString(activeRule.ruleKey().toString(), StandardCharsets.UTF_8);
+        new TreeMap<>(activeRule.params()).forEach((name, value) -> hasher.putString(name, StandardCharsets.UTF_8).putString(value, StandardCharsets.UTF_8));
+      });
+    for (File file : classpath) {
+      hasher.putString(file.getAbsolutePath(), StandardCharsets.UTF_8);
+      if (!file.isDirectory()) {
+        hasher.putLong(file.length()).putLong(file.lastModified());
+      }
+    }
+    return hasher.hash().toString();
+  }
+
+  /**
+   * @return hash of the content of each class found in the directories of the classpath, by binary name of the class
+   */
+  public static Map<String, String> compiledClasses(List<File> classpath) {
+    Map<String, String> result = new HashMap<>();
+    for (File file : classpath) {
+      if (file.isDirectory()) {
+        putCompiledClasses(result, file.toPath());
+      }
+    }
+    return result;
+  }
+
+  private static void putCompiledClasses(Map<String, String> compiledClasses, Path directory) {
+    try (Stream<Path> files = Files.walk(directory)) {
+      for (Path file : files.filter(path -> path.toString().endsWith(".class")).collect(Collectors.toList())) {
+        String relativePath = directory.relativize(file).toString().replace(File.separatorChar, '/');
+        String className = relativePath.substring(0, relativePath.length() - ".class".length()).replace('/', '.');
+        compiledClasses.put(className, Hashing.murmur3_128().hashBytes(Files.readAllBytes(file)).toString());
+      }
+    } catch (IOException | UncheckedIOException e) {
+      LOG.debug("Unable to read compiled classes from {} : {}", directory, e.getMessage());
+    }
+  }
+
+  private static class FileEntry {
+    private final String contentHash;
+    private final List<StoredIssue> issues;
+    private Set<String> declaredTypes = Collections.emptySet();
+    private Set<String> supertypes = Collections.emptySet();
+    private Set<String> referencedTypes = Collections.emptySet();
+    private boolean complete = false;
+
+    private FileEntry(String contentHash, List<StoredIssue> issues) {
+      this.contentHash = contentHash;
+      this.issues = issues;
+    }
+
+    private void write(DataOutputStream out, Map<String, Integer> typeIds) throws IOException {
+      StoredIssue.writeString(out, contentHash);
+      out.writeBoolean(complete);
+      writeTypes(out, declaredTypes, typeIds);
+      writeTypes(out, supertypes, typeIds);
+      writeTypes(out, referencedTypes, typeIds);
+      out.writeInt(issues.size());
+      for (StoredIssue issue : issues) {
+        issue.write(out);
+      }
+    }
+
+    private static FileEntry read(DataInputStream in, String[] types) throws IOException {
+      String contentHash = StoredIssue.readString(in);
+      boolean complete = in.readBoolean();
+      Set<String> declaredTypes = readTypes(in, types);
+      Set<String> supertypes = readTypes(in, types);
+      Set<String> referencedTypes = readTypes(in, types);
+      int count = in.readInt();
+      List<StoredIssue> issues = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        issues.add(StoredIssue.read(in));
+      }
+      FileEntry entry = new FileEntry(contentHash, issues);
+      entry.complete = complete;
+      entry.declaredTypes = declaredTypes;
+      entry.supertypes = supertypes;
+      entry.referencedTypes = referencedTypes;
+      return entry;
+    }
+
+    private static void writeTypes(DataOutputStream out, Set<String> types, Map<String, Integer> typeIds) throws IOException {
+      out.writeInt(types.size());
+      for (String type : types) {
+        out.writeInt(typeIds.get(type));
+      }
+    }
+
+    private static Set<String> readTypes(DataInputStream in, String[] types) throws IOException {
+      int count = in.readInt();
+      Set<String> result = new HashSet<>();
+      for (int i = 0; i < count; i++) {
+        result.add(types[in.readInt()]);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,167 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.incremental;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.AnalyzerMessage;
+import org.sonar.plugins.java.api.JavaCheck;
+
+/**
+ * Issue raised by a rule on a file, as persisted between analyses.
+ */
+public class StoredIssue {
+
+  private final RuleKey ruleKey;
+  private final String message;
+  private final int cost;
+  @Nullable
+  private final AnalyzerMessage.TextSpan primaryLocation;
+  private final List<List<Location>> flows;
+
+  private StoredIssue(RuleKey ruleKey, String message, int cost, @Nullable AnalyzerMessage.TextSpan primaryLocation, List<List<Location>> flows) {
+    this.ruleKey = ruleKey;
+    this.message = message;
+    this.cost = cost;
+    this.primaryLocation = primaryLocation;
+    this.flows = flows;
+  }
+
+  public static StoredIssue of(RuleKey ruleKey, AnalyzerMessage analyzerMessage) {
+    Double cost = analyzerMessage.getCost();
+    List<List<Location>> flows = new ArrayList<>(analyzerMessage.flows.size());
+    for (List<AnalyzerMessage> flow : analyzerMessage.flows) {
+      List<Location> locations = new ArrayList<>(flow.size());
+      for (AnalyzerMessage location : flow) {
+        locations.add(new Location(location.getMessage(), location.primaryLocation()));
+      }
+      flows.add(locations);
+    }
+    return new StoredIssue(ruleKey, analyzerMessage.getMessage(), cost == null ? 0 : cost.intValue(), analyzerMessage.primaryLocation(), flows);
+  }
+
+  public RuleKey ruleKey() {
+    return ruleKey;
+  }
+
+  /**
+   * @param check instance of the rule which raised the issue in the current analysis
+   */
+  public AnalyzerMessage toAnalyzerMessage(JavaCheck check, File file) {
+    AnalyzerMessage analyzerMessage = new AnalyzerMessage(check, file, primaryLocation, message, cost);
+    for (List<Location> flow : flows) {
+      List<AnalyzerMessage> messages = new ArrayList<>(flow.size());
+      for (Location location : flow) {
+        messages.add(new AnalyzerMessage(check, file, location.textSpan, location.message, 0));
+      }
+      analyzerMessage.flows.add(messages);
+    }
+    return analyzerMessage;
+  }
+
+  void write(DataOutputStream out) throws IOException {
+    writeString(out, ruleKey.toString());
+    writeString(out, message);
+    out.writeInt(cost);
+    writeTextSpan(out, primaryLocation);
+    out.writeInt(flows.size());
+    for (List<Location> flow : flows) {
+      out.writeInt(flow.size());
+      for (Location location : flow) {
+        writeString(out, location.message);
+        writeTextSpan(out, location.textSpan);
+      }
+    }
+  }
+
+  static StoredIssue read(DataInputStream in) throws IOException {
+    RuleKey ruleKey = RuleKey.parse(readString(in));
+    String message = readString(in);
+    int cost = in.readInt();
+    AnalyzerMessage.TextSpan primaryLocation = readTextSpan(in);
+    int flowsCount = in.readInt();
+    List<List<Location>> flows = new ArrayList<>(flowsCount);
+    for (int i = 0; i < flowsCount; i++) {
+      int locationsCount = in.readInt();
+      List<Location> locations = new ArrayList<>(locationsCount);
+      for (int j = 0; j < locationsCount; j++) {
+        locations.add(new Location(readString(in), readTextSpan(in)));
+      }
+      flows.add(locations);
+    }
+    return new StoredIssue(ruleKey, message, cost, primaryLocation, flows);
+  }
+
+  private static void writeTextSpan(DataOutputStream out, @Nullable AnalyzerMessage.TextSpan textSpan) throws IOException {
+    out.writeBoolean(textSpan != null);
+    if (textSpan != null) {
+      out.writeInt(textSpan.startLine);
+      out.writeInt(textSpan.startCharacter);
+      out.writeInt(textSpan.endLine);
+      out.writeInt(textSpan.endCharacter);
+    }
+  }
+
+  @CheckForNull
+  private static AnalyzerMessage.TextSpan readTextSpan(DataInputStream in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+    return new AnalyzerMessage.TextSpan(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+  }
+
+  /**
+   * Strings are written with their length rather than with {@link DataOutputStream#writeUTF(String)}, which is limited to 64 KB.
+   */
+  static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    int length = in.readInt();
+    if (length < 0) {
+      throw new IOException("Invalid string length: " + length);
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static class Location {
+    private final String message;
+    @Nullable
+    private final AnalyzerMessage.TextSpan textSpan;
+
+    private Location(String message, @Nullable AnalyzerMessage.TextSpan textSpan) {
+      this.message = message;
+      this.textSpan = textSpan;
+    }
+  }
+}
@@ -29,9 +29,8 @@ import java.util.List;
 
 public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
 
-  private List<SyntaxTrivia> trivias;
-  private int startIndex;
-  private int endIndex;
+  private final List<SyntaxTrivia> trivias;
+  private final int startIndex;
   private final int line;
   private final int column;
   private final String value;
@@ -44,18 +43,16 @@ public class InternalSyntaxToken extends JavaTree implements SyntaxToken {
     this.column = internalSyntaxToken.column;
     this.trivias = internalSyntaxToken.trivias;
     this.startIndex = internalSyntaxToken.startIndex;
-    this.endIndex = internalSyntaxToken.endIndex;
     this.isEOF = internalSyntaxToken.isEOF;
   }
 
-  public InternalSyntaxToken(int line, int column, String value, List<SyntaxTrivia> trivias, int startIndex, int endIndex, boolean isEOF) {
+  public InternalSyntaxToken(int line, int column, String value, List<SyntaxTrivia> trivias, int startIndex, boolean isEOF) {
     super(null);
     this.value = value;
     this.line = line;
     this.column = column;
     this.trivias = trivias;
     this.startIndex = startIndex;
-    this.endIndex = endIndex;
     this.isEOF = isEOF;
   }
 
@@ -23,11 +23,11 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 import javax.annotation.Nullable;
 import org.sonar.java.ast.parser.TypeUnionListTreeImpl;
 import org.sonar.java.model.declaration.AnnotationTreeImpl;
@@ -130,13 +130,8 @@ public abstract class JavaTree implements Tree {
 
   public List<Tree> getChildren() {
     if(children == null) {
-      children = new ArrayList<>();
-      children().forEach(child -> {
-        // null children are ignored
-        if (child != null) {
-          children.add(child);
-        }
-      });
+      // null children are ignored, the list is sized to the actual number of children
+      children = ImmutableList.copyOf(Iterables.filter(children(), Objects::nonNull));
     }
     return children;
   }
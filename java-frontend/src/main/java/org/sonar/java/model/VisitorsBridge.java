@@ -27,11 +27,14 @@ import java.io.File;
 import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.stream.Collectors;
 import javax.annotation.Nullable;
+import org.sonar.api.rule.RuleKey;
 import org.sonar.api.utils.AnnotationUtils;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -43,15 +46,27 @@ import org.sonar.java.IllegalRuleParameterException;
 import org.sonar.java.JavaVersionAwareVisitor;
 import org.sonar.java.SonarComponents;
 import org.sonar.java.ast.visitors.SonarSymbolTableVisitor;
+import org.sonar.java.ast.visitors.SubscriptionVisitor;
+import org.sonar.java.ast.visitors.SubscriptionVisitorsDispatcher;
 import org.sonar.java.bytecode.ClassLoaderBuilder;
+import org.sonar.java.bytecode.loader.SharedJarLoaders;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.incremental.IncrementalAnalysisStore;
+import org.sonar.java.incremental.StoredIssue;
 import org.sonar.java.resolve.SemanticModel;
+import org.sonar.java.se.ExplodedGraphWalker;
 import org.sonar.java.se.SymbolicExecutionMode;
+import org.sonar.java.se.SymbolicExecutionReport;
 import org.sonar.java.se.SymbolicExecutionVisitor;
+import org.sonar.java.se.WorkList;
 import org.sonar.java.se.xproc.BehaviorCache;
+import org.sonar.java.se.xproc.BytecodeBehaviorStore;
+import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScanner;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
@@ -61,8 +76,16 @@ public class VisitorsBridge {
 
   private final BehaviorCache behaviorCache;
   private List<JavaFileScanner> executableScanners;
+  private List<JavaFileScanner> scannersToRun;
+  private List<JavaFileScanner> scannersToRunOnUnchangedFiles;
+  private Map<RuleKey, JavaCheck> checksByRuleKey;
   private final SonarComponents sonarComponents;
   private final boolean symbolicExecutionEnabled;
+  private final boolean stateSubsumption;
+  private final WorkList.Strategy workListStrategy;
+  private final long maxExplodedGraphMemory;
+  @Nullable
+  private final SymbolicExecutionReport symbolicExecutionReport;
   private SemanticModel semanticModel;
   protected File currentFile;
   protected JavaVersion javaVersion;
@@ -80,6 +103,11 @@ public class VisitorsBridge {
   }
 
   public VisitorsBridge(Iterable visitors, List<File> projectClasspath, @Nullable SonarComponents sonarComponents, SymbolicExecutionMode symbolicExecutionMode) {
+    this(visitors, projectClasspath, sonarComponents, symbolicExecutionMode, null);
+  }
+
+  public VisitorsBridge(Iterable visitors, List<File> projectClasspath, @Nullable SonarComponents sonarComponents, SymbolicExecutionMode symbolicExecutionMode,
+    @Nullable SharedJarLoaders sharedJarLoaders) {
     ImmutableList.Builder<JavaFileScanner> scannersBuilder = ImmutableList.builder();
     for (Object visitor : visitors) {
       if (visitor instanceof JavaFileScanner) {
@@ -87,73 +115,177 @@ public class VisitorsBridge {
       }
     }
     this.executableScanners = scannersBuilder.build();
+    this.scannersToRun = scannersToRun(executableScanners);
+    this.scannersToRunOnUnchangedFiles = scannersToRunOnUnchangedFiles(executableScanners);
     this.sonarComponents = sonarComponents;
-    this.classLoader = ClassLoaderBuilder.create(projectClasspath);
+    this.classLoader = ClassLoaderBuilder.create(projectClasspath, sharedJarLoaders);
     this.symbolicExecutionEnabled = symbolicExecutionMode.isEnabled();
+    this.stateSubsumption = symbolicExecutionEnabled && sonarComponents != null && sonarComponents.isStateSubsumptionEnabled();
+    this.workListStrategy = symbolicExecutionEnabled && sonarComponents != null ? sonarComponents.symbolicExecutionWorkList() : WorkList.Strategy.DFS;
+    this.maxExplodedGraphMemory = symbolicExecutionEnabled && sonarComponents != null ? sonarComponents.symbolicExecutionMaxMemoryPerMethod()
+      : ExplodedGraphWalker.DEFAULT_MAX_EXPLODED_GRAPH_MEMORY;
     this.behaviorCache = new BehaviorCache(classLoader, symbolicExecutionMode.isCrossFileEnabled());
+    if (symbolicExecutionEnabled && sonarComponents != null && !sonarComponents.isSonarLintContext()) {
+      File workDir = sonarComponents.workDir();
+      if (workDir != null) {
+        behaviorCache.setBytecodeBehaviorStore(new BytecodeBehaviorStore(new File(workDir, BytecodeBehaviorStore.FILE_NAME), classLoader));
+      }
+    }
+    File reportDir = symbolicExecutionEnabled && sonarComponents != null && sonarComponents.isSymbolicExecutionReportEnabled() ? sonarComponents.workDir() : null;
+    this.symbolicExecutionReport = reportDir == null ? null : new SymbolicExecutionReport(new File(reportDir, SymbolicExecutionReport.FILE_NAME));
   }
 
   public void setJavaVersion(JavaVersion javaVersion) {
     this.javaVersion = javaVersion;
     this.executableScanners = executableScanners(executableScanners, javaVersion);
+    this.scannersToRun = scannersToRun(executableScanners);
+    this.scannersToRunOnUnchangedFiles = scannersToRunOnUnchangedFiles(executableScanners);
   }
 
   public void visitFile(@Nullable Tree parsedTree) {
-    semanticModel = null;
+    visitPreparedFile(prepare(currentFile, parsedTree));
+  }
+
+  /**
+   * Completes the syntax tree of a file and computes its semantic model.
+   * This step neither runs checks nor reports anything to the sensor context: it can be executed concurrently for different files.
+   */
+  public PreparedFile prepare(File file, @Nullable Tree parsedTree) {
     CompilationUnitTree tree = new JavaTree.CompilationUnitTreeImpl(null, new ArrayList<>(), new ArrayList<>(), null, null);
     boolean fileParsed = parsedTree != null;
+    SemanticModel model = null;
+    Exception semanticError = null;
     if (fileParsed && parsedTree.is(Tree.Kind.COMPILATION_UNIT)) {
       tree = (CompilationUnitTree) parsedTree;
-      if (isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
+      if (isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"), file)) {
         try {
-          semanticModel = SemanticModel.createFor(tree, classLoader);
+          model = SemanticModel.createFor(tree, classLoader);
         } catch (Exception e) {
-          LOG.error("Unable to create symbol table for : " + currentFile.getAbsolutePath(), e);
-          addAnalysisError(e, currentFile.getPath(), AnalysisError.Kind.SEMANTIC_ERROR);
-          sonarComponents.reportAnalysisError(currentFile, e.getMessage());
-          return;
+          semanticError = e;
         }
-        createSonarSymbolTable(tree);
       } else {
         SemanticModel.handleMissingTypes(tree);
       }
     }
-    JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, semanticModel, sonarComponents, fileParsed);
-    // Symbolic execution checks
-    if (symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"))) {
-      runScanner(javaFileScannerContext, new SymbolicExecutionVisitor(executableScanners, behaviorCache), AnalysisError.Kind.SE_ERROR);
-      behaviorCache.cleanup();
+    return new PreparedFile(tree, fileParsed, model, semanticError);
+  }
+
+  /**
+   * Runs the checks on a file previously prepared by {@link #prepare(File, Tree)}. Must be called from the analysis thread.
+   */
+  public void visitPreparedFile(PreparedFile preparedFile) {
+    if (preparedFile.semanticError != null) {
+      semanticModel = null;
+      Exception e = preparedFile.semanticError;
+      LOG.error("Unable to create symbol table for : " + currentFile.getAbsolutePath(), e);
+      addAnalysisError(e, currentFile.getPath(), AnalysisError.Kind.SEMANTIC_ERROR);
+      sonarComponents.reportAnalysisError(currentFile, e.getMessage());
+      return;
+    }
+    semanticModel = preparedFile.semanticModel;
+    CompilationUnitTree tree = preparedFile.tree;
+    if (semanticModel != null) {
+      createSonarSymbolTable(tree);
+    }
+    JavaFileScannerContext javaFileScannerContext = createScannerContext(tree, semanticModel, sonarComponents, preparedFile.fileParsed);
+    IncrementalAnalysisStore incrementalAnalysisStore = sonarComponents == null ? null : sonarComponents.incrementalAnalysisStore();
+    List<StoredIssue> storedIssues = incrementalAnalysisStore == null ? null : incrementalAnalysisStore.startFile(currentFile, sonarComponents.fileContent(currentFile));
+    if (storedIssues != null) {
+      // file did not change since previous analysis: rules are not executed again, their issues are replayed once issue filters are computed
+      scannersToRunOnUnchangedFiles.forEach(scanner -> runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR));
+      storedIssues.forEach(this::replayIssue);
+    } else {
+      // Symbolic execution checks
+      if (symbolicExecutionEnabled && isNotJavaLangOrSerializable(PackageUtils.packageName(tree.packageDeclaration(), "/"), currentFile)) {
+        SymbolicExecutionVisitor symbolicExecutionVisitor = new SymbolicExecutionVisitor(executableScanners, behaviorCache, stateSubsumption);
+        symbolicExecutionVisitor.setWorkListStrategy(workListStrategy);
+        symbolicExecutionVisitor.setMaxExplodedGraphMemory(maxExplodedGraphMemory);
+        runScanner(javaFileScannerContext, symbolicExecutionVisitor, AnalysisError.Kind.SE_ERROR);
+        behaviorCache.cleanup();
+        if (symbolicExecutionReport != null) {
+          symbolicExecutionReport.addFile(currentFile.getPath(), symbolicExecutionVisitor.statistics());
+        }
+      }
+      scannersToRun.forEach(scanner -> runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR));
+    }
+    if (incrementalAnalysisStore != null) {
+      if (semanticModel != null) {
+        List<Symbol.TypeSymbol> declaredClasses = declaredClasses(tree);
+        Set<String> declaredTypes = declaredClasses.stream().map(declaredClass -> declaredClass.type().fullyQualifiedName()).collect(Collectors.toSet());
+        incrementalAnalysisStore.endFile(declaredTypes, SemanticModel.supertypes(declaredClasses), semanticModel.referencedTypes(),
+          semanticModel.classesNotFound().isEmpty());
+      } else {
+        incrementalAnalysisStore.endFile(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), false);
+      }
     }
-    executableScanners.forEach(scanner -> runScanner(javaFileScannerContext, scanner, AnalysisError.Kind.CHECK_ERROR));
     if (semanticModel != null) {
       classesNotFound.addAll(semanticModel.classesNotFound());
     }
   }
 
+  private static List<Symbol.TypeSymbol> declaredClasses(CompilationUnitTree tree) {
+    return tree.types().stream()
+      .filter(type -> type.is(Tree.Kind.CLASS, Tree.Kind.INTERFACE, Tree.Kind.ENUM, Tree.Kind.ANNOTATION_TYPE))
+      .map(type -> ((ClassTree) type).symbol())
+      .collect(Collectors.toList());
+  }
+
+  private void replayIssue(StoredIssue storedIssue) {
+    if (checksByRuleKey == null) {
+      checksByRuleKey = new HashMap<>();
+      for (JavaFileScanner scanner : executableScanners) {
+        RuleKey ruleKey = sonarComponents.getRuleKey(scanner);
+        if (ruleKey != null) {
+          checksByRuleKey.put(ruleKey, scanner);
+        }
+      }
+    }
+    JavaCheck check = checksByRuleKey.get(storedIssue.ruleKey());
+    if (check != null) {
+      sonarComponents.reportIssue(storedIssue.toAnalyzerMessage(check, currentFile));
+    }
+  }
+
   private void runScanner(JavaFileScannerContext javaFileScannerContext, JavaFileScanner scanner, AnalysisError.Kind kind) {
     try {
       scanner.scanFile(javaFileScannerContext);
-    } catch (IllegalRuleParameterException e) {
-      // bad configuration of a rule parameter, we want to fail analysis fast.
-      throw e;
     } catch (Exception e) {
-      if (sonarComponents != null && sonarComponents.shouldFailAnalysisOnException()) {
-        throw e;
-      }
-      Throwable rootCause = Throwables.getRootCause(e);
-      if (rootCause instanceof InterruptedIOException || rootCause instanceof InterruptedException) {
+      if (shouldRethrow(e)) {
         throw e;
       }
-      Rule annotation = AnnotationUtils.getAnnotation(scanner.getClass(), Rule.class);
-      String key = "";
-      if (annotation != null) {
-        key = annotation.key();
-      }
-      LOG.error(
-        String.format("Unable to run check %s - %s on file %s, To help improve SonarJava, please report this problem to SonarSource : see https://www.sonarqube.org/community/",
-          scanner.getClass(), key, currentFile.getPath()), e);
-      addAnalysisError(e, currentFile.getPath(), kind);
+      logScannerError(scanner, e, kind);
+    }
+  }
+
+  private void handleDispatchedScannerException(JavaFileScanner scanner, RuntimeException e) {
+    if (shouldRethrow(e)) {
+      throw e;
+    }
+    logScannerError(scanner, e, AnalysisError.Kind.CHECK_ERROR);
+  }
+
+  private boolean shouldRethrow(Exception e) {
+    if (e instanceof IllegalRuleParameterException) {
+      // bad configuration of a rule parameter, we want to fail analysis fast.
+      return true;
     }
+    if (sonarComponents != null && sonarComponents.shouldFailAnalysisOnException()) {
+      return true;
+    }
+    Throwable rootCause = Throwables.getRootCause(e);
+    return rootCause instanceof InterruptedIOException || rootCause instanceof InterruptedException;
+  }
+
+  private void logScannerError(JavaFileScanner scanner, Exception e, AnalysisError.Kind kind) {
+    Rule annotation = AnnotationUtils.getAnnotation(scanner.getClass(), Rule.class);
+    String key = "";
+    if (annotation != null) {
+      key = annotation.key();
+    }
+    LOG.error(
+      String.format("Unable to run check %s - %s on file %s, To help improve SonarJava, please report this problem to SonarSource : see https://www.sonarqube.org/community/",
+        scanner.getClass(), key, currentFile.getPath()), e);
+    addAnalysisError(e, currentFile.getPath(), kind);
   }
 
   private void addAnalysisError(Exception e, String path, AnalysisError.Kind checkError) {
@@ -172,6 +304,40 @@ public class VisitorsBridge {
     return results.build();
   }
 
+  /**
+   * Subscription visitors which can be dispatched are replaced by a single dispatcher, at the position of the first of them,
+   * so that the syntax tree is traversed only once for all of them.
+   */
+  private List<JavaFileScanner> scannersToRun(List<JavaFileScanner> scanners) {
+    List<SubscriptionVisitor> dispatchedVisitors = scanners.stream()
+      .filter(SubscriptionVisitorsDispatcher::canBeDispatched)
+      .map(SubscriptionVisitor.class::cast)
+      .collect(Collectors.toList());
+    if (dispatchedVisitors.isEmpty()) {
+      return scanners;
+    }
+    SubscriptionVisitorsDispatcher dispatcher = new SubscriptionVisitorsDispatcher(dispatchedVisitors, this::handleDispatchedScannerException);
+    List<JavaFileScanner> results = new ArrayList<>();
+    for (JavaFileScanner scanner : scanners) {
+      if (!SubscriptionVisitorsDispatcher.canBeDispatched(scanner)) {
+        results.add(scanner);
+      } else if (!results.contains(dispatcher)) {
+        results.add(dispatcher);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Scanners which do not report issues, such as metrics, highlighting or issue filters, have to be executed even on files which did not change
+   * since previous analysis. So are checks relying on the whole project.
+   */
+  private List<JavaFileScanner> scannersToRunOnUnchangedFiles(List<JavaFileScanner> scanners) {
+    return scannersToRun(scanners.stream()
+      .filter(scanner -> scanner instanceof EndOfAnalysisCheck || AnnotationUtils.getAnnotation(scanner.getClass(), Rule.class) == null)
+      .collect(Collectors.toList()));
+  }
+
   protected JavaFileScannerContext createScannerContext(
     CompilationUnitTree tree, SemanticModel semanticModel, SonarComponents sonarComponents, boolean fileParsed) {
     return new DefaultJavaFileScannerContext(
@@ -183,8 +349,8 @@ public class VisitorsBridge {
       fileParsed);
   }
 
-  private boolean isNotJavaLangOrSerializable(String packageName) {
-    String name = currentFile.getName();
+  private static boolean isNotJavaLangOrSerializable(String packageName, File file) {
+    String name = file.getName();
     return !(inJavaLang(packageName) || isAnnotation(packageName, name) || isSerializable(packageName, name));
   }
 
@@ -234,6 +400,29 @@ public class VisitorsBridge {
       .filter(s -> s instanceof EndOfAnalysisCheck)
       .map(EndOfAnalysisCheck.class::cast)
       .forEach(EndOfAnalysisCheck::endOfAnalysis);
+    behaviorCache.saveBytecodeBehaviors();
+    if (symbolicExecutionReport != null) {
+      symbolicExecutionReport.save();
+    }
     classLoader.close();
   }
+
+  /**
+   * Result of the thread-safe part of the analysis of a file: completed syntax tree and semantic model.
+   */
+  public static class PreparedFile {
+    private final CompilationUnitTree tree;
+    private final boolean fileParsed;
+    @Nullable
+    private final SemanticModel semanticModel;
+    @Nullable
+    private final Exception semanticError;
+
+    private PreparedFile(CompilationUnitTree tree, boolean fileParsed, @Nullable SemanticModel semanticModel, @Nullable Exception semanticError) {
+      this.tree = tree;
+      this.fileParsed = fileParsed;
+      this.semanticModel = semanticModel;
+      this.semanticError = semanticError;
+    }
+  }
 }
@@ -22,8 +22,6 @@ package org.sonar.java.resolve;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import com.google.common.io.Closeables;
-import java.io.InputStream;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
@@ -31,10 +29,9 @@ import java.util.TreeSet;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
-import org.objectweb.asm.ClassReader;
-import org.objectweb.asm.ClassVisitor;
-import org.objectweb.asm.FieldVisitor;
 import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.tree.ClassNode;
+import org.objectweb.asm.tree.FieldNode;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
 import org.sonar.plugins.java.api.semantic.Symbol;
 
@@ -82,12 +79,9 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
     }
     Preconditions.checkState(symbol.isPackageSymbol() || classSymbol == symbol);
 
-    byte[] bytes = classLoader.getBytesForClass(bytecodeName);
-    if (bytes != null) {
-      ClassReader classReader = new ClassReader(bytes);
-      classReader.accept(
-        new BytecodeVisitor(this, symbols, classSymbol, parametrizedTypeCache),
-        ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+    ClassNode classStructure = classLoader.getClassStructure(bytecodeName);
+    if (classStructure != null) {
+      classStructure.accept(new BytecodeVisitor(this, symbols, classSymbol, parametrizedTypeCache));
     }
   }
 
@@ -102,19 +96,12 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
     if (owner.isTypeSymbol()) {
       JavaSymbol.TypeJavaSymbol typeSymbol = (JavaSymbol.TypeJavaSymbol) owner;
       String bytecodeName = typeSymbol.getFullyQualifiedName();
-      byte[] bytes = classLoader.getBytesForClass(bytecodeName);
-      if (bytes != null) {
+      ClassNode classStructure = classLoader.getClassStructure(bytecodeName);
+      if (classStructure != null) {
         Map<String, Object> valuesByFieldName = new HashMap<>();
-        ClassReader classReader = new ClassReader(bytes);
-        classReader.accept(
-          new ClassVisitor(ASM_API_VERSION) {
-            @Override
-            public FieldVisitor visitField(int access, String name, String descriptor, String signature, Object value) {
-              valuesByFieldName.put(name, value);
-              return super.visitField(access, name, descriptor, signature, value);
-            }
-          },
-          ClassReader.SKIP_CODE | ClassReader.SKIP_FRAMES | ClassReader.SKIP_DEBUG);
+        for (FieldNode field : classStructure.fields) {
+          valuesByFieldName.put(field.name, field.value);
+        }
         constantValues.put(typeSymbol, valuesByFieldName);
         return valuesByFieldName.get(constantName);
       }
@@ -123,9 +110,8 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
   }
 
 
-  @Nullable
-  private InputStream inputStreamFor(String fullname) {
-    return classLoader.getResourceAsStream(Convert.bytecodeName(fullname) + ".class");
+  private boolean classExists(String fullname) {
+    return classLoader.getResource(Convert.bytecodeName(fullname) + ".class") != null;
   }
 
   private String formFullName(JavaSymbol symbol) {
@@ -181,7 +167,7 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
       symbol.typeParameters = new Scope(symbol);
 
       // (Godin): IOException will happen without this condition in case of missing class:
-      if (classLoader.getResource(Convert.bytecodeName(flatName) + ".class") != null) {
+      if (classExists(flatName)) {
         symbol.completer = this;
       } else {
         // Do not log missing annotation as they are not necessarily required in classpath for compiling
@@ -207,15 +193,8 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
     String enclosingClassName = Convert.enclosingClassName(shortName);
     if (StringUtils.isNotEmpty(enclosingClassName)) {
       enclosingClassName = Convert.fullName(packageName, enclosingClassName);
-      InputStream inputStream = null;
-      try {
-        inputStream = inputStreamFor(enclosingClassName);
-        while (inputStream == null && enclosingClassName.endsWith("$")) {
-          enclosingClassName = enclosingClassName.substring(0, enclosingClassName.length() - 1);
-          inputStream = inputStreamFor(enclosingClassName);
-        }
-      } finally {
-        Closeables.closeQuietly(inputStream);
+      while (!classExists(enclosingClassName) && enclosingClassName.endsWith("$")) {
+        enclosingClassName = enclosingClassName.substring(0, enclosingClassName.length() - 1);
       }
       owner = getClassSymbol(enclosingClassName);
     }
@@ -236,14 +215,12 @@ public class BytecodeCompleter implements JavaSymbol.Completer {
       return symbol;
     }
 
-    byte[] bytesForClass = classLoader.getBytesForClass(fullname);
-    if (bytesForClass == null) {
+    ClassNode classStructure = classLoader.getClassStructure(fullname);
+    if (classStructure == null) {
       return new Resolve.JavaSymbolNotFound();
     }
 
-    ClassReader classReader = new ClassReader(bytesForClass);
-    String className = classReader.getClassName();
-    if (!className.equals(Convert.bytecodeName(fullname))) {
+    if (!classStructure.name.equals(Convert.bytecodeName(fullname))) {
       return new Resolve.JavaSymbolNotFound();
     }
     return getClassSymbol(fullname);
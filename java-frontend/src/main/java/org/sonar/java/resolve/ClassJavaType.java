@@ -39,6 +39,8 @@ public class ClassJavaType extends JavaType {
    */
   List<JavaType> interfaces;
 
+  private Set<ClassJavaType> superTypes;
+
   public ClassJavaType(JavaSymbol.TypeJavaSymbol symbol) {
     this(CLASS, symbol);
   }
@@ -67,7 +69,14 @@ public class ClassJavaType extends JavaType {
     }
     if (superType.isClass()) {
       ClassJavaType superClassType = (ClassJavaType) superType;
-      return this.equals(superClassType) || superTypeIsSubTypeOf(superClassType);
+      if (this.equals(superClassType)) {
+        return true;
+      }
+      if (!symbol.superTypeSymbols().contains(superClassType.symbol)) {
+        return false;
+      }
+      // a type without type arguments is a supertype whatever the type arguments of the hierarchy
+      return superClassType == superClassType.symbol.type || superTypeIsSubTypeOf(superClassType);
     }
     return false;
   }
@@ -82,12 +91,7 @@ public class ClassJavaType extends JavaType {
   }
 
   private boolean superTypeContains(String fullyQualifiedName) {
-    for (ClassJavaType classType : symbol.superTypes()) {
-      if (classType.is(fullyQualifiedName)) {
-        return true;
-      }
-    }
-    return false;
+    return symbol.superTypeNames().contains(fullyQualifiedName);
   }
 
   @Override
@@ -118,14 +122,15 @@ public class ClassJavaType extends JavaType {
   }
 
   public Set<ClassJavaType> superTypes() {
-    ImmutableSet.Builder<ClassJavaType> types = ImmutableSet.builder();
-    for (ClassJavaType classJavaType : directSuperTypes()) {
-      types.add(classJavaType);
-      types.addAll(classJavaType.superTypes());
+    if (superTypes == null) {
+      ImmutableSet.Builder<ClassJavaType> types = ImmutableSet.builder();
+      for (ClassJavaType classJavaType : directSuperTypes()) {
+        types.add(classJavaType);
+        types.addAll(classJavaType.superTypes());
+      }
+      superTypes = types.build();
     }
-    return types.build();
+    return superTypes;
   }
 
-
-
 }
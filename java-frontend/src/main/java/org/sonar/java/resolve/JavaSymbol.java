@@ -322,6 +322,8 @@ public class JavaSymbol implements Symbol {
     private final Multiset<String> internalNames = HashMultiset.create();
     private Set<ClassJavaType> superTypes;
     private Set<ClassJavaType> interfaces;
+    private Set<TypeJavaSymbol> superTypeSymbols;
+    private Set<String> superTypeNames;
 
     public TypeJavaSymbol(int flags, String name, JavaSymbol owner) {
       super(TYP, flags, name, owner);
@@ -432,6 +434,26 @@ public class JavaSymbol implements Symbol {
       return superTypes;
     }
 
+    /**
+     * Symbols of the types returned by {@link #superTypes()}, for constant time subtype tests.
+     */
+    Set<TypeJavaSymbol> superTypeSymbols() {
+      if (superTypeSymbols == null) {
+        superTypeSymbols = superTypes().stream().map(ClassJavaType::getSymbol).collect(ImmutableSet.toImmutableSet());
+      }
+      return superTypeSymbols;
+    }
+
+    /**
+     * Fully qualified names of the types returned by {@link #superTypes()}, for constant time subtype tests.
+     */
+    Set<String> superTypeNames() {
+      if (superTypeNames == null) {
+        superTypeNames = superTypes().stream().map(superType -> superType.getSymbol().getFullyQualifiedName()).collect(ImmutableSet.toImmutableSet());
+      }
+      return superTypeNames;
+    }
+
     private Set<ClassJavaType> interfacesOfType() {
       if (interfaces == null) {
         ImmutableSet.Builder<ClassJavaType> builder = ImmutableSet.builder();
@@ -34,12 +34,17 @@ import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.Tree;
 
 import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 
 public class SemanticModel {
 
@@ -48,6 +53,7 @@ public class SemanticModel {
   private final Map<Symbol, Resolve.Env> symbolEnvs = Maps.newHashMap();
   private final BiMap<Tree, Resolve.Env> envs = HashBiMap.create();
   private final BytecodeCompleter bytecodeCompleter;
+  private final Set<JavaSymbol.TypeJavaSymbol> referencedClasses = new HashSet<>();
 
   @VisibleForTesting
   SemanticModel(BytecodeCompleter bytecodeCompleter) {
@@ -152,6 +158,61 @@ public class SemanticModel {
     return Collections.unmodifiableMap(symbolsTree);
   }
 
+  /**
+   * Records the class declaring a referenced symbol, as the file being analyzed depends on it.
+   */
+  void registerReference(JavaSymbol symbol) {
+    JavaSymbol.TypeJavaSymbol enclosingClass = symbol.enclosingClass();
+    if (enclosingClass != null) {
+      referencedClasses.add(enclosingClass);
+    }
+  }
+
+  /**
+   * @return fully qualified names of the top-level classes declaring the symbols referenced by the file
+   */
+  public Set<String> referencedTypes() {
+    Set<String> result = new TreeSet<>();
+    for (JavaSymbol.TypeJavaSymbol referencedClass : referencedClasses) {
+      addTopLevelClass(result, referencedClass);
+    }
+    return result;
+  }
+
+  /**
+   * @return fully qualified names of the top-level classes declaring the direct supertypes of the given classes and of their member classes
+   */
+  public static Set<String> supertypes(Collection<Symbol.TypeSymbol> classes) {
+    Set<String> result = new TreeSet<>();
+    Deque<Symbol.TypeSymbol> classesToVisit = new LinkedList<>(classes);
+    while (!classesToVisit.isEmpty()) {
+      JavaSymbol.TypeJavaSymbol typeSymbol = (JavaSymbol.TypeJavaSymbol) classesToVisit.pop();
+      List<JavaType> directSupertypes = new ArrayList<>(typeSymbol.getInterfaces());
+      JavaType superclass = typeSymbol.getSuperclass();
+      if (superclass != null) {
+        directSupertypes.add(superclass);
+      }
+      directSupertypes.stream()
+        .filter(supertype -> !supertype.isUnknown())
+        .forEach(supertype -> addTopLevelClass(result, supertype.getSymbol()));
+      typeSymbol.memberSymbols().stream()
+        .filter(Symbol::isTypeSymbol)
+        .forEach(member -> classesToVisit.push((Symbol.TypeSymbol) member));
+    }
+    return result;
+  }
+
+  private static void addTopLevelClass(Set<String> names, JavaSymbol.TypeJavaSymbol typeSymbol) {
+    JavaSymbol outermostClass = typeSymbol;
+    // nested classes are owned by a class, local and anonymous classes by a method or a variable
+    while (outermostClass != null && outermostClass.owner() != null && !outermostClass.owner().isPackageSymbol()) {
+      outermostClass = outermostClass.owner().enclosingClass();
+    }
+    if (outermostClass != null) {
+      names.add(((JavaSymbol.TypeJavaSymbol) outermostClass).getFullyQualifiedName());
+    }
+  }
+
   public Set<String> classesNotFound() {
     return bytecodeCompleter.classesNotFound();
   }
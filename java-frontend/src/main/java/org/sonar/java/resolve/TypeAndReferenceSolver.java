@@ -783,6 +783,7 @@ public class TypeAndReferenceSolver extends BaseTreeVisitor {
     JavaType identifierType = resolveIdentifierType(newClassEnv, enclosingExpression, typeTree, constructorIdentifier.name());
     JavaSymbol.TypeJavaSymbol constructorIdentifierSymbol = (JavaSymbol.TypeJavaSymbol) identifierType.symbol();
     constructorIdentifierSymbol.addUsage(constructorIdentifier);
+    semanticModel.registerReference(constructorIdentifierSymbol);
     parameterTypes = addImplicitOuterClassParameter(parameterTypes, constructorIdentifierSymbol);
     Resolution resolution = resolveConstructorSymbol(constructorIdentifier, identifierType, newClassEnv, parameterTypes, typeArgumentsTypes);
     JavaType constructedType = identifierType;
@@ -1187,9 +1188,10 @@ public class TypeAndReferenceSolver extends BaseTreeVisitor {
     }
   }
 
-  private static void addMethodRefReference(IdentifierTree methodIdentifier, JavaSymbol methodSymbol) {
+  private void addMethodRefReference(IdentifierTree methodIdentifier, JavaSymbol methodSymbol) {
     ((IdentifierTreeImpl) methodIdentifier).setSymbol(methodSymbol);
     methodSymbol.addUsage(methodIdentifier);
+    semanticModel.registerReference(methodSymbol);
   }
 
   private static void setMethodRefType(MethodReferenceTree methodRef, JavaType methodRefType, JavaType methodType) {
@@ -1237,10 +1239,11 @@ public class TypeAndReferenceSolver extends BaseTreeVisitor {
     types.put(tree, type);
   }
 
-  private static void associateReference(IdentifierTree tree, JavaSymbol symbol) {
+  private void associateReference(IdentifierTree tree, JavaSymbol symbol) {
     if (symbol.kind < JavaSymbol.ERRONEOUS) {
       ((IdentifierTreeImpl) tree).setSymbol(symbol);
       symbol.addUsage(tree);
+      semanticModel.registerReference(symbol);
     }
   }
 
@@ -20,32 +20,67 @@
 package org.sonar.java.se;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.LinkedListMultimap;
-import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-
-import org.sonar.java.se.xproc.MethodYield;
-import org.sonar.plugins.java.api.tree.Tree;
-
-import javax.annotation.Nullable;
-
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.java.se.xproc.MethodYield;
+import org.sonar.plugins.java.api.tree.Tree;
 
 public class ExplodedGraph {
 
-  private final Map<Node, Node> nodes = Maps.newHashMap();
-  private final Multimap<ProgramPoint, Node> nodesByProgramPoint = LinkedListMultimap.create();
+  /**
+   * Rough footprints used to estimate the memory retained by the graph: a node with its entries in the graph indexes and its own
+   * program state, an edge, a distinct program state, and one constraint of a distinct program state. They are not calibrated against
+   * heap measurements, and persistent map entries shared between states are counted for each state: the estimation over-approximates
+   * the retained memory.
+   * It is used on top of the limits of steps and of constraints per state, not instead of them.
+   */
+  private static final int NODE_BYTES = 128;
+  private static final int EDGE_BYTES = 40;
+  private static final int STATE_BYTES = 64;
+  private static final int CONSTRAINT_BYTES = 32;
+
+  private final Map<Node, Node> nodes = new HashMap<>();
+  private final Map<ProgramPoint, List<Node>> nodesByProgramPoint = new HashMap<>();
+  /**
+   * Program states are hash-consed within the graph: nodes are compared through the identity of the canonical instance of their state.
+   * Equality of program states ignores the number of visits of program points, so a node keeps the state it was created with, which
+   * holds the visits of its own path.
+   */
+  private final Map<ProgramState, ProgramState> states = new HashMap<>();
+  private int edgesCount = 0;
+  private long constraintsCount = 0;
+  /**
+   * Constraints and associations learned from a program state to another, shared by all the edges between the two (hash-consed) states,
+   * so that the flows computed for the issues of the method compare each pair of states once.
+   */
+  private final Map<ProgramState, Map<ProgramState, Set<LearnedConstraint>>> learnedConstraints = new IdentityHashMap<>();
+  private final Map<ProgramState, Map<ProgramState, Set<LearnedAssociation>>> learnedAssociations = new IdentityHashMap<>();
+
+  /**
+   * Cost of the flows computed on this graph. Steps are accounted for the whole method, see {@link FlowComputation}.
+   */
+  int flows = 0;
+  int flowSteps = 0;
+  int incompleteFlows = 0;
+  long flowNanos = 0;
 
   /**
    * Returns node associated with given (programPoint,programState) pair. If no node for this pair exists, it is created.
    */
   public Node node(ProgramPoint programPoint, @Nullable ProgramState programState) {
-    Node result = new Node(programPoint, programState, this);
+    ProgramState canonicalState = programState == null ? null : states.computeIfAbsent(programState, this::newState);
+    Node result = new Node(programPoint, programState, canonicalState, this);
     Node cached = nodes.get(result);
     if (cached != null) {
       cached.isNew = false;
@@ -53,43 +88,132 @@ public class ExplodedGraph {
     }
     result.isNew = true;
     nodes.put(result, result);
-    nodesByProgramPoint.put(programPoint, result);
+    nodesByProgramPoint.computeIfAbsent(programPoint, pp -> new ArrayList<>(1)).add(result);
     return result;
   }
 
+  private ProgramState newState(ProgramState programState) {
+    constraintsCount += programState.constraintsSize();
+    return programState;
+  }
+
   public Map<Node, Node> nodes() {
     return nodes;
   }
 
+  /**
+   * @return estimation in bytes of the memory retained by the nodes of this graph, their edges and their program states
+   */
+  public long estimatedMemory() {
+    return (long) nodes.size() * NODE_BYTES
+      + (long) edgesCount * EDGE_BYTES
+      + (long) states.size() * STATE_BYTES
+      + constraintsCount * CONSTRAINT_BYTES;
+  }
+
+  void flowComputed(int steps, boolean complete, long nanos) {
+    flows++;
+    flowSteps += steps;
+    if (!complete) {
+      incompleteFlows++;
+    }
+    flowNanos += nanos;
+  }
+
+  private Set<LearnedConstraint> learnedConstraints(ProgramState parent, ProgramState child) {
+    if (parent == child) {
+      return Collections.emptySet();
+    }
+    return learnedConstraints.computeIfAbsent(child, s -> new IdentityHashMap<>()).computeIfAbsent(parent, child::learnedConstraints);
+  }
+
+  private Set<LearnedAssociation> learnedAssociations(ProgramState parent, ProgramState child) {
+    if (parent == child) {
+      return Collections.emptySet();
+    }
+    return learnedAssociations.computeIfAbsent(child, s -> new IdentityHashMap<>()).computeIfAbsent(parent, child::learnedAssociations);
+  }
+
   public static final class Node {
 
+    /**
+     * Above this number of parents, edges are indexed by parent instead of being searched linearly.
+     */
+    private static final int MAX_EDGES_WITHOUT_INDEX = 8;
+    private static final Edge[] NO_EDGES = new Edge[0];
+
     public final ProgramPoint programPoint;
     @Nullable
     public final ProgramState programState;
-
-    private final Map<Node, Edge> edges = new HashMap<>();
+    // canonical instance of the program state, see ExplodedGraph#states
+    @Nullable
+    private final ProgramState canonicalState;
+    // edges to the parents, in insertion order: most nodes have a single parent
+    private Edge[] edges = NO_EDGES;
+    private int edgesSize = 0;
+    @Nullable
+    private Map<Node, Edge> edgesByParent;
 
     private boolean isNew;
     boolean exitPath = false;
     private final int hashcode;
     private final ExplodedGraph explodedGraph;
 
-    private Node(ProgramPoint programPoint, @Nullable ProgramState programState, ExplodedGraph explodedGraph) {
+    private Node(ProgramPoint programPoint, @Nullable ProgramState programState, @Nullable ProgramState canonicalState, ExplodedGraph explodedGraph) {
       Objects.requireNonNull(programPoint);
       this.programPoint = programPoint;
       this.programState = programState;
+      this.canonicalState = canonicalState;
       this.explodedGraph = explodedGraph;
       hashcode = programPoint.hashCode() * 31 + (programState == null ? 0 : programState.hashCode());
     }
 
+    ExplodedGraph explodedGraph() {
+      return explodedGraph;
+    }
+
     public void addParent(@Nullable Node parent, @Nullable MethodYield methodYield) {
       if (parent == null) {
         return;
       }
-      Edge edge = edges.computeIfAbsent(parent, p -> new Edge(this, p));
+      Edge edge = edge(parent);
+      if (edge == null) {
+        edge = new Edge(this, parent);
+        addEdge(edge);
+      }
       if (methodYield != null) {
         Preconditions.checkState(parent.programPoint.syntaxTree().is(Tree.Kind.METHOD_INVOCATION), "Yield on edge where parent is not MIT");
-        edge.yields.add(methodYield);
+        edge.addYield(methodYield);
+      }
+    }
+
+    @CheckForNull
+    private Edge edge(Node parent) {
+      if (edgesByParent != null) {
+        return edgesByParent.get(parent);
+      }
+      for (int i = 0; i < edgesSize; i++) {
+        if (edges[i].parent == parent) {
+          return edges[i];
+        }
+      }
+      return null;
+    }
+
+    private void addEdge(Edge edge) {
+      if (edgesSize == edges.length) {
+        edges = Arrays.copyOf(edges, Math.max(1, edgesSize * 2));
+      }
+      edges[edgesSize] = edge;
+      edgesSize++;
+      explodedGraph.edgesCount++;
+      if (edgesByParent != null) {
+        edgesByParent.put(edge.parent, edge);
+      } else if (edgesSize > MAX_EDGES_WITHOUT_INDEX) {
+        edgesByParent = new HashMap<>();
+        for (int i = 0; i < edgesSize; i++) {
+          edgesByParent.put(edges[i].parent, edges[i]);
+        }
       }
     }
 
@@ -101,14 +225,18 @@ public class ExplodedGraph {
 
     @Nullable
     public Node parent() {
-      return parents().stream().findFirst().orElse(null);
+      return edgesSize == 0 ? null : edges[0].parent;
     }
 
     /**
      * @return the ordered (by insertion) sets of parents
      */
     public Set<Node> parents() {
-      return edges.keySet();
+      Set<Node> parents = new LinkedHashSet<>();
+      for (int i = 0; i < edgesSize; i++) {
+        parents.add(edges[i].parent);
+      }
+      return parents;
     }
 
     @Override
@@ -120,8 +248,8 @@ public class ExplodedGraph {
     public boolean equals(Object obj) {
       if (obj instanceof Node) {
         Node other = (Node) obj;
-        return this.programPoint.equals(other.programPoint)
-          && Objects.equals(this.programState, other.programState);
+        return this.canonicalState == other.canonicalState
+          && this.programPoint.equals(other.programPoint);
       }
       return false;
     }
@@ -131,8 +259,11 @@ public class ExplodedGraph {
       return "B" + programPoint.block.id() + "." + programPoint.i + ": " + programState;
     }
 
+    /**
+     * @return the edges to the parents of this node, in insertion order
+     */
     public Collection<Edge> edges() {
-      return edges.values();
+      return Collections.unmodifiableList(Arrays.asList(edges).subList(0, edgesSize));
     }
 
     public boolean isNew() {
@@ -143,17 +274,16 @@ public class ExplodedGraph {
   public static final class Edge {
     final Node child;
     final Node parent;
-    final int hashcode;
 
     private Set<LearnedConstraint> lc;
     private Set<LearnedAssociation> la;
-    private final Set<MethodYield> yields = new LinkedHashSet<>();
+    @Nullable
+    private Set<MethodYield> yields;
 
     private Edge(Node child, Node parent) {
       Preconditions.checkState(!child.equals(parent));
       this.child = child;
       this.parent = parent;
-      hashcode = Objects.hash(child, parent);
     }
 
     public Node child() {
@@ -166,20 +296,27 @@ public class ExplodedGraph {
 
     public Set<LearnedConstraint> learnedConstraints() {
       if (lc == null) {
-        lc = child.programState.learnedConstraints(parent.programState);
+        lc = child.explodedGraph.learnedConstraints(parent.canonicalState, child.canonicalState);
       }
       return lc;
     }
 
     public Set<LearnedAssociation> learnedAssociations() {
       if (la == null) {
-        la = child.programState.learnedAssociations(parent.programState);
+        la = child.explodedGraph.learnedAssociations(parent.canonicalState, child.canonicalState);
       }
       return la;
     }
 
+    private void addYield(MethodYield methodYield) {
+      if (yields == null) {
+        yields = new LinkedHashSet<>();
+      }
+      yields.add(methodYield);
+    }
+
     public Set<MethodYield> yields() {
-      return yields;
+      return yields == null ? Collections.emptySet() : Collections.unmodifiableSet(yields);
     }
 
     @Override
@@ -197,7 +334,8 @@ public class ExplodedGraph {
 
     @Override
     public int hashCode() {
-      return hashcode;
+      // same as Objects.hash(child, parent), without allocating an array
+      return 31 * (31 + child.hashCode()) + parent.hashCode();
     }
   }
 }
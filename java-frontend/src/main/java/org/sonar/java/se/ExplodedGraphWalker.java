@@ -28,15 +28,14 @@ import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Deque;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import javax.annotation.CheckForNull;
@@ -110,6 +109,11 @@ public class ExplodedGraphWalker {
    */
   private static final int MAX_STEPS = 16_000;
   public static final int MAX_NESTED_BOOLEAN_STATES = 10_000;
+  /**
+   * Default limit of the estimated memory of the exploded graph of a method, see {@link ExplodedGraph#estimatedMemory()}: none, as the
+   * estimation is not calibrated against heap measurements. Explorations are then only bounded by steps and by constraints per state.
+   */
+  public static final long DEFAULT_MAX_EXPLODED_GRAPH_MEMORY = Long.MAX_VALUE;
   private static final Logger LOG = Loggers.get(ExplodedGraphWalker.class);
   private static final Set<String> THIS_SUPER = ImmutableSet.of("this", "super");
 
@@ -133,7 +137,7 @@ public class ExplodedGraphWalker {
   private ExplodedGraph explodedGraph;
 
   @VisibleForTesting
-  Deque<ExplodedGraph.Node> workList;
+  WorkList workList;
   ExplodedGraph.Node node;
   ProgramPoint programPosition;
   ProgramState programState;
@@ -149,9 +153,15 @@ public class ExplodedGraphWalker {
 
   ConstraintManager constraintManager;
   private boolean cleanup = true;
+  private boolean stateSubsumption = false;
+  private LongSupplier nanoClock = System::nanoTime;
+  private WorkList.Strategy workListStrategy = WorkList.Strategy.DFS;
+  private long maxExplodedGraphMemory = DEFAULT_MAX_EXPLODED_GRAPH_MEMORY;
   @Nullable
   MethodBehavior methodBehavior;
   private Set<ExplodedGraph.Node> endOfExecutionPath;
+  @Nullable
+  private ExplorationStatistics statistics;
 
   public static class ExplodedGraphTooBigException extends RuntimeException {
 
@@ -197,6 +207,37 @@ public class ExplodedGraphWalker {
     this.semanticModel = semanticModel;
   }
 
+  /**
+   * Source of the time, in nanoseconds, measured by the statistics of the explorations of this walker.
+   */
+  @VisibleForTesting
+  void setNanoClock(LongSupplier nanoClock) {
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * When enabled, states entering a join point or a loop head are stripped of what can not have an impact on the rest of the exploration:
+   * dead local variables and constraints relating only unreachable symbolic values. States which only differed on those are then
+   * covered by the first of them to be explored, instead of being explored separately.
+   */
+  public void setStateSubsumption(boolean stateSubsumption) {
+    this.stateSubsumption = stateSubsumption;
+  }
+
+  /**
+   * Order in which the nodes of the exploded graph are explored. Depth-first by default.
+   */
+  public void setWorkListStrategy(WorkList.Strategy workListStrategy) {
+    this.workListStrategy = workListStrategy;
+  }
+
+  /**
+   * Exploration of a method is interrupted when the estimated memory of its exploded graph exceeds this number of bytes.
+   */
+  public void setMaxExplodedGraphMemory(long maxExplodedGraphMemory) {
+    this.maxExplodedGraphMemory = maxExplodedGraphMemory;
+  }
+
   public MethodBehavior visitMethod(MethodTree tree) {
     return visitMethod(tree, null);
   }
@@ -211,15 +252,41 @@ public class ExplodedGraphWalker {
     return this.methodBehavior;
   }
 
+  /**
+   * @return statistics of the last exploration of a method body by this walker, or null if no method body was explored
+   */
+  @CheckForNull
+  public ExplorationStatistics statistics() {
+    return statistics;
+  }
+
   private void execute(MethodTree tree) {
-    CFG cfg = CFG.build(tree);
+    statistics = new ExplorationStatistics(tree.simpleName().name(), tree.simpleName().firstToken().line());
+    long start = nanoClock.getAsLong();
+    try {
+      explore(tree);
+    } finally {
+      statistics.steps = steps;
+      statistics.durationNanos = nanoClock.getAsLong() - start;
+      if (explodedGraph != null) {
+        statistics.nodes = explodedGraph.nodes().size();
+        statistics.flows = explodedGraph.flows;
+        statistics.flowSteps = explodedGraph.flowSteps;
+        statistics.incompleteFlows = explodedGraph.incompleteFlows;
+        statistics.flowDurationNanos = explodedGraph.flowNanos;
+      }
+    }
+  }
+
+  private void explore(MethodTree tree) {
+    CFG cfg = (CFG) tree.cfg();
     exitBlock = cfg.exitBlock();
     checkerDispatcher.init(tree, cfg);
     liveVariables = LiveVariables.analyze(cfg);
     explodedGraph = new ExplodedGraph();
     methodTree = tree;
     constraintManager = new ConstraintManager();
-    workList = new LinkedList<>();
+    workList = workListStrategy.create(cfg);
     // Linked hashSet is required to guarantee order of yields to be generated
     endOfExecutionPath = new LinkedHashSet<>();
     if(DEBUG_MODE_ACTIVATED) {
@@ -235,8 +302,7 @@ public class ExplodedGraphWalker {
       if (steps > maxSteps()) {
         throwMaxSteps(tree);
       }
-      // LIFO:
-      setNode(workList.removeFirst());
+      setNode(workList.remove());
       CFG.Block block = (CFG.Block) programPosition.block;
       if (block.successors().isEmpty()) {
         endOfExecutionPath.add(node);
@@ -279,6 +345,7 @@ public class ExplodedGraphWalker {
     String message = String.format("reached maximum number of transitive relations generated for method %s in class %s",
       tree.simpleName().name(), tree.symbol().owner().name());
     MaximumStepsReachedException cause = new MaximumStepsReachedException(message, e);
+    statistics.abortReason = ExplorationStatistics.AbortReason.TRANSITIVE_RELATIONS;
     interrupted(cause);
     throw cause;
   }
@@ -287,6 +354,7 @@ public class ExplodedGraphWalker {
     String message = String.format("reached maximum number of %d branched states for method %s in class %s",
       MAX_NESTED_BOOLEAN_STATES, tree.simpleName().name(), tree.symbol().owner().name());
     MaximumStepsReachedException cause = new MaximumStepsReachedException(message, e);
+    statistics.abortReason = ExplorationStatistics.AbortReason.NESTED_BOOLEAN_STATES;
     interrupted(cause);
     throw cause;
   }
@@ -295,6 +363,7 @@ public class ExplodedGraphWalker {
     String message = String.format("reached limit of %d steps for method %s#%d in class %s",
       maxSteps(), tree.simpleName().name(), tree.simpleName().firstToken().line(), tree.symbol().owner().name());
     MaximumStepsReachedException cause = new MaximumStepsReachedException(message);
+    statistics.abortReason = ExplorationStatistics.AbortReason.MAX_STEPS;
     interrupted(cause);
     throw cause;
   }
@@ -1100,6 +1169,9 @@ public class ExplodedGraphWalker {
     }
     checkExplodedGraphTooBig(programState);
     ProgramState ps = programState.visitedPoint(programPoint, nbOfExecution + 1);
+    if (stateSubsumption && cleanup && isJoinPoint(programPoint)) {
+      ps = liveState(ps, (CFG.Block) programPoint.block);
+    }
     ExplodedGraph.Node cachedNode = explodedGraph.node(programPoint, ps);
     if (!cachedNode.isNew() && exitPath == cachedNode.exitPath) {
       // has been enqueued earlier
@@ -1108,7 +1180,21 @@ public class ExplodedGraphWalker {
     }
     cachedNode.exitPath = exitPath;
     cachedNode.addParent(node, methodYield);
-    workList.addFirst(cachedNode);
+    workList.add(cachedNode);
+    statistics.enqueued(workList.size(), ps.constraintsSize());
+  }
+
+  private boolean isJoinPoint(ProgramPoint programPoint) {
+    CFG.Block block = (CFG.Block) programPoint.block;
+    // exit block is excluded: checks inspect the complete state at the end of each execution path
+    return programPoint.i == 0 && block.predecessors().size() > 1 && block != exitBlock;
+  }
+
+  private ProgramState liveState(ProgramState ps, CFG.Block block) {
+    Collection<SymbolicValue> protectedSVs = methodBehavior == null ? Collections.emptyList() : methodBehavior.parameters();
+    return ps.cleanupDeadSymbols(liveVariables.getIn(block), protectedSVs)
+      .cleanupConstraints(protectedSVs)
+      .cleanupDeadRelations(protectedSVs);
   }
 
   private static boolean isRestartingForEachLoop(ProgramPoint programPoint) {
@@ -1119,9 +1205,16 @@ public class ExplodedGraphWalker {
   private void checkExplodedGraphTooBig(ProgramState programState) {
     // Arbitrary formula to avoid out of memory errors
     if (steps + workList.size() > maxSteps() / 2 && programState.constraintsSize() > 75) {
+      statistics.abortReason = ExplorationStatistics.AbortReason.EXPLODED_GRAPH_TOO_BIG;
       throw new ExplodedGraphTooBigException("Program state constraints are too big : stopping Symbolic Execution for method "
         + methodTree.simpleName().name() + " in class " + methodTree.symbol().owner().name());
     }
+    // the estimation is coarse, it only bounds graphs made of many nodes with large states, which the formula above lets through
+    if (explodedGraph.estimatedMemory() > maxExplodedGraphMemory) {
+      statistics.abortReason = ExplorationStatistics.AbortReason.EXPLODED_GRAPH_TOO_BIG;
+      throw new ExplodedGraphTooBigException(String.format("Exploded graph exceeds %d bytes : stopping Symbolic Execution for method %s in class %s",
+        maxExplodedGraphMemory, methodTree.simpleName().name(), methodTree.symbol().owner().name()));
+    }
   }
 
   @VisibleForTesting
@@ -1142,8 +1235,16 @@ public class ExplodedGraphWalker {
 
     @VisibleForTesting
     final List<SECheck> seChecks = new ArrayList<>();
+    private final boolean stateSubsumption;
+    private WorkList.Strategy workListStrategy = WorkList.Strategy.DFS;
+    private long maxExplodedGraphMemory = DEFAULT_MAX_EXPLODED_GRAPH_MEMORY;
 
     public ExplodedGraphWalkerFactory(List<JavaFileScanner> scanners) {
+      this(scanners, false);
+    }
+
+    public ExplodedGraphWalkerFactory(List<JavaFileScanner> scanners, boolean stateSubsumption) {
+      this.stateSubsumption = stateSubsumption;
       List<SECheck> debugChecks = new ArrayList<>();
       List<SECheck> checks = new ArrayList<>();
       for (JavaFileScanner scanner : scanners) {
@@ -1173,8 +1274,26 @@ public class ExplodedGraphWalker {
       seChecks.addAll(checks);
     }
 
+    /**
+     * @see ExplodedGraphWalker#setWorkListStrategy(WorkList.Strategy)
+     */
+    public void setWorkListStrategy(WorkList.Strategy workListStrategy) {
+      this.workListStrategy = workListStrategy;
+    }
+
+    /**
+     * @see ExplodedGraphWalker#setMaxExplodedGraphMemory(long)
+     */
+    public void setMaxExplodedGraphMemory(long maxExplodedGraphMemory) {
+      this.maxExplodedGraphMemory = maxExplodedGraphMemory;
+    }
+
     public ExplodedGraphWalker createWalker(BehaviorCache behaviorCache, SemanticModel semanticModel) {
-      return new ExplodedGraphWalker(seChecks, behaviorCache, semanticModel);
+      ExplodedGraphWalker walker = new ExplodedGraphWalker(seChecks, behaviorCache, semanticModel);
+      walker.setStateSubsumption(stateSubsumption);
+      walker.setWorkListStrategy(workListStrategy);
+      walker.setMaxExplodedGraphMemory(maxExplodedGraphMemory);
+      return walker;
     }
 
     @SuppressWarnings("unchecked")
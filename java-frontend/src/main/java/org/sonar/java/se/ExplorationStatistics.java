@@ -0,0 +1,131 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Cost of the symbolic execution of a method, recorded by the {@link ExplodedGraphWalker} while exploring it.
+ * Only counters are updated during the exploration, so that statistics can be collected on every analysis.
+ */
+public class ExplorationStatistics {
+
+  public enum AbortReason {
+    MAX_STEPS,
+    EXPLODED_GRAPH_TOO_BIG,
+    TRANSITIVE_RELATIONS,
+    NESTED_BOOLEAN_STATES
+  }
+
+  private final String methodName;
+  private final int line;
+  int steps;
+  int nodes;
+  int peakWorkListSize;
+  int peakConstraints;
+  long durationNanos;
+  int flows;
+  int flowSteps;
+  int incompleteFlows;
+  long flowDurationNanos;
+  @Nullable
+  AbortReason abortReason;
+
+  public ExplorationStatistics(String methodName, int line) {
+    this.methodName = methodName;
+    this.line = line;
+  }
+
+  void enqueued(int workListSize, int constraintsSize) {
+    peakWorkListSize = Math.max(peakWorkListSize, workListSize);
+    peakConstraints = Math.max(peakConstraints, constraintsSize);
+  }
+
+  public String methodName() {
+    return methodName;
+  }
+
+  public int line() {
+    return line;
+  }
+
+  public int steps() {
+    return steps;
+  }
+
+  /**
+   * @return number of nodes of the exploded graph
+   */
+  public int nodes() {
+    return nodes;
+  }
+
+  public int peakWorkListSize() {
+    return peakWorkListSize;
+  }
+
+  /**
+   * @return highest number of constraints of a program state enqueued during the exploration
+   */
+  public int peakConstraints() {
+    return peakConstraints;
+  }
+
+  /**
+   * @return time spent exploring the method, excluding the exploration of the methods it invokes
+   */
+  public long durationNanos() {
+    return durationNanos;
+  }
+
+  /**
+   * @return number of flows computed for the issues raised on the method
+   */
+  public int flows() {
+    return flows;
+  }
+
+  public int flowSteps() {
+    return flowSteps;
+  }
+
+  /**
+   * @return number of flows interrupted or skipped because of the maximum number of flow steps
+   */
+  public int incompleteFlows() {
+    return incompleteFlows;
+  }
+
+  /**
+   * @return time spent computing flows, included in {@link #durationNanos()}
+   */
+  public long flowDurationNanos() {
+    return flowDurationNanos;
+  }
+
+  /**
+   * @return why the exploration was interrupted, or null if the method was completely explored
+   */
+  @CheckForNull
+  public AbortReason abortReason() {
+    return abortReason;
+  }
+}
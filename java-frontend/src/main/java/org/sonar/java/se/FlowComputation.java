@@ -26,6 +26,7 @@ import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -77,12 +78,19 @@ public class FlowComputation {
   private static final String IMPLIES_SAME_VALUE = "Implies '%s' has the same value as '%s'.";
 
   private static final int MAX_FLOW_STEPS = 3_000_000;
+  /**
+   * Flow steps are also bounded for all the flows computed on the exploded graph of a method, so that a method raising many issues
+   * does not spend more time computing their secondary locations than exploring the method.
+   */
+  static final int MAX_FLOW_STEPS_PER_METHOD = 10_000_000;
   private static final Logger LOG = Loggers.get(ExplodedGraphWalker.class);
   private final Predicate<Constraint> addToFlow;
   private final Predicate<Constraint> terminateTraversal;
   private final Set<SymbolicValue> symbolicValues;
   private final List<Class<? extends Constraint>> domains;
   private final boolean skipExceptionMessages;
+  // constraints learned on an edge do not depend on the path reaching it: they are computed once per edge for all the paths of this flow
+  private final Map<ExplodedGraph.Edge, EdgeConstraints> constraintsByEdge = new HashMap<>();
 
   private FlowComputation(Set<SymbolicValue> symbolicValues, Predicate<Constraint> addToFlow,
                           Predicate<Constraint> terminateTraversal, List<Class<? extends Constraint>> domains, boolean skipExceptionMessages) {
@@ -156,11 +164,20 @@ public class FlowComputation {
   }
 
   private Set<Flow> run(final ExplodedGraph.Node node, PSet<Symbol> trackedSymbols) {
+    ExplodedGraph explodedGraph = node.explodedGraph();
+    int maxFlowSteps = Math.min(MAX_FLOW_STEPS, MAX_FLOW_STEPS_PER_METHOD - explodedGraph.flowSteps);
+    if (maxFlowSteps <= 0) {
+      LOG.debug("Flow was not computed: maximum number of flow steps reached for the method");
+      explodedGraph.flowComputed(0, false, 0);
+      return Collections.singleton(Flow.empty());
+    }
+    long start = System.nanoTime();
     Set<Flow> flows = new HashSet<>();
     Deque<ExecutionPath> workList = new ArrayDeque<>();
     SameConstraints sameConstraints = new SameConstraints(node, trackedSymbols, domains);
     node.edges().stream().flatMap(e -> startPath(e, trackedSymbols, sameConstraints)).forEach(workList::push);
     int flowSteps = 0;
+    boolean complete = true;
     Set<ExecutionPath> visited = new HashSet<>(workList);
     while (!workList.isEmpty()) {
       ExecutionPath path = workList.pop();
@@ -177,11 +194,13 @@ public class FlowComputation {
           });
       }
       flowSteps++;
-      if(flowSteps == MAX_FLOW_STEPS) {
+      if(flowSteps == maxFlowSteps) {
         LOG.debug("Flow was not able to complete");
+        complete = false;
         break;
       }
     }
+    explodedGraph.flowComputed(flowSteps, complete, System.nanoTime() - start);
     return flows;
   }
 
@@ -250,6 +269,50 @@ public class FlowComputation {
     }
   }
 
+  private class EdgeConstraints {
+    final Set<LearnedConstraint> nonRedundant;
+    final boolean terminateTraversal;
+
+    EdgeConstraints(ExplodedGraph.Edge edge) {
+      Set<LearnedConstraint> learnedConstraints = learnedConstraints(edge);
+      nonRedundant = filterRedundantObjectDomain(learnedConstraints);
+      terminateTraversal = shouldTerminate(learnedConstraints);
+    }
+  }
+
+  private Set<LearnedConstraint> learnedConstraints(ExplodedGraph.Edge edge) {
+    Set<LearnedConstraint> learnedConstraints = edge.learnedConstraints();
+    ImmutableSet.Builder<LearnedConstraint> lcByDomainBuilder = ImmutableSet.builder();
+    // guarantee that we will keep the same domain order when reporting
+    for (Class<? extends Constraint> domain : domains) {
+      learnedConstraints.stream()
+        .filter(lc -> symbolicValues.contains(lc.symbolicValue()) && hasConstraintForDomain(lc, domain))
+        .forEach(lcByDomainBuilder::add);
+    }
+
+    return lcByDomainBuilder.build();
+  }
+
+  private boolean hasConstraintForDomain(LearnedConstraint lc, Class<? extends Constraint> domain) {
+    return domain.isAssignableFrom(lc.constraint.getClass());
+  }
+
+  private Set<LearnedConstraint> filterRedundantObjectDomain(Set<LearnedConstraint> learnedConstraints) {
+    Map<SymbolicValue, Long> constraintsBySV = learnedConstraints.stream()
+      .collect(Collectors.groupingBy(LearnedConstraint::symbolicValue, Collectors.counting()));
+    return learnedConstraints.stream()
+      .flatMap(lc -> isConstraintFromObjectDomain(lc.constraint()) && constraintsBySV.get(lc.symbolicValue()) > 1 ? Stream.empty() : Stream.of(lc))
+      .collect(Collectors.toSet());
+  }
+
+  private boolean isConstraintFromObjectDomain(@Nullable Constraint constraint) {
+    return constraint instanceof ObjectConstraint;
+  }
+
+  private boolean shouldTerminate(Set<LearnedConstraint> learnedConstraints) {
+    return learnedConstraints.stream().map(LearnedConstraint::constraint).anyMatch(terminateTraversal);
+  }
+
   private class ExecutionPath {
     final PSet<Symbol> trackedSymbols;
     final SameConstraints sameConstraints;
@@ -310,11 +373,11 @@ public class FlowComputation {
         });
       }
 
-      Set<LearnedConstraint> learnedConstraints = learnedConstraints(edge);
-      Flow lcFlow = flowFromLearnedConstraints(edge, filterRedundantObjectDomain(learnedConstraints));
+      EdgeConstraints edgeConstraints = constraintsByEdge.computeIfAbsent(edge, EdgeConstraints::new);
+      Flow lcFlow = flowFromLearnedConstraints(edge, edgeConstraints.nonRedundant);
       flowBuilder.addAll(lcFlow);
 
-      boolean endOfPath = visitedAllParents(edge) || shouldTerminate(learnedConstraints);
+      boolean endOfPath = edgeConstraints.terminateTraversal || visitedAllParents(edge);
 
       if (endOfPath) {
         flowBuilder.addAll(flowForNullableMethodParameters(edge.parent));
@@ -365,18 +428,6 @@ public class FlowComputation {
       return "'" + type.name() + "'";
     }
 
-    private Set<LearnedConstraint> filterRedundantObjectDomain(Set<LearnedConstraint> learnedConstraints) {
-      Map<SymbolicValue, Long> constraintsBySV = learnedConstraints.stream()
-        .collect(Collectors.groupingBy(LearnedConstraint::symbolicValue, Collectors.counting()));
-      return learnedConstraints.stream()
-        .flatMap(lc -> isConstraintFromObjectDomain(lc.constraint()) && constraintsBySV.get(lc.symbolicValue()) > 1 ? Stream.empty() : Stream.of(lc))
-        .collect(Collectors.toSet());
-    }
-
-    private boolean isConstraintFromObjectDomain(@Nullable Constraint constraint) {
-      return constraint instanceof ObjectConstraint;
-    }
-
     private Flow flowForNullableMethodParameters(ExplodedGraph.Node node) {
       if (!node.edges().isEmpty() || !domains.contains(ObjectConstraint.class)) {
         return Flow.empty();
@@ -415,10 +466,6 @@ public class FlowComputation {
       return flowBuilder.build();
     }
 
-    private boolean shouldTerminate(Set<LearnedConstraint> learnedConstraints) {
-      return learnedConstraints.stream().map(LearnedConstraint::constraint).anyMatch(terminateTraversal);
-    }
-
     private Optional<LearnedAssociation> learnedAssociation(ExplodedGraph.Edge edge) {
       return edge.learnedAssociations().stream()
         .filter(la -> trackedSymbols.contains(la.symbol))
@@ -550,23 +597,6 @@ public class FlowComputation {
       return !visited.contains(e);
     }
 
-    Set<LearnedConstraint> learnedConstraints(ExplodedGraph.Edge edge) {
-      Set<LearnedConstraint> learnedConstraints = edge.learnedConstraints();
-      ImmutableSet.Builder<LearnedConstraint> lcByDomainBuilder = ImmutableSet.builder();
-      // guarantee that we will keep the same domain order when reporting
-      for (Class<? extends Constraint> domain : domains) {
-        learnedConstraints.stream()
-          .filter(lc -> symbolicValues.contains(lc.symbolicValue()) && hasConstraintForDomain(lc, domain))
-          .forEach(lcByDomainBuilder::add);
-      }
-
-      return lcByDomainBuilder.build();
-    }
-
-    private boolean hasConstraintForDomain(LearnedConstraint lc, Class<? extends Constraint> domain) {
-      return domain.isAssignableFrom(lc.constraint.getClass());
-    }
-
     private Flow learnedConstraintFlow(LearnedConstraint learnedConstraint, ExplodedGraph.Edge edge) {
       Constraint constraint = learnedConstraint.constraint();
       if (!addToFlow.test(constraint)) {
@@ -27,7 +27,10 @@ import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -257,7 +260,8 @@ public class ProgramState {
       return false;
     }
     ProgramState that = (ProgramState) o;
-    return Objects.equals(values, that.values) &&
+    return hashCode() == that.hashCode() &&
+      Objects.equals(values, that.values) &&
       Objects.equals(constraints, that.constraints) &&
       Objects.equals(exitSymbolicValue, that.exitSymbolicValue) &&
       Objects.equals(stack, that.stack);
@@ -452,6 +456,66 @@ public class ProgramState {
     ) : this;
   }
 
+  /**
+   * Removes the constraints on relations which only involve symbolic values which can no longer be reached from this state.
+   * Relations are grouped by the symbolic values they relate, transitively: a group of relations is kept as soon as one of these values
+   * is still reachable, as knowledge about it could be deduced from the group.
+   */
+  public ProgramState cleanupDeadRelations(Collection<SymbolicValue> protectedSymbolicValues) {
+    Map<SymbolicValue, SymbolicValue> representatives = new HashMap<>();
+    List<SymbolicValue> relations = new ArrayList<>();
+    constraints.forEach((symbolicValue, constraintsByDomain) -> {
+      if (!SymbolicValue.isDisposable(symbolicValue) && !SymbolicValue.PROTECTED_SYMBOLIC_VALUES.contains(symbolicValue)) {
+        relations.add(symbolicValue);
+        for (SymbolicValue operand : symbolicValue.computedFrom()) {
+          // literals do not link the values they are compared to
+          if (!SymbolicValue.PROTECTED_SYMBOLIC_VALUES.contains(operand)) {
+            union(representatives, symbolicValue, operand);
+          }
+        }
+      }
+    });
+    if (relations.isEmpty()) {
+      return this;
+    }
+    Set<SymbolicValue> liveGroups = new HashSet<>();
+    new ArrayList<>(representatives.keySet()).forEach(symbolicValue -> {
+      if (isReachable(symbolicValue, references)
+        || inStack(stack, symbolicValue)
+        || protectedSymbolicValues.contains(symbolicValue)
+        || symbolicValue.equals(exitSymbolicValue)
+        || (SymbolicValue.isDisposable(symbolicValue) && !isDisposable(symbolicValue, constraints.get(symbolicValue)))) {
+        liveGroups.add(find(representatives, symbolicValue));
+      }
+    });
+    PMap<SymbolicValue, ConstraintsByDomain> newConstraints = constraints;
+    for (SymbolicValue relation : relations) {
+      if (!liveGroups.contains(find(representatives, relation))) {
+        newConstraints = newConstraints.remove(relation);
+      }
+    }
+    return newConstraints == constraints ? this : new ProgramState(values, references, newConstraints, visitedPoints, stack, exitSymbolicValue);
+  }
+
+  private static void union(Map<SymbolicValue, SymbolicValue> representatives, SymbolicValue sv1, SymbolicValue sv2) {
+    SymbolicValue representative1 = find(representatives, sv1);
+    SymbolicValue representative2 = find(representatives, sv2);
+    if (!representative1.equals(representative2)) {
+      representatives.put(representative1, representative2);
+    }
+  }
+
+  private static SymbolicValue find(Map<SymbolicValue, SymbolicValue> representatives, SymbolicValue symbolicValue) {
+    SymbolicValue current = symbolicValue;
+    SymbolicValue parent = representatives.computeIfAbsent(current, sv -> sv);
+    while (!parent.equals(current)) {
+      current = parent;
+      parent = representatives.get(current);
+    }
+    representatives.put(symbolicValue, current);
+    return current;
+  }
+
   ProgramState resetFieldValues(ConstraintManager constraintManager, boolean resetOnlyStaticFields) {
     List<Symbol> fields = new ArrayList<>();
     values.forEach((symbol, symbolicValue) -> {
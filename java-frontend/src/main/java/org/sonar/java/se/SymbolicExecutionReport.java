@@ -0,0 +1,197 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Machine-readable report of the cost of symbolic execution, written to the work directory: statistics of each explored method,
+ * aggregated per file and for the whole project.
+ * Statistics of a file are written as soon as it is analyzed, so that only the totals of the project are kept in memory.
+ */
+public class SymbolicExecutionReport {
+
+  private static final Logger LOG = Loggers.get(SymbolicExecutionReport.class);
+
+  public static final String FILE_NAME = "se-report.json";
+  private static final int VERSION = 1;
+
+  private final File file;
+  private final Totals projectTotals = new Totals();
+  @Nullable
+  private JsonWriter writer;
+  private boolean failed = false;
+
+  public SymbolicExecutionReport(File file) {
+    this.file = file;
+  }
+
+  public void addFile(String path, List<ExplorationStatistics> methods) {
+    if (methods.isEmpty() || failed) {
+      return;
+    }
+    Totals fileTotals = new Totals();
+    methods.forEach(fileTotals::add);
+    methods.forEach(projectTotals::add);
+    try {
+      JsonWriter out = writer();
+      out.beginObject();
+      out.name("file").value(path);
+      out.name("summary");
+      writeTotals(out, fileTotals);
+      out.name("methods").beginArray();
+      for (ExplorationStatistics method : methods) {
+        writeMethod(out, method);
+      }
+      out.endArray();
+      out.endObject();
+    } catch (IOException e) {
+      fail(e);
+    }
+  }
+
+  /**
+   * Completes the report with the totals of the project.
+   */
+  public void save() {
+    if (failed) {
+      return;
+    }
+    try {
+      JsonWriter out = writer();
+      out.endArray();
+      out.name("project");
+      writeTotals(out, projectTotals);
+      out.endObject();
+      out.close();
+    } catch (IOException e) {
+      fail(e);
+      return;
+    }
+    LOG.debug("Symbolic execution report of {} methods saved to {}", projectTotals.methods, file);
+  }
+
+  private JsonWriter writer() throws IOException {
+    if (writer == null) {
+      writer = new JsonWriter(Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8));
+      writer.beginObject();
+      writer.name("version").value(VERSION);
+      writer.name("files").beginArray();
+    }
+    return writer;
+  }
+
+  private void fail(IOException e) {
+    failed = true;
+    LOG.debug("Unable to write symbolic execution report to {} : {}", file, e.getMessage());
+    if (writer != null) {
+      try {
+        writer.close();
+      } catch (IOException closeException) {
+        // report is already incomplete
+      }
+    }
+  }
+
+  private static void writeMethod(JsonWriter out, ExplorationStatistics method) throws IOException {
+    out.beginObject();
+    out.name("method").value(method.methodName());
+    out.name("line").value(method.line());
+    out.name("steps").value(method.steps());
+    out.name("nodes").value(method.nodes());
+    out.name("peakWorkListSize").value(method.peakWorkListSize());
+    out.name("peakConstraints").value(method.peakConstraints());
+    out.name("timeMs").value(millis(method.durationNanos()));
+    out.name("flows").value(method.flows());
+    out.name("flowSteps").value(method.flowSteps());
+    out.name("incompleteFlows").value(method.incompleteFlows());
+    out.name("flowTimeMs").value(millis(method.flowDurationNanos()));
+    ExplorationStatistics.AbortReason abortReason = method.abortReason();
+    if (abortReason != null) {
+      out.name("abortReason").value(abortReason.name());
+    }
+    out.endObject();
+  }
+
+  private static void writeTotals(JsonWriter out, Totals totals) throws IOException {
+    out.beginObject();
+    out.name("methods").value(totals.methods);
+    out.name("steps").value(totals.steps);
+    out.name("nodes").value(totals.nodes);
+    out.name("peakWorkListSize").value(totals.peakWorkListSize);
+    out.name("peakConstraints").value(totals.peakConstraints);
+    out.name("timeMs").value(millis(totals.durationNanos));
+    out.name("flows").value(totals.flows);
+    out.name("flowSteps").value(totals.flowSteps);
+    out.name("incompleteFlows").value(totals.incompleteFlows);
+    out.name("flowTimeMs").value(millis(totals.flowDurationNanos));
+    out.name("aborts").beginObject();
+    for (Map.Entry<ExplorationStatistics.AbortReason, Integer> abort : totals.aborts.entrySet()) {
+      out.name(abort.getKey().name()).value(abort.getValue());
+    }
+    out.endObject();
+    out.endObject();
+  }
+
+  private static double millis(long nanos) {
+    return Math.round(nanos / 1_000.0) / 1_000.0;
+  }
+
+  private static class Totals {
+    private int methods;
+    private long steps;
+    private long nodes;
+    private int peakWorkListSize;
+    private int peakConstraints;
+    private long durationNanos;
+    private long flows;
+    private long flowSteps;
+    private int incompleteFlows;
+    private long flowDurationNanos;
+    private final Map<ExplorationStatistics.AbortReason, Integer> aborts = new EnumMap<>(ExplorationStatistics.AbortReason.class);
+
+    private void add(ExplorationStatistics method) {
+      methods++;
+      steps += method.steps();
+      nodes += method.nodes();
+      peakWorkListSize = Math.max(peakWorkListSize, method.peakWorkListSize());
+      peakConstraints = Math.max(peakConstraints, method.peakConstraints());
+      durationNanos += method.durationNanos();
+      flows += method.flows();
+      flowSteps += method.flowSteps();
+      incompleteFlows += method.incompleteFlows();
+      flowDurationNanos += method.flowDurationNanos();
+      ExplorationStatistics.AbortReason abortReason = method.abortReason();
+      if (abortReason != null) {
+        aborts.merge(abortReason, 1, Integer::sum);
+      }
+    }
+  }
+}
@@ -21,6 +21,8 @@ package org.sonar.java.se;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.Lists;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import org.sonar.api.utils.log.Logger;
 import org.sonar.api.utils.log.Loggers;
@@ -42,12 +44,36 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
   @VisibleForTesting
   public BehaviorCache behaviorCache;
   private final ExplodedGraphWalker.ExplodedGraphWalkerFactory egwFactory;
+  private final List<ExplorationStatistics> statistics = new ArrayList<>();
+  // time spent exploring the methods invoked by the method being explored, each of them having its own statistics
+  private long calleesDurationNanos = 0;
 
   public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache) {
-    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners);
+    this(executableScanners, behaviorCache, false);
+  }
+
+  /**
+   * @param stateSubsumption see {@link ExplodedGraphWalker#setStateSubsumption(boolean)}
+   */
+  public SymbolicExecutionVisitor(List<JavaFileScanner> executableScanners, BehaviorCache behaviorCache, boolean stateSubsumption) {
+    egwFactory = new ExplodedGraphWalker.ExplodedGraphWalkerFactory(executableScanners, stateSubsumption);
     this.behaviorCache = behaviorCache;
   }
 
+  /**
+   * @see ExplodedGraphWalker#setWorkListStrategy(WorkList.Strategy)
+   */
+  public void setWorkListStrategy(WorkList.Strategy workListStrategy) {
+    egwFactory.setWorkListStrategy(workListStrategy);
+  }
+
+  /**
+   * @see ExplodedGraphWalker#setMaxExplodedGraphMemory(long)
+   */
+  public void setMaxExplodedGraphMemory(long maxExplodedGraphMemory) {
+    egwFactory.setMaxExplodedGraphMemory(maxExplodedGraphMemory);
+  }
+
   @Override
   public void scanFile(JavaFileScannerContext context) {
     behaviorCache.setFileContext(this, (SemanticModel) context.getSemanticModel());
@@ -66,6 +92,9 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
 
   public void execute(MethodTree methodTree) {
     ExplodedGraphWalker walker = getWalker();
+    // explorations of invoked methods are nested in the exploration of the method through the behavior cache
+    long callerCalleesDurationNanos = calleesDurationNanos;
+    calleesDurationNanos = 0;
     try {
       Symbol.MethodSymbol methodSymbol = methodTree.symbol();
       if (methodCanNotBeOverriden(methodSymbol)) {
@@ -83,9 +112,26 @@ public class SymbolicExecutionVisitor extends SubscriptionVisitor {
       if (walker.methodBehavior != null) {
         walker.methodBehavior.visited();
       }
+    } finally {
+      ExplorationStatistics walkerStatistics = walker.statistics();
+      if (walkerStatistics != null) {
+        callerCalleesDurationNanos += walkerStatistics.durationNanos;
+        walkerStatistics.durationNanos -= calleesDurationNanos;
+        statistics.add(walkerStatistics);
+      }
+      calleesDurationNanos = callerCalleesDurationNanos;
     }
   }
 
+  /**
+   * @return statistics of the methods explored by this visitor, in the order of the methods in the file
+   */
+  public List<ExplorationStatistics> statistics() {
+    List<ExplorationStatistics> result = new ArrayList<>(statistics);
+    result.sort(Comparator.comparingInt(ExplorationStatistics::line));
+    return result;
+  }
+
   @VisibleForTesting
   protected ExplodedGraphWalker getWalker() {
     return egwFactory.createWalker(behaviorCache, (SemanticModel) context.getSemanticModel());
@@ -0,0 +1,203 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import org.sonar.java.cfg.CFG;
+
+/**
+ * Nodes of the exploded graph waiting to be explored by the {@link ExplodedGraphWalker}. The order in which they are explored
+ * decides which paths are covered before the exploration of a method reaches its maximum number of steps.
+ */
+public abstract class WorkList {
+
+  public enum Strategy {
+    /**
+     * Depth-first: the last enqueued node is explored first.
+     */
+    DFS,
+    /**
+     * Breadth-first: nodes are explored in the order they are enqueued.
+     */
+    BFS,
+    /**
+     * Nodes at the program points explored the least times first, then the ones closest to the exit of the method,
+     * and in last resort depth-first.
+     */
+    COVERAGE;
+
+    public WorkList create(CFG cfg) {
+      switch (this) {
+        case BFS:
+          return new DequeWorkList(false);
+        case COVERAGE:
+          return new CoverageWorkList(cfg);
+        default:
+          return new DequeWorkList(true);
+      }
+    }
+  }
+
+  public abstract void add(ExplodedGraph.Node node);
+
+  public abstract ExplodedGraph.Node remove();
+
+  /**
+   * @return the node which will be returned by the next call to {@link #remove()}
+   */
+  public abstract ExplodedGraph.Node peek();
+
+  public abstract int size();
+
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+  private static class DequeWorkList extends WorkList {
+
+    private final Deque<ExplodedGraph.Node> nodes = new ArrayDeque<>();
+    private final boolean lifo;
+
+    private DequeWorkList(boolean lifo) {
+      this.lifo = lifo;
+    }
+
+    @Override
+    public void add(ExplodedGraph.Node node) {
+      if (lifo) {
+        nodes.addFirst(node);
+      } else {
+        nodes.addLast(node);
+      }
+    }
+
+    @Override
+    public ExplodedGraph.Node remove() {
+      return nodes.removeFirst();
+    }
+
+    @Override
+    public ExplodedGraph.Node peek() {
+      return nodes.getFirst();
+    }
+
+    @Override
+    public int size() {
+      return nodes.size();
+    }
+  }
+
+  /**
+   * Pending nodes are grouped by program point: the number of visits of a program point changes each time one of its nodes
+   * is explored, so the group is then given its new priority. Nodes of a same program point are explored depth-first.
+   */
+  private static class CoverageWorkList extends WorkList {
+
+    private static final Comparator<ProgramPointEntries> PRIORITY = Comparator.<ProgramPointEntries>comparingInt(e -> e.visits)
+      .thenComparingInt(e -> e.distanceToExit)
+      .thenComparing(Comparator.<ProgramPointEntries>comparingLong(e -> e.entries.getFirst().sequence).reversed());
+
+    private final TreeSet<ProgramPointEntries> queue = new TreeSet<>(PRIORITY);
+    private final Map<ProgramPoint, ProgramPointEntries> entriesByProgramPoint = new HashMap<>();
+    private final Map<CFG.Block, Integer> distancesToExit = new HashMap<>();
+    private long sequence = 0;
+    private int size = 0;
+
+    private CoverageWorkList(CFG cfg) {
+      // backward breadth-first traversal of the CFG from its exit block: blocks which can not reach the exit are left out
+      Deque<CFG.Block> blocks = new ArrayDeque<>();
+      distancesToExit.put(cfg.exitBlock(), 0);
+      blocks.add(cfg.exitBlock());
+      while (!blocks.isEmpty()) {
+        CFG.Block block = blocks.removeFirst();
+        int distance = distancesToExit.get(block) + 1;
+        for (CFG.Block predecessor : block.predecessors()) {
+          if (distancesToExit.putIfAbsent(predecessor, distance) == null) {
+            blocks.addLast(predecessor);
+          }
+        }
+      }
+    }
+
+    @Override
+    public void add(ExplodedGraph.Node node) {
+      ProgramPointEntries programPointEntries = entriesByProgramPoint.computeIfAbsent(node.programPoint,
+        pp -> new ProgramPointEntries(distancesToExit.getOrDefault(pp.block, Integer.MAX_VALUE)));
+      if (!programPointEntries.entries.isEmpty()) {
+        // the priority depends on the last enqueued node: remove before updating
+        queue.remove(programPointEntries);
+      }
+      programPointEntries.entries.addFirst(new Entry(node, sequence++));
+      queue.add(programPointEntries);
+      size++;
+    }
+
+    @Override
+    public ExplodedGraph.Node remove() {
+      ProgramPointEntries programPointEntries = queue.pollFirst();
+      if (programPointEntries == null) {
+        throw new NoSuchElementException();
+      }
+      ExplodedGraph.Node node = programPointEntries.entries.removeFirst().node;
+      programPointEntries.visits++;
+      if (!programPointEntries.entries.isEmpty()) {
+        queue.add(programPointEntries);
+      }
+      size--;
+      return node;
+    }
+
+    @Override
+    public ExplodedGraph.Node peek() {
+      return queue.first().entries.getFirst().node;
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    private static class ProgramPointEntries {
+      private final Deque<Entry> entries = new ArrayDeque<>();
+      private final int distanceToExit;
+      private int visits = 0;
+
+      private ProgramPointEntries(int distanceToExit) {
+        this.distanceToExit = distanceToExit;
+      }
+    }
+
+    private static class Entry {
+      private final ExplodedGraph.Node node;
+      private final long sequence;
+
+      private Entry(ExplodedGraph.Node node, long sequence) {
+        this.node = node;
+        this.sequence = sequence;
+      }
+    }
+  }
+}
@@ -19,6 +19,8 @@
  */
 package org.sonar.java.se.constraint;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -26,16 +28,26 @@ import javax.annotation.Nullable;
 import org.sonar.java.collections.PCollections;
 import org.sonar.java.collections.PMap;
 
+/**
+ * Instances are hash-consed: two equal instances are always the same object. Program states thus share their constraints,
+ * and comparing them is most of the time a reference check.
+ */
 public class ConstraintsByDomain {
 
+  private static final Interner<ConstraintsByDomain> INTERNER = Interners.newWeakInterner();
+
   private final PMap<Class<? extends Constraint>, Constraint> constraintPMap;
 
-  private static final ConstraintsByDomain EMPTY = new ConstraintsByDomain(PCollections.emptyMap());
+  private static final ConstraintsByDomain EMPTY = of(PCollections.emptyMap());
 
   private ConstraintsByDomain(PMap<Class<? extends Constraint>, Constraint> constraintPMap) {
     this.constraintPMap = constraintPMap;
   }
 
+  private static ConstraintsByDomain of(PMap<Class<? extends Constraint>, Constraint> constraintPMap) {
+    return INTERNER.intern(new ConstraintsByDomain(constraintPMap));
+  }
+
   public static ConstraintsByDomain empty() {
     return EMPTY;
   }
@@ -45,7 +57,7 @@ public class ConstraintsByDomain {
     if (remove == constraintPMap) {
       return this;
     }
-    return remove.isEmpty() ? EMPTY : new ConstraintsByDomain(remove);
+    return remove.isEmpty() ? EMPTY : of(remove);
   }
 
   @Nullable
@@ -67,7 +79,7 @@ public class ConstraintsByDomain {
 
   public ConstraintsByDomain put(Constraint constraint) {
     PMap<Class<? extends Constraint>, Constraint> newConstraints = constraintPMap.put(constraint.getClass(), constraint);
-    return newConstraints == constraintPMap ? this : new ConstraintsByDomain(newConstraints);
+    return newConstraints == constraintPMap ? this : of(newConstraints);
   }
 
   public Stream<Constraint> stream() {
@@ -90,8 +102,9 @@ public class ConstraintsByDomain {
     if (o == null || getClass() != o.getClass()) {
       return false;
     }
+    // distinct instances are compared when interning a new instance, and when program states compare their constraints
     ConstraintsByDomain that = (ConstraintsByDomain) o;
-    return constraintPMap.equals(that.constraintPMap);
+    return constraintPMap.hashCode() == that.constraintPMap.hashCode() && constraintPMap.equals(that.constraintPMap);
   }
 
   @Override
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.symbolicvalues;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Relations known to hold, seen as a graph whose nodes are symbolic values: relations are indexed by their operands.
+ * Two relations can only be combined or compared when they share an operand, so deducing relations from a new one only
+ * visits the relations adjacent to it instead of all known relations.
+ */
+final class KnownRelations extends AbstractSet<RelationalSymbolicValue> {
+
+  private final Set<RelationalSymbolicValue> relations = new HashSet<>();
+  private final Map<SymbolicValue, List<RelationalSymbolicValue>> relationsByOperand = new HashMap<>();
+
+  KnownRelations(Collection<RelationalSymbolicValue> knownRelations) {
+    knownRelations.forEach(this::add);
+  }
+
+  static KnownRelations of(Set<RelationalSymbolicValue> knownRelations) {
+    return knownRelations instanceof KnownRelations ? (KnownRelations) knownRelations : new KnownRelations(knownRelations);
+  }
+
+  @Override
+  public boolean add(RelationalSymbolicValue relation) {
+    if (!relations.add(relation)) {
+      return false;
+    }
+    relationsByOperand.computeIfAbsent(relation.leftOp, k -> new ArrayList<>()).add(relation);
+    if (!relation.leftOp.equals(relation.rightOp)) {
+      relationsByOperand.computeIfAbsent(relation.rightOp, k -> new ArrayList<>()).add(relation);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    return relations.contains(o);
+  }
+
+  @Override
+  public Iterator<RelationalSymbolicValue> iterator() {
+    return Collections.unmodifiableSet(relations).iterator();
+  }
+
+  @Override
+  public int size() {
+    return relations.size();
+  }
+
+  /**
+   * @return known relations having at least one operand in common with the given relation, each of them once
+   */
+  List<RelationalSymbolicValue> adjacentTo(RelationalSymbolicValue relation) {
+    List<RelationalSymbolicValue> left = relationsByOperand.getOrDefault(relation.leftOp, Collections.emptyList());
+    if (relation.leftOp.equals(relation.rightOp)) {
+      return left;
+    }
+    List<RelationalSymbolicValue> right = relationsByOperand.getOrDefault(relation.rightOp, Collections.emptyList());
+    List<RelationalSymbolicValue> result = new ArrayList<>(left.size() + right.size());
+    result.addAll(left);
+    for (RelationalSymbolicValue other : right) {
+      // relations on both operands are already in the list
+      if (!other.leftOp.equals(relation.leftOp) && !other.rightOp.equals(relation.leftOp)) {
+        result.add(other);
+      }
+    }
+    return result;
+  }
+}
@@ -102,7 +102,7 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
 
   @Override
   public List<ProgramState> setConstraint(ProgramState initialProgramState, BooleanConstraint booleanConstraint) {
-    return setConstraint(initialProgramState, booleanConstraint, new HashSet<>(initialProgramState.knownRelations()));
+    return setConstraint(initialProgramState, booleanConstraint, new KnownRelations(initialProgramState.knownRelations()));
   }
 
   @Override
@@ -117,12 +117,13 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     if (knownRelations.contains(this)) {
       return Collections.singletonList(initialProgramState);
     }
+    KnownRelations relations = KnownRelations.of(knownRelations);
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     newRelations.add(this);
-    newRelations.addAll(transitiveRelations(knownRelations));
+    newRelations.addAll(transitiveRelations(relations));
 
     boolean unfulfilled = newRelations.stream()
-      .map(r -> r.resolveRelationState(knownRelations))
+      .map(r -> r.resolveRelationState(relations))
       .anyMatch(RelationState.UNFULFILLED::equals);
 
     if (unfulfilled) {
@@ -214,7 +215,7 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
       return relationStateForSameOperand();
     }
 
-    return knownRelations.stream()
+    return KnownRelations.of(knownRelations).adjacentTo(this).stream()
       .map(r -> r.implies(this))
       .filter(RelationState::isDetermined)
       .findAny().orElse(RelationState.UNDETERMINED);
@@ -248,21 +249,29 @@ public class RelationalSymbolicValue extends BinarySymbolicValue {
     return RelationState.UNDETERMINED;
   }
 
+  /**
+   * Relations are only combined with the known relations sharing an operand with them: the cost of the closure depends on the
+   * number of relations on the values involved, not on the total number of known relations. The safety limit bounds the total
+   * number of combinations made, as it did when every deduced relation was combined with every known relation.
+   */
   @VisibleForTesting
   Set<RelationalSymbolicValue> transitiveRelations(Set<RelationalSymbolicValue> knownRelations) {
+    KnownRelations relations = KnownRelations.of(knownRelations);
     Set<RelationalSymbolicValue> newRelations = new HashSet<>();
     Deque<RelationalSymbolicValue> workList = new ArrayDeque<>();
     int iterations = 0;
+    int usedRelations = 0;
     workList.add(this);
     while (!workList.isEmpty()) {
-      int relationSize = newRelations.size() * knownRelations.size();
-      if (relationSize > MAX_DEDUCED_RELATIONS || iterations > MAX_ITERATIONS) {
+      if (usedRelations > MAX_DEDUCED_RELATIONS || iterations > MAX_ITERATIONS) {
         // safety mechanism in case of an error in the algorithm
-        throw new RelationalSymbolicValue.TransitiveRelationExceededException("Used relations: " + relationSize + ". Iterations " + iterations);
+        throw new RelationalSymbolicValue.TransitiveRelationExceededException("Used relations: " + usedRelations + ". Iterations " + iterations);
       }
       iterations++;
       RelationalSymbolicValue relation = workList.pop();
-      for (RelationalSymbolicValue knownRelation : knownRelations) {
+      List<RelationalSymbolicValue> adjacentRelations = relations.adjacentTo(relation);
+      usedRelations += adjacentRelations.size();
+      for (RelationalSymbolicValue knownRelation : adjacentRelations) {
         RelationalSymbolicValue r = relation.deduceTransitiveOrSimplified(knownRelation);
         if (r != null && !knownRelations.contains(r) && newRelations.add(r)) {
           workList.add(r);
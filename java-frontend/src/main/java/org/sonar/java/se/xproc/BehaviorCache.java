@@ -21,12 +21,18 @@ package org.sonar.java.se.xproc;
 
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableSet;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.bytecode.se.BytecodeAnalysisSession;
 import org.sonar.java.bytecode.se.BytecodeEGWalker;
 import org.sonar.java.resolve.JavaSymbol;
 import org.sonar.java.resolve.SemanticModel;
@@ -36,13 +42,19 @@ import org.sonar.plugins.java.api.tree.MethodTree;
 
 public class BehaviorCache {
 
-  private final SquidClassLoader classLoader;
+  private final BytecodeAnalysisSession bytecodeAnalysisSession;
   private final boolean crossFileEnabled;
   private  SymbolicExecutionVisitor sev;
   private  SemanticModel semanticModel;
   @VisibleForTesting
   public final Map<String, MethodBehavior> behaviors = new LinkedHashMap<>();
   private final Map<String, MethodBehavior> bytecodeBehaviors = new LinkedHashMap<>();
+  // classes read from bytecode to compute each behavior, directly or through the behaviors of the methods it calls
+  private final Map<String, Set<String>> bytecodeDependencies = new HashMap<>();
+  // dependencies of the behaviors being computed from bytecode, when they are persisted
+  private final Deque<Set<String>> computedDependencies = new ArrayDeque<>();
+  @Nullable
+  private BytecodeBehaviorStore bytecodeBehaviorStore;
 
   // methods known to be well covered using bytecode-generated behavior
   private static final Set<String> WHITELIST = ImmutableSet.of(
@@ -98,15 +110,35 @@ public class BehaviorCache {
   }
 
   public BehaviorCache(SquidClassLoader classLoader, boolean crossFileEnabled) {
-    this.classLoader = classLoader;
+    this.bytecodeAnalysisSession = new BytecodeAnalysisSession(classLoader);
     this.crossFileEnabled = crossFileEnabled;
   }
 
+  /**
+   * @return classes read from bytecode to compute behaviors, shared by all the files of the analysis
+   */
+  public BytecodeAnalysisSession bytecodeAnalysisSession() {
+    return bytecodeAnalysisSession;
+  }
+
   public void setFileContext(@Nullable SymbolicExecutionVisitor sev,@Nullable SemanticModel semanticModel) {
     this.sev = sev;
     this.semanticModel = semanticModel;
   }
 
+  public void setBytecodeBehaviorStore(@Nullable BytecodeBehaviorStore bytecodeBehaviorStore) {
+    this.bytecodeBehaviorStore = bytecodeBehaviorStore;
+  }
+
+  /**
+   * Persists the behaviors computed from bytecode during this analysis, to be reused by the next one.
+   */
+  public void saveBytecodeBehaviors() {
+    if (bytecodeBehaviorStore != null) {
+      bytecodeBehaviorStore.save(bytecodeBehaviors.values(), bytecodeDependencies);
+    }
+  }
+
   public void cleanup() {
     behaviors.clear();
   }
@@ -151,11 +183,36 @@ public class BehaviorCache {
     }
 
     if (!bytecodeBehaviors.containsKey(signature)) {
-      new BytecodeEGWalker(this, semanticModel).getMethodBehavior(signature, classLoader);
+      if (bytecodeBehaviorStore == null) {
+        new BytecodeEGWalker(this, semanticModel).getMethodBehavior(signature);
+      } else {
+        loadOrComputeBytecodeBehavior(signature, bytecodeBehaviorStore);
+      }
     }
+    // behaviors being computed depend on the classes this behavior depends on
+    Set<String> dependencies = bytecodeDependencies.getOrDefault(signature, Collections.emptySet());
+    computedDependencies.forEach(computed -> computed.addAll(dependencies));
     return bytecodeBehaviors.get(signature);
   }
 
+  private void loadOrComputeBytecodeBehavior(String signature, BytecodeBehaviorStore store) {
+    Set<String> dependencies = new HashSet<>();
+    // registered before the computation, for recursive calls
+    bytecodeDependencies.put(signature, dependencies);
+    MethodBehavior storedBehavior = store.load(signature, dependencies);
+    if (storedBehavior != null) {
+      bytecodeBehaviors.put(signature, storedBehavior);
+      return;
+    }
+    dependencies.addAll(bytecodeAnalysisSession.hierarchy(signature.substring(0, signature.indexOf('#'))));
+    computedDependencies.push(dependencies);
+    try {
+      new BytecodeEGWalker(this, semanticModel).getMethodBehavior(signature);
+    } finally {
+      computedDependencies.pop();
+    }
+  }
+
   /**
    * Do not trigger any new computation of method behavior, just check if there is a known method behavior for the symbol.
    *
@@ -0,0 +1,330 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+import org.sonar.java.AnalyzerVersion;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.se.constraint.Constraint;
+import org.sonar.java.se.constraint.ConstraintsByDomain;
+import org.sonar.java.se.constraint.TypedConstraint;
+
+/**
+ * Persists the method behaviors computed from bytecode, so that they are reused by the next analyses instead of
+ * exploring again the bytecode of the same library methods.
+ * Each behavior is stored with the classes read to compute it: the class declaring the method, its supertypes, and the classes the behaviors
+ * of the invoked methods depend on. It is discarded as soon as one of these classes changes, appears or disappears.
+ * Behaviors depend on the semantics of the symbolic execution engine as well: all of them are discarded when the analyzer changes.
+ */
+public class BytecodeBehaviorStore {
+
+  private static final Logger LOG = Loggers.get(BytecodeBehaviorStore.class);
+
+  public static final String FILE_NAME = "se-bytecode-behaviors.bin";
+  private static final int VERSION = 1;
+
+  private static final byte HAPPY_PATH_YIELD = 0;
+  private static final byte EXCEPTIONAL_YIELD = 1;
+  private static final byte ENUM_CONSTRAINT = 0;
+  private static final byte TYPED_CONSTRAINT = 1;
+
+  private final File file;
+  private final SquidClassLoader classLoader;
+  private final String analyzerVersion;
+  private final Map<String, String> checksums = new HashMap<>();
+  private Map<String, StoredBehavior> storedBehaviors;
+
+  public BytecodeBehaviorStore(File file, SquidClassLoader classLoader) {
+    this(file, classLoader, AnalyzerVersion.of(BytecodeBehaviorStore.class));
+  }
+
+  @VisibleForTesting
+  BytecodeBehaviorStore(File file, SquidClassLoader classLoader, String analyzerVersion) {
+    this.file = file;
+    this.classLoader = classLoader;
+    this.analyzerVersion = analyzerVersion;
+  }
+
+  /**
+   * @param dependencies receives the classes the behavior depends on, when it is returned
+   * @return the behavior stored by a previous analysis, or null if there is none or if a class it depends on changed since then.
+   */
+  @CheckForNull
+  public MethodBehavior load(String signature, Collection<String> dependencies) {
+    if (storedBehaviors == null) {
+      storedBehaviors = read();
+    }
+    StoredBehavior stored = storedBehaviors.remove(signature);
+    if (stored == null || !stored.checksum.equals(checksum(stored.dependencies))) {
+      return null;
+    }
+    dependencies.addAll(stored.dependencies);
+    return stored.behavior;
+  }
+
+  /**
+   * Replaces the content of the store by the given behaviors. Behaviors which can not be persisted are ignored.
+   *
+   * @param dependencies classes each behavior depends on, by signature. Behaviors without known dependencies are not persisted.
+   */
+  public void save(Collection<MethodBehavior> behaviors, Map<String, Set<String>> dependencies) {
+    int count = 0;
+    try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+      out.writeInt(VERSION);
+      out.writeUTF(analyzerVersion);
+      for (MethodBehavior behavior : behaviors) {
+        Set<String> behaviorDependencies = dependencies.get(behavior.signature());
+        if (behavior.isVisited() && behaviorDependencies != null && canBeWritten(behavior)) {
+          out.writeBoolean(true);
+          out.writeUTF(checksum(behaviorDependencies));
+          out.writeInt(behaviorDependencies.size());
+          for (String dependency : behaviorDependencies) {
+            out.writeUTF(dependency);
+          }
+          writeBehavior(out, behavior);
+          count++;
+        }
+      }
+      out.writeBoolean(false);
+    } catch (IOException e) {
+      LOG.debug("Unable to save bytecode method behaviors to {} : {}", file, e.getMessage());
+      return;
+    }
+    LOG.debug("{} bytecode method behaviors saved to {}", count, file);
+  }
+
+  private Map<String, StoredBehavior> read() {
+    Map<String, StoredBehavior> result = new HashMap<>();
+    if (!file.isFile()) {
+      return result;
+    }
+    try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+      if (in.readInt() != VERSION || !analyzerVersion.equals(in.readUTF())) {
+        return result;
+      }
+      while (in.readBoolean()) {
+        String checksum = in.readUTF();
+        int dependenciesCount = in.readInt();
+        List<String> dependencies = new ArrayList<>(dependenciesCount);
+        for (int i = 0; i < dependenciesCount; i++) {
+          dependencies.add(in.readUTF());
+        }
+        MethodBehavior behavior = readBehavior(in);
+        result.put(behavior.signature(), new StoredBehavior(checksum, dependencies, behavior));
+      }
+    } catch (IOException e) {
+      LOG.debug("Unable to read bytecode method behaviors from {} : {}", file, e.getMessage());
+      return new HashMap<>();
+    }
+    LOG.debug("{} bytecode method behaviors read from {}", result.size(), file);
+    return result;
+  }
+
+  private String checksum(Collection<String> classNames) {
+    Hasher hasher = Hashing.murmur3_128().newHasher();
+    classNames.stream().sorted().forEach(className -> hasher
+      .putString(className, StandardCharsets.UTF_8)
+      .putString(checksum(className), StandardCharsets.UTF_8));
+    return hasher.hash().toString();
+  }
+
+  /**
+   * @return checksum of the class file, empty if the class can not be found
+   */
+  private String checksum(String className) {
+    return checksums.computeIfAbsent(className, k -> {
+      byte[] bytes = classLoader.getBytesForClass(k);
+      return bytes == null ? "" : Hashing.murmur3_128().hashBytes(bytes).toString();
+    });
+  }
+
+  private static boolean canBeWritten(MethodBehavior behavior) {
+    return behavior.yields.stream().allMatch(yield -> !(yield instanceof ExceptionalCheckBasedYield)
+      && yield.parametersConstraints.stream().allMatch(BytecodeBehaviorStore::canBeWritten)
+      && (!(yield instanceof HappyPathYield) || canBeWritten(((HappyPathYield) yield).resultConstraint())));
+  }
+
+  private static boolean canBeWritten(@Nullable ConstraintsByDomain constraints) {
+    return constraints == null || constraints.stream().allMatch(c -> c instanceof Enum || c instanceof TypedConstraint);
+  }
+
+  private static void writeBehavior(DataOutputStream out, MethodBehavior behavior) throws IOException {
+    out.writeUTF(behavior.signature());
+    out.writeBoolean(behavior.isMethodVarArgs());
+    out.writeBoolean(behavior.isComplete());
+    List<String> declaredExceptions = behavior.getDeclaredExceptions();
+    out.writeInt(declaredExceptions.size());
+    for (String declaredException : declaredExceptions) {
+      out.writeUTF(declaredException);
+    }
+    out.writeInt(behavior.yields.size());
+    for (MethodYield yield : behavior.yields) {
+      out.writeInt(yield.parametersConstraints.size());
+      for (ConstraintsByDomain constraints : yield.parametersConstraints) {
+        writeConstraints(out, constraints);
+      }
+      if (yield instanceof HappyPathYield) {
+        HappyPathYield happyPathYield = (HappyPathYield) yield;
+        out.writeByte(HAPPY_PATH_YIELD);
+        out.writeInt(happyPathYield.resultIndex());
+        writeNullableConstraints(out, happyPathYield.resultConstraint());
+      } else {
+        out.writeByte(EXCEPTIONAL_YIELD);
+        writeNullableString(out, ((ExceptionalYield) yield).exceptionTypeName());
+      }
+    }
+  }
+
+  private static MethodBehavior readBehavior(DataInputStream in) throws IOException {
+    MethodBehavior behavior = new MethodBehavior(in.readUTF(), in.readBoolean());
+    boolean complete = in.readBoolean();
+    int declaredExceptionsCount = in.readInt();
+    List<String> declaredExceptions = new ArrayList<>(declaredExceptionsCount);
+    for (int i = 0; i < declaredExceptionsCount; i++) {
+      declaredExceptions.add(in.readUTF());
+    }
+    behavior.setDeclaredExceptions(declaredExceptions);
+    int yieldsCount = in.readInt();
+    for (int i = 0; i < yieldsCount; i++) {
+      int parametersCount = in.readInt();
+      List<ConstraintsByDomain> parametersConstraints = new ArrayList<>(parametersCount);
+      for (int j = 0; j < parametersCount; j++) {
+        parametersConstraints.add(readConstraints(in));
+      }
+      MethodYield yield;
+      if (in.readByte() == HAPPY_PATH_YIELD) {
+        HappyPathYield happyPathYield = new HappyPathYield(behavior);
+        happyPathYield.setResult(in.readInt(), readNullableConstraints(in));
+        yield = happyPathYield;
+      } else {
+        ExceptionalYield exceptionalYield = new ExceptionalYield(behavior);
+        exceptionalYield.setExceptionType(readNullableString(in));
+        yield = exceptionalYield;
+      }
+      yield.parametersConstraints = parametersConstraints;
+      behavior.yields.add(yield);
+    }
+    if (complete) {
+      behavior.completed();
+    } else {
+      behavior.visited();
+    }
+    return behavior;
+  }
+
+  private static void writeNullableConstraints(DataOutputStream out, @Nullable ConstraintsByDomain constraints) throws IOException {
+    out.writeBoolean(constraints != null);
+    if (constraints != null) {
+      writeConstraints(out, constraints);
+    }
+  }
+
+  @CheckForNull
+  private static ConstraintsByDomain readNullableConstraints(DataInputStream in) throws IOException {
+    return in.readBoolean() ? readConstraints(in) : null;
+  }
+
+  private static void writeConstraints(DataOutputStream out, ConstraintsByDomain constraints) throws IOException {
+    List<Constraint> constraintList = new ArrayList<>();
+    constraints.forEach((domain, constraint) -> constraintList.add(constraint));
+    out.writeInt(constraintList.size());
+    for (Constraint constraint : constraintList) {
+      if (constraint instanceof TypedConstraint) {
+        out.writeByte(TYPED_CONSTRAINT);
+        out.writeUTF(((TypedConstraint) constraint).type);
+      } else {
+        Enum<?> enumConstraint = (Enum<?>) constraint;
+        out.writeByte(ENUM_CONSTRAINT);
+        out.writeUTF(enumConstraint.getDeclaringClass().getName());
+        out.writeUTF(enumConstraint.name());
+      }
+    }
+  }
+
+  private static ConstraintsByDomain readConstraints(DataInputStream in) throws IOException {
+    ConstraintsByDomain constraints = ConstraintsByDomain.empty();
+    int count = in.readInt();
+    for (int i = 0; i < count; i++) {
+      if (in.readByte() == TYPED_CONSTRAINT) {
+        constraints = constraints.put(new TypedConstraint(in.readUTF()));
+      } else {
+        constraints = constraints.put(enumConstraint(in.readUTF(), in.readUTF()));
+      }
+    }
+    return constraints;
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Constraint enumConstraint(String className, String name) throws IOException {
+    try {
+      Class<?> domain = Class.forName(className, false, Constraint.class.getClassLoader());
+      if (domain.isEnum() && Constraint.class.isAssignableFrom(domain)) {
+        return (Constraint) Enum.valueOf((Class) domain, name);
+      }
+    } catch (ClassNotFoundException | IllegalArgumentException e) {
+      throw new IOException("Unknown constraint " + className + "." + name, e);
+    }
+    throw new IOException("Unknown constraint " + className);
+  }
+
+  private static void writeNullableString(DataOutputStream out, @Nullable String value) throws IOException {
+    out.writeBoolean(value != null);
+    if (value != null) {
+      out.writeUTF(value);
+    }
+  }
+
+  @CheckForNull
+  private static String readNullableString(DataInputStream in) throws IOException {
+    return in.readBoolean() ? in.readUTF() : null;
+  }
+
+  private static class StoredBehavior {
+    private final String checksum;
+    private final List<String> dependencies;
+    private final MethodBehavior behavior;
+
+    private StoredBehavior(String checksum, List<String> dependencies, MethodBehavior behavior) {
+      this.checksum = checksum;
+      this.dependencies = dependencies;
+      this.behavior = behavior;
+    }
+  }
+}
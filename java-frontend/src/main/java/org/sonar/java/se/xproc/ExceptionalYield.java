@@ -23,6 +23,7 @@ import java.util.List;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.CheckForNull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang.builder.EqualsBuilder;
 import org.apache.commons.lang.builder.HashCodeBuilder;
@@ -69,6 +70,11 @@ public class ExceptionalYield extends MethodYield {
     return type == null ? Symbols.unknownType : type;
   }
 
+  @CheckForNull
+  String exceptionTypeName() {
+    return exceptionType;
+  }
+
   @Override
   public String toString() {
     return String.format("{params: %s, exceptional%s}",
@@ -0,0 +1,12 @@
+class A {
+  void foo(Object o) {
+    if (o == null) {
+      o.toString();
+    }
+  }
+
+  void bar() {
+    Object o = null;
+    o.toString();
+  }
+}
@@ -0,0 +1,31 @@
+class A0 {
+
+  Object get() {
+    return new Object();
+  }
+
+  void bar() {
+  }
+
+  void test_reduced_steps(Object c) {
+    if (get() == get()) {
+      bar();
+    }
+    if (get() == get()) {
+      bar();
+    }
+    if (get() == get()) {
+      bar();
+    }
+    if (get() == get()) {
+      bar();
+    }
+    if (get() == get()) {
+      bar();
+    }
+    if (get() == get()) {
+      bar();
+    }
+    c.toString();
+  }
+}
@@ -0,0 +1,43 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import java.io.File;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AnalyzerVersionTest {
+
+  @Test
+  public void version_should_identify_the_code_of_a_class() throws Exception {
+    assertThat(AnalyzerVersion.of(AnalyzerVersion.class))
+      .isEqualTo(AnalyzerVersion.of(JavaConstants.class))
+      .contains("classes");
+
+    File junitJar = new File(Test.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    assertThat(AnalyzerVersion.of(Test.class))
+      .isNotEqualTo(AnalyzerVersion.of(AnalyzerVersion.class))
+      .endsWith(".jar " + junitJar.length() + " " + junitJar.lastModified());
+
+    // classes of the JDK have no code source
+    assertThat(AnalyzerVersion.of(String.class)).isEqualTo(String.valueOf(String.class.getPackage().getImplementationVersion()));
+  }
+}
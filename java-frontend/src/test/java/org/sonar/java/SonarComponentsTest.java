@@ -211,6 +211,18 @@ public class SonarComponentsTest {
     postTestExecutionChecks();
   }
 
+  @Test
+  public void analyzer_versions_should_include_the_code_of_custom_checks() {
+    JavaCheck expectedCheck = new CustomCheck();
+    when(this.checks.all()).thenReturn(Lists.newArrayList(expectedCheck)).thenReturn(new ArrayList<>());
+    SonarComponents sonarComponents = new SonarComponents(this.fileLinesContextFactory, null, null, null, this.checkFactory, new CheckRegistrar[] {
+      getRegistrar(expectedCheck)
+    });
+
+    assertThat(sonarComponents.analyzerVersions())
+      .contains(AnalyzerVersion.of(SonarComponents.class), AnalyzerVersion.of(CustomCheck.class));
+  }
+
   @Test
   public void no_issue_when_check_not_found() throws Exception {
     JavaCheck expectedCheck = new CustomCheck();
@@ -360,6 +372,29 @@ public class SonarComponentsTest {
     reset(inputFile);
   }
 
+  @Test
+  public void file_content_should_be_read_once_until_released() throws Exception {
+    File file = new File("src/test/files/Kanji.java");
+    DefaultInputFile inputFile = spy(new TestInputFileBuilder("", file.getPath())
+      .initMetadata(new String(java.nio.file.Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8))
+      .setCharset(StandardCharsets.UTF_8)
+      .build());
+    SensorContextTester context = SensorContextTester.create(new File(""));
+    context.fileSystem().add(inputFile);
+    SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null);
+    sonarComponents.setSensorContext(context);
+
+    SourceText sourceText = sonarComponents.sourceText(file);
+    assertThat(sonarComponents.fileContent(file)).isSameAs(sourceText.content());
+    assertThat(sonarComponents.fileLines(file)).containsExactlyElementsOf(sourceText.lines());
+    verify(inputFile, times(1)).contents();
+
+    sonarComponents.releaseSourceText(file);
+    assertThat(sonarComponents.sourceText(file)).isNotSameAs(sourceText);
+    verify(inputFile, times(2)).contents();
+    reset(inputFile);
+  }
+
   @Test
   public void io_error_when_reading_file_should_fail_analysis() {
     SensorContextTester context = SensorContextTester.create(new File(""));
@@ -453,6 +488,34 @@ public class SonarComponentsTest {
 
   }
 
+  @Test
+  public void analysis_threads_should_be_read_from_configuration() {
+    SensorContextTester sensorContext = SensorContextTester.create(new File(""));
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    sonarComponents.setSensorContext(sensorContext);
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(1);
+
+    sensorContext.settings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, 4);
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(4);
+
+    sensorContext.settings().setProperty(SonarComponents.ANALYSIS_THREADS_KEY, -2);
+    assertThat(sonarComponents.analysisThreads()).isEqualTo(1);
+  }
+
+  @Test
+  public void symbolic_execution_memory_per_method_should_be_unlimited_unless_configured() {
+    SensorContextTester sensorContext = SensorContextTester.create(new File(""));
+    SonarComponents sonarComponents = new SonarComponents(null, null, null, null, null);
+    sonarComponents.setSensorContext(sensorContext);
+    assertThat(sonarComponents.symbolicExecutionMaxMemoryPerMethod()).isEqualTo(Long.MAX_VALUE);
+
+    sensorContext.settings().setProperty(SonarComponents.SE_MAX_MEMORY_PER_METHOD_KEY, 16);
+    assertThat(sonarComponents.symbolicExecutionMaxMemoryPerMethod()).isEqualTo(16L * 1024 * 1024);
+
+    sensorContext.settings().setProperty(SonarComponents.SE_MAX_MEMORY_PER_METHOD_KEY, 0);
+    assertThat(sonarComponents.symbolicExecutionMaxMemoryPerMethod()).isEqualTo(Long.MAX_VALUE);
+  }
+
   @Test
   public void ucfg_activation_should_rely_on_active_rules() {
     File file = new File("src/test/files/ParseError.java");
@@ -0,0 +1,48 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java;
+
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SourceTextTest {
+
+  @Test
+  public void lines_should_be_split_like_scanner() {
+    assertThat(new SourceText("").lines()).isEmpty();
+    assertThat(new SourceText("a").lines()).containsExactly("a");
+    assertThat(new SourceText("a\n").lines()).containsExactly("a");
+    assertThat(new SourceText("a\n\n").lines()).containsExactly("a", "");
+    assertThat(new SourceText("\r\n").lines()).containsExactly("");
+    assertThat(new SourceText("a\r\nb\rc\u2028d\u2029e\u0085f").lines()).containsExactly("a", "b", "c", "d", "e", "f");
+    assertThat(new SourceText("a\r\r\nb").lines()).containsExactly("a", "", "b");
+  }
+
+  @Test
+  public void lines_should_be_shared() {
+    SourceText sourceText = new SourceText("class A {\n  int a;\n}\n");
+    assertThat(sourceText.lines().size()).isEqualTo(3);
+    assertThat(sourceText.lines().get(1)).isEqualTo("  int a;");
+    assertThat(sourceText.lines().get(1)).isSameAs(sourceText.lines().get(1));
+    assertThat(sourceText.content()).isEqualTo("class A {\n  int a;\n}\n");
+  }
+
+}
@@ -28,14 +28,17 @@ import com.sonar.sslr.api.typed.GrammarBuilder;
 import java.io.File;
 import java.io.InterruptedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import org.hamcrest.BaseMatcher;
 import org.hamcrest.Description;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.sonar.api.batch.fs.internal.DefaultFileSystem;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
@@ -81,6 +84,8 @@ public class JavaAstScannerTest {
   public ExpectedException thrown = ExpectedException.none();
   @Rule
   public LogTester logTester = new LogTester();
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
   SensorContextTester context;
   private DefaultFileSystem fs;
 
@@ -237,6 +242,55 @@ public class JavaAstScannerTest {
     verifyZeroInteractions(listener);
   }
 
+  @Test
+  public void parallel_scan_should_visit_largest_files_first() {
+    List<File> files = ImmutableList.of(
+      new File("src/test/files/metrics/Classes.java"),
+      new File("src/test/files/metrics/Comments.java"),
+      new File("src/test/resources/AstScannerParseError.txt"),
+      new File("src/test/files/metrics/Complexity.java"),
+      new File("src/test/files/metrics/Lines.java"));
+    List<File> visitedFiles = new ArrayList<>();
+    List<String> visitingThreads = new ArrayList<>();
+    JavaFileScanner visitor = context -> {
+      visitedFiles.add(context.getFile());
+      visitingThreads.add(Thread.currentThread().getName());
+    };
+    JavaAstScanner scanner = new JavaAstScanner(JavaParser.createParser(), null);
+    scanner.setParallelism(3, JavaParser::createParser);
+    scanner.setVisitorBridge(new VisitorsBridge(visitor));
+    scanner.scan(files);
+
+    List<File> largestFirst = new ArrayList<>(files);
+    largestFirst.sort((file1, file2) -> Long.compare(file2.length(), file1.length()));
+    assertThat(visitedFiles).containsExactlyElementsOf(largestFirst);
+    assertThat(visitingThreads).containsOnly(Thread.currentThread().getName());
+    assertThat(logTester.logs(LoggerLevel.ERROR)).contains("Unable to parse source file : " + files.get(2).getAbsolutePath());
+  }
+
+  @Test
+  public void files_should_be_ordered_by_decreasing_size() throws Exception {
+    File small = temporaryFolder.newFile("Small.java");
+    File large = temporaryFolder.newFile("Large.java");
+    File medium = temporaryFolder.newFile("Medium.java");
+    File otherSmall = temporaryFolder.newFile("OtherSmall.java");
+    Files.write(small.toPath(), "class Small {}".getBytes(StandardCharsets.UTF_8));
+    Files.write(otherSmall.toPath(), "class Small {}".getBytes(StandardCharsets.UTF_8));
+    Files.write(medium.toPath(), "class Medium { void m() {} }".getBytes(StandardCharsets.UTF_8));
+    Files.write(large.toPath(), "class Large { void m() {} void n() {} }".getBytes(StandardCharsets.UTF_8));
+
+    assertThat(JavaAstScanner.byDecreasingCost(ImmutableList.of(small, large, medium, otherSmall))).containsExactly(large, medium, small, otherSmall);
+  }
+
+  @Test
+  public void parallel_scan_should_propagate_SOError() {
+    thrown.expect(StackOverflowError.class);
+    JavaAstScanner scanner = defaultJavaAstScanner();
+    scanner.setParallelism(2, JavaParser::createParser);
+    scanner.setVisitorBridge(new VisitorsBridge(new CheckThrowingSOError()));
+    scanner.scan(ImmutableList.of(new File("src/test/files/metrics/Classes.java"), new File("src/test/files/metrics/Lines.java")));
+  }
+
   private static JavaAstScanner defaultJavaAstScanner() {
     return new JavaAstScanner(new ActionParser<>(StandardCharsets.UTF_8, FakeLexer.builder(), FakeGrammar.class, new FakeTreeFactory(), new JavaNodeBuilder(), FakeLexer.ROOT), null);
   }
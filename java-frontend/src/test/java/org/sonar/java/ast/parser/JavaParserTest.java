@@ -24,6 +24,7 @@ import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.CompilationUnitTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.fail;
@@ -40,6 +41,19 @@ public class JavaParserTest {
     assertThat(cut.parent()).isNull();
   }
 
+  @Test
+  public void token_texts_and_trivias_should_be_shared() {
+    CompilationUnitTree cut = (CompilationUnitTree) JavaParser.createParser().parse("class A {\n  // comment\n  int a; int b;\n}");
+    ClassTree classTree = (ClassTree) cut.types().get(0);
+    VariableTree a = (VariableTree) classTree.members().get(0);
+    VariableTree b = (VariableTree) classTree.members().get(1);
+    assertThat(a.type().firstToken().text()).isSameAs(b.type().firstToken().text());
+    assertThat(a.endToken().text()).isSameAs(b.endToken().text());
+    assertThat(a.type().firstToken().trivias()).hasSize(1);
+    assertThat(b.type().firstToken().trivias()).isEmpty();
+    assertThat(b.type().firstToken().trivias()).isSameAs(b.endToken().trivias());
+  }
+
   @Test
   public void receiver_type_should_be_parsed() throws Exception {
     try {
@@ -0,0 +1,87 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.parser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.apache.commons.io.FileUtils;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JavaScannersTest {
+
+  private static final String INTEGER_LITERAL_REGEXP = "(?:0[xX][0-9_a-fA-F]++|0[bB][01_]++|[0-9][0-9_]*+)";
+
+  @Test
+  public void scanners_should_match_like_regular_expressions() {
+    String[] samples = {
+      "", " \t\n\u000B\f\r x", "// comment\r\nfoo", "/* a * / b */ c", "/*/ x */", "/**/", "/* unclosed",
+      "'a'", "'\\''", "'\\\\'", "'\\", "'a", "\"\"", "\"a\\\"b\" c", "\"unclosed\\\"",
+      "foo_bar$1 x", "\uD801\uDC00\uD801\uDC01 x", "\uD801 x", "_", "1a", "$",
+      "0", "0x", "0xL", "0x1F_aL", "0b", "0b101l", "0b2", "0_7L", "123_456", "12l", "09", ".5", "1.5f"};
+    for (String sample : samples) {
+      assertSameMatches(sample);
+    }
+  }
+
+  @Test
+  public void scanners_should_match_like_regular_expressions_on_sources() throws IOException {
+    for (File file : FileUtils.listFiles(new File("src/test/files"), new String[] {"java"}, true)) {
+      assertSameMatches(FileUtils.readFileToString(file, StandardCharsets.UTF_8));
+    }
+  }
+
+  private static void assertSameMatches(String content) {
+    Matcher whitespace = Pattern.compile("\\s*+").matcher("");
+    Matcher inlineComment = Pattern.compile("//[^\\n\\r]*+").matcher("");
+    Matcher multilineComment = Pattern.compile("/\\*[\\s\\S]*?\\*\\/").matcher("");
+    Matcher identifier = Pattern.compile("\\p{javaJavaIdentifierStart}++\\p{javaJavaIdentifierPart}*+").matcher("");
+    Matcher identifierPart = Pattern.compile("\\p{javaJavaIdentifierPart}").matcher("");
+    Matcher characterLiteral = Pattern.compile("'([^'\\\\]*+(\\\\[\\s\\S])?+)*+'").matcher("");
+    Matcher stringLiteral = Pattern.compile("\"([^\"\\\\]*+(\\\\[\\s\\S])?+)*+\"").matcher("");
+    Matcher integerLiteral = Pattern.compile(INTEGER_LITERAL_REGEXP).matcher("");
+    Matcher longLiteral = Pattern.compile(INTEGER_LITERAL_REGEXP + "[lL]").matcher("");
+    Matcher floatingLiteralStart = Pattern.compile("[0-9]|\\.[0-9]").matcher("");
+    for (int offset = 0; offset <= content.length(); offset++) {
+      CharSequence input = CharBuffer.wrap(content, offset, content.length());
+      assertThat(JavaScanners.whitespace(input)).isEqualTo(match(whitespace, input));
+      assertThat(JavaScanners.inlineComment(input)).isEqualTo(match(inlineComment, input));
+      assertThat(JavaScanners.multilineComment(input)).isEqualTo(match(multilineComment, input));
+      assertThat(JavaScanners.identifier(input)).isEqualTo(match(identifier, input));
+      assertThat(JavaScanners.identifierPart(input)).isEqualTo(match(identifierPart, input));
+      assertThat(JavaScanners.characterLiteral(input)).isEqualTo(match(characterLiteral, input));
+      assertThat(JavaScanners.stringLiteral(input)).isEqualTo(match(stringLiteral, input));
+      assertThat(JavaScanners.integerLiteral(input)).isEqualTo(match(integerLiteral, input));
+      assertThat(JavaScanners.longLiteral(input)).isEqualTo(match(longLiteral, input));
+      assertThat(JavaScanners.floatingLiteralStart(input)).isEqualTo(match(floatingLiteralStart, input));
+    }
+  }
+
+  private static int match(Matcher matcher, CharSequence input) {
+    matcher.reset(input);
+    return matcher.lookingAt() ? matcher.end() : -1;
+  }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.ast.visitors;
+
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.Tree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SubscriptionVisitorsDispatcherTest {
+
+  private static final String CODE = "class A {\n"
+    + "  // comment\n"
+    + "  int foo(int a) {\n"
+    + "    if (a > 0) { return a; }\n"
+    + "    return new Object() { int bar() { return 1; } }.bar();\n"
+    + "  }\n"
+    + "}";
+
+  @Test
+  public void dispatched_visitors_should_see_same_events_as_standalone_visitors() {
+    JavaFileScannerContext context = context(CODE);
+
+    List<RecordingVisitor> standalone = visitors();
+    standalone.forEach(v -> v.scanFile(context));
+
+    List<RecordingVisitor> dispatched = visitors();
+    new SubscriptionVisitorsDispatcher(new ArrayList<>(dispatched), (v, e) -> {
+      throw e;
+    }).scanFile(context);
+
+    for (int i = 0; i < standalone.size(); i++) {
+      assertThat(dispatched.get(i).events).isNotEmpty().isEqualTo(standalone.get(i).events);
+      assertThat(dispatched.get(i).context()).isSameAs(context);
+    }
+  }
+
+  @Test
+  public void failing_visitor_should_not_prevent_others_to_be_dispatched() {
+    List<JavaFileScanner> failures = new ArrayList<>();
+    RecordingVisitor failing = new RecordingVisitor(Tree.Kind.METHOD) {
+      @Override
+      public void visitNode(Tree tree) {
+        super.visitNode(tree);
+        throw new IllegalStateException("boom");
+      }
+    };
+    RecordingVisitor other = new RecordingVisitor(Tree.Kind.METHOD, Tree.Kind.RETURN_STATEMENT);
+    SubscriptionVisitorsDispatcher dispatcher = new SubscriptionVisitorsDispatcher(Arrays.asList(failing, other), (v, e) -> failures.add(v));
+    dispatcher.scanFile(context(CODE));
+
+    assertThat(failures).containsExactly(failing);
+    // failing visitor is not called anymore on this file, not even leaveNode
+    assertThat(failing.events).containsExactly("visit METHOD");
+    assertThat(other.events).hasSize(10);
+
+    failures.clear();
+    dispatcher.scanFile(context(CODE));
+    assertThat(failures).containsExactly(failing);
+  }
+
+  @Test
+  public void only_visitors_with_default_traversal_can_be_dispatched() {
+    assertThat(SubscriptionVisitorsDispatcher.canBeDispatched(new RecordingVisitor(Tree.Kind.METHOD))).isTrue();
+    assertThat(SubscriptionVisitorsDispatcher.canBeDispatched(new RecordingVisitor(Tree.Kind.METHOD) {
+      @Override
+      public void scanFile(JavaFileScannerContext context) {
+        super.scanFile(context);
+      }
+    })).isFalse();
+    assertThat(SubscriptionVisitorsDispatcher.canBeDispatched(new RecordingVisitor(Tree.Kind.METHOD) {
+      @Override
+      protected void scanTree(Tree tree) {
+        super.scanTree(tree);
+      }
+    })).isFalse();
+    assertThat(SubscriptionVisitorsDispatcher.canBeDispatched(c -> { })).isFalse();
+  }
+
+  private static List<RecordingVisitor> visitors() {
+    return ImmutableList.of(
+      new RecordingVisitor(Tree.Kind.METHOD, Tree.Kind.IF_STATEMENT),
+      new RecordingVisitor(Tree.Kind.RETURN_STATEMENT, Tree.Kind.TOKEN),
+      new RecordingVisitor(Tree.Kind.TRIVIA),
+      new RecordingVisitor(Tree.Kind.TOKEN, Tree.Kind.TRIVIA, Tree.Kind.CLASS));
+  }
+
+  private static JavaFileScannerContext context(String code) {
+    JavaFileScannerContext context = mock(JavaFileScannerContext.class);
+    when(context.getTree()).thenReturn((CompilationUnitTree) JavaParser.createParser().parse(code));
+    return context;
+  }
+
+  private static class RecordingVisitor extends SubscriptionVisitor {
+    private final List<Tree.Kind> kinds;
+    final List<String> events = new ArrayList<>();
+
+    RecordingVisitor(Tree.Kind... kinds) {
+      this.kinds = Arrays.asList(kinds);
+    }
+
+    @Override
+    public List<Tree.Kind> nodesToVisit() {
+      return Collections.unmodifiableList(kinds);
+    }
+
+    @Override
+    public void visitNode(Tree tree) {
+      events.add("visit " + tree.kind());
+    }
+
+    @Override
+    public void leaveNode(Tree tree) {
+      events.add("leave " + tree.kind());
+    }
+
+    @Override
+    public void visitToken(SyntaxToken syntaxToken) {
+      events.add("token " + syntaxToken.text());
+    }
+
+    @Override
+    public void visitTrivia(SyntaxTrivia syntaxTrivia) {
+      events.add("trivia " + syntaxTrivia.comment());
+    }
+
+    JavaFileScannerContext context() {
+      return context;
+    }
+  }
+}
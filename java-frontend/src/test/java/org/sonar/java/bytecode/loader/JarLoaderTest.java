@@ -19,6 +19,8 @@
  */
 package org.sonar.java.bytecode.loader;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.commons.io.IOUtils;
 import org.junit.Rule;
 import org.junit.Test;
@@ -88,6 +90,32 @@ public class JarLoaderTest {
     loader.loadBytes("META-INF/MANIFEST.MF");
   }
 
+  @Test
+  public void testPackageNames() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    JarLoader loader = new JarLoader(jar);
+
+    assertThat(loader.packageNames()).containsOnly("META-INF", "org/sonar/tests", "META-INF/maven/org.sonar.tests/no-tests");
+
+    loader.close();
+  }
+
+  @Test
+  public void testLoadBytesWithCache() throws Exception {
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    Cache<String, byte[]> cache = CacheBuilder.newBuilder().build();
+    JarLoader loader = new JarLoader(jar, cache);
+
+    byte[] bytes = loader.loadBytes("org/sonar/tests/Hello.class");
+    assertThat(bytes).isNotEmpty();
+    assertThat(loader.loadBytes("org/sonar/tests/Hello.class")).isSameAs(bytes);
+    assertThat(loader.loadBytes("META-INF/MANIFEST.MF")).isNotEmpty();
+    assertThat(loader.loadBytes("notfound.class")).isEmpty();
+    assertThat(cache.asMap()).containsOnlyKeys(jar.getAbsolutePath() + "!/org/sonar/tests/Hello.class");
+
+    loader.close();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
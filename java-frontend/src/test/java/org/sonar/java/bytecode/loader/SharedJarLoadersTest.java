@@ -0,0 +1,65 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.loader;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SharedJarLoadersTest {
+
+  private static final List<File> CLASSPATH = Collections.singletonList(new File("src/test/files/bytecode/lib/hello.jar"));
+
+  @Test
+  public void jar_files_should_be_shared_between_class_loaders() {
+    SharedJarLoaders sharedJarLoaders = new SharedJarLoaders();
+    SquidClassLoader mainClassLoader = new SquidClassLoader(CLASSPATH, sharedJarLoaders);
+    SquidClassLoader testClassLoader = new SquidClassLoader(CLASSPATH, sharedJarLoaders);
+    assertThat(sharedJarLoaders.openedJars()).isEqualTo(1);
+
+    byte[] bytes = mainClassLoader.getBytesForClass("org.sonar.tests.Hello");
+    assertThat(bytes).isNotEmpty();
+    assertThat(sharedJarLoaders.cachedBytes()).isEqualTo(bytes.length);
+    assertThat(testClassLoader.getBytesForClass("org.sonar.tests.Hello")).isSameAs(bytes);
+
+    mainClassLoader.close();
+    mainClassLoader.close();
+    assertThat(sharedJarLoaders.openedJars()).isEqualTo(1);
+    assertThat(testClassLoader.getBytesForClass("org.sonar.tests.Hello")).isSameAs(bytes);
+    assertThat(testClassLoader.getResource("org/sonar/tests/Hello.class")).isNotNull();
+
+    testClassLoader.close();
+    assertThat(sharedJarLoaders.openedJars()).isZero();
+  }
+
+  @Test
+  public void cache_should_be_bounded_by_size_of_classes() {
+    SharedJarLoaders sharedJarLoaders = new SharedJarLoaders(10);
+    SquidClassLoader classLoader = new SquidClassLoader(CLASSPATH, sharedJarLoaders);
+    byte[] bytes = classLoader.getBytesForClass("org.sonar.tests.Hello");
+    assertThat(bytes).isNotEmpty();
+    assertThat(sharedJarLoaders.cachedBytes()).isZero();
+    assertThat(classLoader.getBytesForClass("org.sonar.tests.Hello")).isNotSameAs(bytes).isEqualTo(bytes);
+    classLoader.close();
+  }
+}
@@ -21,6 +21,7 @@ package org.sonar.java.bytecode.loader;
 
 import com.google.common.collect.Iterators;
 import java.io.File;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import org.apache.commons.io.IOUtils;
@@ -28,6 +29,7 @@ import org.junit.After;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
 import org.objectweb.asm.ClassReader;
 import org.objectweb.asm.Opcodes;
 import org.objectweb.asm.tree.ClassNode;
@@ -39,6 +41,9 @@ public class SquidClassLoaderTest {
   @Rule
   public ExpectedException thrown = ExpectedException.none();
 
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
   private SquidClassLoader classLoader;
 
   @After
@@ -132,6 +137,25 @@ public class SquidClassLoaderTest {
     assertThat(Iterators.forEnumeration(classLoader.findResources("notfound"))).hasSize(0);
   }
 
+  @Test
+  public void resources_should_be_looked_up_in_indexed_packages() throws Exception {
+    File dir = temp.newFolder();
+    Files.copy(new File("src/test/files/bytecode/bin/tags/TagName.class").toPath(), dir.toPath().resolve("TagName.class"));
+    File jar = new File("src/test/files/bytecode/lib/hello.jar");
+    classLoader = new SquidClassLoader(Arrays.asList(dir, jar));
+
+    assertThat(classLoader.getResource("org/sonar/tests/Hello.class")).isNotNull();
+    assertThat(classLoader.getResource("TagName.class")).isNotNull();
+    assertThat(classLoader.getResource("Unknown.class")).isNull();
+
+    // content of the classpath is not expected to change during analysis: packages are indexed once and missing resources are remembered
+    Files.copy(new File("src/test/files/bytecode/bin/tags/TagName.class").toPath(), dir.toPath().resolve("Unknown.class"));
+    assertThat(classLoader.getResource("Unknown.class")).isNull();
+    Files.createDirectories(dir.toPath().resolve("tags"));
+    Files.copy(new File("src/test/files/bytecode/bin/tags/TagName.class").toPath(), dir.toPath().resolve("tags/TagName.class"));
+    assertThat(classLoader.getResource("tags/TagName.class")).isNull();
+  }
+
   @Test
   public void closeCanBeCalledMultipleTimes() throws Exception {
     File jar = new File("src/test/files/bytecode/lib/hello.jar");
@@ -160,6 +184,22 @@ public class SquidClassLoaderTest {
     assertThat(bytes).isNull();
   }
 
+  @Test
+  public void class_structure_should_be_parsed_once() {
+    SquidClassLoader classLoader = new SquidClassLoader(Collections.singletonList(new File("target/test-classes")));
+    String className = getClass().getCanonicalName();
+    ClassNode classNode = classLoader.getClassStructure(className);
+    assertThat(classNode).isNotNull();
+    assertThat(classNode.name).isEqualTo("org/sonar/java/bytecode/loader/SquidClassLoaderTest");
+    assertThat(classNode.methods).isNotEmpty();
+    assertThat(classNode.methods.get(0).instructions.size()).isZero();
+    assertThat(classLoader.getClassStructure(className)).isSameAs(classNode);
+
+    assertThat(classLoader.getClassStructure("org.foo.Unknown")).isNull();
+    assertThat(classLoader.getClassStructure("org.foo.Unknown")).isNull();
+    classLoader.close();
+  }
+
   @Test
   public void test_loading_java9_class() throws Exception {
     SquidClassLoader classLoader = new SquidClassLoader(Collections.singletonList(new File("src/test/files/bytecode/java9/bin")));
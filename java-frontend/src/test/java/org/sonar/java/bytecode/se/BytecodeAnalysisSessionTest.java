@@ -0,0 +1,103 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.bytecode.se;
+
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.sonar.java.bytecode.cfg.BytecodeCFGMethodVisitor;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BytecodeAnalysisSessionTest {
+
+  private static final String TESTCLASS = "org.sonar.java.bytecode.cfg.testdata.MethodLookupTestData";
+
+  private final List<String> readClasses = new ArrayList<>();
+  private final SquidClassLoader squidClassLoader = new SquidClassLoader(Lists.newArrayList(new File("target/test-classes"), new File("target/classes"))) {
+    @Override
+    public byte[] getBytesForClass(String className) {
+      readClasses.add(className);
+      return super.getBytesForClass(className);
+    }
+  };
+  private final BytecodeAnalysisSession session = new BytecodeAnalysisSession(squidClassLoader);
+
+  @Test
+  public void lookups_should_be_resolved_once() {
+    MethodLookup lookup = session.lookup(TESTCLASS + "#methodDefinedInSuperClass()V");
+    assertThat(lookup).isNotNull();
+    assertThat(lookup.declaringClassName).isEqualTo("org.sonar.java.bytecode.cfg.testdata.SuperClass");
+    assertThat(session.lookup(TESTCLASS + "#methodDefinedInSuperClass()V")).isSameAs(lookup);
+    // lookups of the supertypes are shared
+    assertThat(session.lookup("org.sonar.java.bytecode.cfg.testdata.SuperClass#methodDefinedInSuperClass()V")).isSameAs(lookup);
+    assertThat(session.lookup(TESTCLASS + "#ifaceMethod2()V").declaringClassName).isEqualTo("org.sonar.java.bytecode.cfg.testdata.Iface2");
+  }
+
+  @Test
+  public void failed_lookups_should_be_resolved_once() {
+    assertThat(session.lookup(TESTCLASS + "#unknown()V")).isNull();
+    assertThat(session.lookup(TESTCLASS + "#unknown()V")).isNull();
+    assertThat(session.lookup("org.foo.Unknown#unknown()V")).isNull();
+    assertThat(session.lookup("org.foo.Unknown#unknown()V")).isNull();
+    assertThat(readClasses).containsOnlyOnce("org.foo.Unknown", "java.lang.Object");
+  }
+
+  @Test
+  public void class_should_be_parsed_once_for_all_its_methods() {
+    MethodLookup throwing = session.lookup(TESTCLASS + "#throwing()V");
+    BytecodeCFGMethodVisitor cfgVisitor = cfgVisitor();
+    session.visitMethod(TESTCLASS + "#throwing()V", throwing, cfgVisitor);
+    assertThat(cfgVisitor.getCfg()).isNotNull();
+
+    MethodLookup constructor = session.lookup(TESTCLASS + "#<init>()V");
+    BytecodeCFGMethodVisitor otherCfgVisitor = cfgVisitor();
+    session.visitMethod(TESTCLASS + "#<init>()V", constructor, otherCfgVisitor);
+    assertThat(otherCfgVisitor.getCfg()).isNotNull().isNotSameAs(cfgVisitor.getCfg());
+
+    // code is visited again from the same parse
+    BytecodeCFGMethodVisitor sameMethodVisitor = cfgVisitor();
+    session.visitMethod(TESTCLASS + "#throwing()V", throwing, sameMethodVisitor);
+    assertThat(sameMethodVisitor.getCfg().blocks()).hasSameSizeAs(cfgVisitor.getCfg().blocks());
+
+    assertThat(readClasses).containsExactly(TESTCLASS);
+  }
+
+  @Test
+  public void method_should_not_be_visited_when_visitor_does_not_require_it() {
+    MethodLookup throwing = session.lookup(TESTCLASS + "#throwing()V");
+    // CFG visitor only visits static methods
+    BytecodeCFGMethodVisitor cfgVisitor = new BytecodeCFGMethodVisitor();
+    session.visitMethod(TESTCLASS + "#throwing()V", throwing, cfgVisitor);
+    assertThat(cfgVisitor.getCfg()).isNull();
+  }
+
+  private static BytecodeCFGMethodVisitor cfgVisitor() {
+    return new BytecodeCFGMethodVisitor() {
+      @Override
+      public boolean shouldVisitMethod(int methodFlags, String methodSignature) {
+        return true;
+      }
+    };
+  }
+}
@@ -135,7 +135,7 @@ public class BytecodeEGWalkerExecuteTest {
     BehaviorCache behaviorCache = new BehaviorCache(classLoader);
     behaviorCache.setFileContext(null, semanticModel);
     BytecodeEGWalker walker = new BytecodeEGWalker(behaviorCache, semanticModel);
-    MethodBehavior methodBehavior = walker.getMethodBehavior("org.apache.commons.io.FileUtils#readFileToString(Ljava/io/File;)Ljava/lang/String;", classLoader);
+    MethodBehavior methodBehavior = walker.getMethodBehavior("org.apache.commons.io.FileUtils#readFileToString(Ljava/io/File;)Ljava/lang/String;");
     assertThat(methodBehavior.happyPathYields().collect(Collectors.toList())).hasSize(1);
     assertThat(methodBehavior.exceptionalPathYields().collect(Collectors.toList())).hasSize(2);
   }
@@ -1253,7 +1253,7 @@ public class BytecodeEGWalkerExecuteTest {
     IllegalStateException ex = new IllegalStateException();
     doThrow(ex).when(walkerSpy).executeInstruction(any());
 
-    assertThatThrownBy(() -> walkerSpy.getMethodBehavior("java.lang.String#valueOf(Z)Ljava/lang/String;", squidClassLoader))
+    assertThatThrownBy(() -> walkerSpy.getMethodBehavior("java.lang.String#valueOf(Z)Ljava/lang/String;"))
       .isInstanceOf(BytecodeEGWalker.BytecodeAnalysisException.class)
       .hasMessage("Failed dataflow analysis for java.lang.String#valueOf(Z)Ljava/lang/String;")
       .hasCause(ex);
@@ -1261,7 +1261,7 @@ public class BytecodeEGWalkerExecuteTest {
 
   @Test
   public void method_returning_new_should_have_not_null_result() {
-    MethodBehavior mb = walker.getMethodBehavior(BytecodeEGWalkerExecuteTest.class.getCanonicalName() + "#newObject()Ljava/lang/Object;", squidClassLoader);
+    MethodBehavior mb = walker.getMethodBehavior(BytecodeEGWalkerExecuteTest.class.getCanonicalName() + "#newObject()Ljava/lang/Object;");
     List<MethodYield> yields = mb.yields();
     assertThat(yields).hasSize(1);
     MethodYield yield = yields.get(0);
@@ -1275,14 +1275,14 @@ public class BytecodeEGWalkerExecuteTest {
 
   @Test
   public void behavior_should_have_declared_exceptions() {
-    MethodBehavior mb = walker.getMethodBehavior(BytecodeEGWalkerExecuteTest.class.getCanonicalName() + "#throwing()V", squidClassLoader);
+    MethodBehavior mb = walker.getMethodBehavior(BytecodeEGWalkerExecuteTest.class.getCanonicalName() + "#throwing()V");
     assertThat(mb.isComplete()).isFalse();
     assertThat(mb.getDeclaredExceptions()).containsExactly("java.io.IOException");
   }
 
   @Test
   public void exceptional_paths_should_be_enqueued() {
-    MethodBehavior mb = walker.getMethodBehavior(BytecodeEGWalkerExecuteTest.class.getCanonicalName() + "#enqueue_exceptional_paths(Lorg/sonar/java/bytecode/se/BytecodeEGWalkerExecuteTest;)Ljava/lang/Object;", squidClassLoader);
+    MethodBehavior mb = walker.getMethodBehavior(BytecodeEGWalkerExecuteTest.class.getCanonicalName() + "#enqueue_exceptional_paths(Lorg/sonar/java/bytecode/se/BytecodeEGWalkerExecuteTest;)Ljava/lang/Object;");
     assertThat(mb.yields()).hasSize(2);
     List<Constraint> resultConstraints = mb.yields().stream().map(y -> ((HappyPathYield) y).resultConstraint()).map(c -> c.get(ObjectConstraint.class)).collect(Collectors.toList());
     assertThat(resultConstraints).contains(ObjectConstraint.NOT_NULL, ObjectConstraint.NULL);
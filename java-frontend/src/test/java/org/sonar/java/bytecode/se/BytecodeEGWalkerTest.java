@@ -181,7 +181,7 @@ public class BytecodeEGWalkerTest {
   @Test
   public void method_array() throws Exception {
     BytecodeEGWalker walker = getBytecodeEGWalker(squidClassLoader);
-    MethodBehavior behavior = walker.getMethodBehavior("java.lang.Class[]#clone()Ljava/lang/Object;", squidClassLoader);
+    MethodBehavior behavior = walker.getMethodBehavior("java.lang.Class[]#clone()Ljava/lang/Object;");
     assertThat(behavior).isNull();
   }
 
@@ -321,7 +321,7 @@ public class BytecodeEGWalkerTest {
   }
 
   private static MethodBehavior getMethodBehavior(Class<?> clazz, String signature, BytecodeEGWalker walker) {
-    return walker.getMethodBehavior(clazz.getCanonicalName() + "#" + signature, squidClassLoader);
+    return walker.getMethodBehavior(clazz.getCanonicalName() + "#" + signature);
   }
 
   private static BytecodeEGWalker getBytecodeEGWalker(SquidClassLoader squidClassLoader) {
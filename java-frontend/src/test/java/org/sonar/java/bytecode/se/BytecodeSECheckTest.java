@@ -300,7 +300,7 @@ public class BytecodeSECheckTest implements BytecodeSECheck {
   @Test
   public void method_with_numerical_operations() throws Exception {
     BytecodeEGWalker walker = getEGWalker();
-    MethodBehavior behavior = walker.getMethodBehavior("org.sonar.java.bytecode.se.BytecodeSECheckTest#foo(II)I", squidClassLoader);
+    MethodBehavior behavior = walker.getMethodBehavior("org.sonar.java.bytecode.se.BytecodeSECheckTest#foo(II)I");
 
     assertThat(behavior).isNotNull();
     assertThat(behavior.yields()).hasSize(3);
@@ -0,0 +1,187 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.collections;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class HashTrieTest {
+
+  private static final class Key {
+    private final int hashCode;
+    private final String toString;
+
+    private Key(int hashCode, String toString) {
+      this.hashCode = hashCode;
+      this.toString = toString;
+    }
+
+    @Override
+    public final int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public final String toString() {
+      return toString;
+    }
+  }
+
+  @Test
+  public void test_empty() {
+    HashTrie<String, String> t = HashTrie.create();
+    assertThat(t).as("singleton").isSameAs(HashTrie.create());
+    assertThat(t.isEmpty()).isTrue();
+    assertThat(t.get("anything")).isNull();
+    assertThat(t.remove("anything")).isSameAs(t);
+    assertThat(t.toString()).isEqualTo("");
+    assertThat(t.hashCode()).isEqualTo(0);
+  }
+
+  @Test
+  public void no_change() {
+    HashTrie<String, String> t = HashTrie.<String, String>create().put("1", "1");
+    assertThat(t.put("1", "1")).isSameAs(t);
+    assertThat(t.remove("3")).isSameAs(t);
+    assertThat(t.add("1")).isSameAs(t);
+    assertThat(t.remove("1")).isSameAs(HashTrie.create());
+  }
+
+  @Test
+  public void collisions() {
+    Object k1 = new Key(42, "k1");
+    Object k2 = new Key(42, "k2");
+    Object k3 = new Key(42, "k3");
+    HashTrie<Object, Object> t = HashTrie.create()
+      .put(k1, "v1")
+      .put(k2, "v2");
+    HashTrie<Object, Object> t2 = HashTrie.create()
+      .put(k2, "v2")
+      .put(k1, "v1");
+
+    assertThat(t.size()).isEqualTo(2);
+    assertThat(t).isEqualTo(t2);
+    assertThat(t2).isEqualTo(t);
+    assertThat(t.hashCode())
+      .isEqualTo(((31 * k1.hashCode()) ^ "v1".hashCode()) + ((31 * k2.hashCode()) ^ "v2".hashCode()))
+      .isEqualTo(t2.hashCode());
+
+    assertThat(t.get(k1)).isEqualTo("v1");
+    assertThat(t.get(k2)).isEqualTo("v2");
+    assertThat(t.get(k3)).isNull();
+    assertThat(t.put(k1, "v1")).isSameAs(t);
+    assertThat(t.put(k1, "new v1").get(k1)).isEqualTo("new v1");
+    assertThat(t.put(k3, "v3").size()).isEqualTo(3);
+    assertThat(t.remove(k3)).isSameAs(t);
+    assertThat(t.remove(k1).toString()).isEqualTo(" k2->v2");
+    assertThat(t.remove(k1)).isEqualTo(HashTrie.create().put(k2, "v2"));
+    assertThat(t.remove(k1).remove(k2)).isSameAs(HashTrie.create());
+
+    HashMap<Object, Object> entries = new HashMap<>();
+    t.forEach((k, v) -> assertThat(entries.put(k, v)).as("unique key-value").isNull());
+    assertThat(entries).isEqualTo(ImmutableMap.of(k1, "v1", k2, "v2"));
+
+    HashSet<Object> keys = new HashSet<>();
+    t.forEach(k -> assertThat(keys.add(k)).as("unique key").isTrue());
+    assertThat(keys).containsOnly(k1, k2);
+  }
+
+  @Test
+  public void toString_should_be_ordered_by_hash_codes() {
+    HashTrie<Object, Object> t = HashTrie.create()
+      .add(new Key(-1, "a"))
+      .add(new Key(33, "b"))
+      .add(new Key(1, "c"));
+    assertThat(t.toString()).isEqualTo(" a->a c->c b->b");
+  }
+
+  @Test
+  public void equals_should_not_depend_on_order_of_operations() {
+    // keys sharing their lowest bits end up in sub-nodes
+    Object o1 = new Key(1, "o1");
+    Object o2 = new Key(1 + 32, "o2");
+    Object o3 = new Key(1 + 32 * 32, "o3");
+    Object o4 = new Key(2, "o4");
+    HashTrie<Object, Object> t1 = HashTrie.create().add(o1).add(o2).add(o3).add(o4);
+    HashTrie<Object, Object> t2 = HashTrie.create().add(o4).add(o3).add(o2).add(o1);
+    assertThat(t1).isEqualTo(t2);
+    assertThat(t1.hashCode()).isEqualTo(t2.hashCode());
+
+    HashTrie<Object, Object> t3 = HashTrie.create().add(o1).add(o4);
+    assertThat(t1.remove(o2).remove(o3)).as("sub-nodes should be compacted").isEqualTo(t3);
+    assertThat(t3).isEqualTo(t1.remove(o2).remove(o3));
+    assertThat(t1).isNotEqualTo(t3);
+
+    Object o5 = new Key(0, "o5");
+    assertThat(t3.add(o5).hashCode()).isEqualTo(t3.hashCode());
+    assertThat(t3.add(o5)).isNotEqualTo(t3);
+  }
+
+  @Test
+  public void should_behave_like_avl_tree() {
+    Random random = new Random(42);
+    List<Key> keys = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      // small range of hash codes to get collisions and deep sub-nodes
+      keys.add(new Key(random.nextBoolean() ? random.nextInt(64) : random.nextInt(), "k" + i));
+    }
+    HashTrie<Key, Integer> trie = HashTrie.create();
+    AVLTree<Key, Integer> tree = AVLTree.create();
+    Map<Key, Integer> expected = new HashMap<>();
+    for (int i = 0; i < 10_000; i++) {
+      Key key = keys.get(random.nextInt(keys.size()));
+      if (random.nextInt(3) == 0) {
+        trie = trie.remove(key);
+        tree = tree.remove(key);
+        expected.remove(key);
+      } else {
+        Integer value = random.nextInt(3);
+        trie = trie.put(key, value);
+        tree = tree.put(key, value);
+        expected.put(key, value);
+      }
+      assertThat(trie.size()).isEqualTo(expected.size());
+      assertThat(trie.hashCode()).isEqualTo(tree.hashCode());
+      assertThat(trie.get(key)).isEqualTo(expected.get(key));
+    }
+    Map<Key, Integer> actual = new HashMap<>();
+    trie.forEach(actual::put);
+    assertThat(actual).isEqualTo(expected);
+
+    List<Map.Entry<Key, Integer>> entries = new ArrayList<>(expected.entrySet());
+    Collections.shuffle(entries, random);
+    HashTrie<Key, Integer> rebuilt = HashTrie.create();
+    for (Map.Entry<Key, Integer> entry : entries) {
+      rebuilt = rebuilt.put(entry.getKey(), entry.getValue());
+    }
+    assertThat(rebuilt).isEqualTo(trie);
+  }
+
+}
@@ -0,0 +1,315 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.incremental;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.java.AnalyzerMessage;
+import org.sonar.plugins.java.api.JavaCheck;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class IncrementalAnalysisStoreTest {
+
+  private static final RuleKey RULE_KEY = RuleKey.of("squid", "S1234");
+  private static final JavaCheck CHECK = new JavaCheck() {
+  };
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private File storeFile;
+  private File baseDir;
+  private File file;
+  private String fingerprint;
+
+  @Before
+  public void setUp() throws Exception {
+    baseDir = temp.newFolder("base");
+    storeFile = new File(temp.getRoot(), IncrementalAnalysisStore.FILE_NAME);
+    file = new File(baseDir, "src/A.java");
+    Collection<ActiveRule> activeRules = new ActiveRulesBuilder().create(RULE_KEY).activate().build().findAll();
+    fingerprint = IncrementalAnalysisStore.configurationFingerprint(activeRules, Collections.emptyList(), "8");
+  }
+
+  @Test
+  public void issues_of_unchanged_files_should_be_replayed() {
+    IncrementalAnalysisStore store = load(fingerprint);
+    assertThat(store.startFile(file, "class A {}")).isNull();
+    AnalyzerMessage message = new AnalyzerMessage(CHECK, file, new AnalyzerMessage.TextSpan(1, 0, 1, 5), "message", 3);
+    message.flows.add(Collections.singletonList(new AnalyzerMessage(CHECK, file, new AnalyzerMessage.TextSpan(1), "secondary", 0)));
+    store.record(file, StoredIssue.of(RULE_KEY, message));
+    store.record(new File(baseDir, "src/B.java"), StoredIssue.of(RULE_KEY, message));
+    endFile(store);
+    store.record(file, StoredIssue.of(RULE_KEY, message));
+    store.save();
+
+    store = load(fingerprint);
+    List<StoredIssue> issues = store.startFile(file, "class A {}");
+    assertThat(issues).hasSize(1);
+    assertThat(issues.get(0).ruleKey()).isEqualTo(RULE_KEY);
+    AnalyzerMessage replayed = issues.get(0).toAnalyzerMessage(CHECK, file);
+    assertThat(replayed.getCheck()).isSameAs(CHECK);
+    assertThat(replayed.getFile()).isEqualTo(file);
+    assertThat(replayed.getMessage()).isEqualTo("message");
+    assertThat(replayed.getCost()).isEqualTo(3.0);
+    assertThat(replayed.primaryLocation()).hasToString("(1:0)-(1:5)");
+    assertThat(replayed.flows).hasSize(1);
+    assertThat(replayed.flows.get(0)).hasSize(1);
+    assertThat(replayed.flows.get(0).get(0).getMessage()).isEqualTo("secondary");
+    assertThat(replayed.flows.get(0).get(0).primaryLocation().onLine()).isTrue();
+    // replayed issues are reported again, they should not be recorded twice
+    store.record(file, StoredIssue.of(RULE_KEY, replayed));
+    endFile(store);
+    store.save();
+
+    assertThat(load(fingerprint).startFile(file, "class A {}")).hasSize(1);
+  }
+
+  @Test
+  public void changed_files_should_be_analyzed_again() {
+    IncrementalAnalysisStore store = load(fingerprint);
+    store.startFile(file, "class A {}");
+    endFile(store);
+    store.save();
+
+    store = load(fingerprint);
+    assertThat(store.startFile(file, "class A { }")).isNull();
+    endFile(store);
+    assertThat(store.startFile(new File(baseDir, "src/B.java"), "class A {}")).isNull();
+  }
+
+  @Test
+  public void previous_results_should_be_ignored_when_configuration_changed() throws Exception {
+    IncrementalAnalysisStore store = load(fingerprint);
+    store.startFile(file, "class A {}");
+    endFile(store);
+    store.save();
+
+    String otherFingerprint = IncrementalAnalysisStore.configurationFingerprint(Collections.emptyList(), Collections.emptyList(), "8");
+    assertThat(otherFingerprint).isNotEqualTo(fingerprint);
+    assertThat(load(otherFingerprint).startFile(file, "class A {}")).isNull();
+
+    File jar = temp.newFile("lib.jar");
+    String withJar = IncrementalAnalysisStore.configurationFingerprint(Collections.emptyList(), Collections.singletonList(jar), "8");
+    assertThat(withJar).isNotEqualTo(otherFingerprint);
+    Files.write(jar.toPath(), new byte[] {1, 2, 3});
+    assertThat(IncrementalAnalysisStore.configurationFingerprint(Collections.emptyList(), Collections.singletonList(jar), "8")).isNotEqualTo(withJar);
+  }
+
+  @Test
+  public void compiled_classes_should_be_identified_by_their_content() throws Exception {
+    File classes = temp.newFolder("classes");
+    File classFile = new File(classes, "org/foo/A$B.class");
+    classFile.getParentFile().mkdirs();
+    Files.write(classFile.toPath(), new byte[] {1, 2, 3});
+    String fingerprintWithClasses = IncrementalAnalysisStore.configurationFingerprint(Collections.emptyList(), Collections.singletonList(classes), "8");
+    Map<String, String> compiledClasses = IncrementalAnalysisStore.compiledClasses(Collections.singletonList(classes));
+    assertThat(compiledClasses).containsOnlyKeys("org.foo.A$B");
+    assertThat(IncrementalAnalysisStore.compiledClasses(Collections.singletonList(classes))).isEqualTo(compiledClasses);
+    Files.write(classFile.toPath(), new byte[] {1, 2, 4});
+    assertThat(IncrementalAnalysisStore.compiledClasses(Collections.singletonList(classes))).isNotEqualTo(compiledClasses);
+    // directories of compiled classes are not part of the configuration
+    assertThat(IncrementalAnalysisStore.configurationFingerprint(Collections.emptyList(), Collections.singletonList(classes), "8")).isEqualTo(fingerprintWithClasses);
+  }
+
+  @Test
+  public void only_dependents_of_changed_types_should_be_analyzed_again() {
+    File a = new File(baseDir, "src/A.java");
+    File b = new File(baseDir, "src/B.java");
+    File c = new File(baseDir, "src/C.java");
+    Map<File, String> contents = new HashMap<>();
+    contents.put(a, "class A {}");
+    contents.put(b, "class B { A a; }");
+    contents.put(c, "class C {}");
+    IncrementalAnalysisStore store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    analyze(store, a, contents, set("A"), set("A"));
+    analyze(store, b, contents, set("B"), set("A", "B"));
+    analyze(store, c, contents, set("C"), set("C", "java.lang.String"));
+    store.save();
+
+    store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(a, contents.get(a))).isEmpty();
+    assertThat(store.startFile(b, contents.get(b))).isEmpty();
+    assertThat(store.startFile(c, contents.get(c))).isEmpty();
+
+    contents.put(a, "class A { int i; }");
+    store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(a, contents.get(a))).isNull();
+    assertThat(store.startFile(b, contents.get(b))).isNull();
+    assertThat(store.startFile(c, contents.get(c))).isEmpty();
+  }
+
+  @Test
+  public void dependents_of_subtypes_of_changed_types_should_be_analyzed_again() {
+    File a = new File(baseDir, "src/A.java");
+    File b = new File(baseDir, "src/B.java");
+    File c = new File(baseDir, "src/C.java");
+    File d = new File(baseDir, "src/D.java");
+    File e = new File(baseDir, "src/E.java");
+    Map<File, String> contents = new HashMap<>();
+    contents.put(a, "class A {}");
+    contents.put(b, "class B extends A {}");
+    contents.put(c, "class C extends B {}");
+    contents.put(d, "class D { void foo() { new B(); } }");
+    contents.put(e, "class E { void foo() { new C(); } }");
+    IncrementalAnalysisStore store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    analyze(store, a, contents, set("A"), set("A"));
+    analyze(store, b, contents, set("B"), set("A"), set("A", "B"));
+    analyze(store, c, contents, set("C"), set("B"), set("B", "C"));
+    analyze(store, d, contents, set("D"), set("B", "D"));
+    analyze(store, e, contents, set("E"), set("C", "E"));
+    store.save();
+
+    // D and E do not reference A, but the instances of B and C they create are now resources
+    contents.put(a, "class A implements AutoCloseable { public void close() {} }");
+    store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(a, contents.get(a))).isNull();
+    assertThat(store.startFile(b, contents.get(b))).isNull();
+    assertThat(store.startFile(c, contents.get(c))).isNull();
+    assertThat(store.startFile(d, contents.get(d))).isNull();
+    assertThat(store.startFile(e, contents.get(e))).isNull();
+  }
+
+  @Test
+  public void only_subtypes_of_changed_types_should_inherit_their_changes() {
+    File a = new File(baseDir, "src/A.java");
+    File b = new File(baseDir, "src/B.java");
+    File d = new File(baseDir, "src/D.java");
+    Map<File, String> contents = new HashMap<>();
+    contents.put(a, "class A {}");
+    contents.put(b, "class B { A a; }");
+    contents.put(d, "class D { void foo() { new B(); } }");
+    IncrementalAnalysisStore store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    analyze(store, a, contents, set("A"), set("A"));
+    analyze(store, b, contents, set("B"), set("A", "B"));
+    analyze(store, d, contents, set("D"), set("B", "D"));
+    store.save();
+
+    contents.put(a, "class A implements AutoCloseable { public void close() {} }");
+    store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(b, contents.get(b))).isNull();
+    assertThat(store.startFile(d, contents.get(d))).isEmpty();
+  }
+
+  @Test
+  public void dependents_of_changed_compiled_classes_should_be_analyzed_again() {
+    Map<File, String> contents = Collections.singletonMap(file, "class A {}");
+    IncrementalAnalysisStore store = IncrementalAnalysisStore.load(storeFile, baseDir, fingerprint, Collections.singletonMap("org.foo.Lib$Inner", "1"));
+    store.invalidate(contents.keySet(), contents::get);
+    analyze(store, file, contents, set("A"), set("A", "org.foo.Lib"));
+    store.save();
+
+    store = IncrementalAnalysisStore.load(storeFile, baseDir, fingerprint, Collections.singletonMap("org.foo.Lib$Inner", "1"));
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(file, "class A {}")).isEmpty();
+
+    store = IncrementalAnalysisStore.load(storeFile, baseDir, fingerprint, Collections.singletonMap("org.foo.Lib$Inner", "2"));
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(file, "class A {}")).isNull();
+  }
+
+  @Test
+  public void new_and_removed_files_should_invalidate_their_dependents() {
+    File b = new File(baseDir, "src/B.java");
+    File c = new File(baseDir, "src/C.java");
+    Map<File, String> contents = new HashMap<>();
+    contents.put(file, "class A {}");
+    contents.put(b, "class B { A a; }");
+    contents.put(c, "class C { Unknown u; }");
+    IncrementalAnalysisStore store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    analyze(store, file, contents, set("A"), set("A"));
+    analyze(store, b, contents, set("B"), set("A", "B", "org.bar.D"));
+    store.startFile(c, contents.get(c));
+    store.endFile(set("C"), set(), set("C"), false);
+    store.save();
+
+    // new file D may shadow org.bar.D, and resolve unknown types of C
+    File d = new File(baseDir, "src/D.java");
+    contents.put(d, "class D {}");
+    store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(file, contents.get(file))).isEmpty();
+    analyze(store, b, contents, set("B"), set("A", "B"));
+    analyze(store, c, contents, set("C"), set("C"));
+    analyze(store, d, contents, set("D"), set("D"));
+    store.save();
+
+    contents.remove(file);
+    store = load(fingerprint);
+    store.invalidate(contents.keySet(), contents::get);
+    assertThat(store.startFile(b, contents.get(b))).isNull();
+    assertThat(store.startFile(c, contents.get(c))).isEmpty();
+  }
+
+  @Test
+  public void corrupted_store_should_be_ignored() throws Exception {
+    Files.write(storeFile.toPath(), "not a store".getBytes(StandardCharsets.UTF_8));
+    IncrementalAnalysisStore store = load(fingerprint);
+    assertThat(store.startFile(file, "class A {}")).isNull();
+  }
+
+  private IncrementalAnalysisStore load(String fingerprint) {
+    return IncrementalAnalysisStore.load(storeFile, baseDir, fingerprint, Collections.emptyMap());
+  }
+
+  private static void endFile(IncrementalAnalysisStore store) {
+    store.endFile(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), true);
+  }
+
+  private static void analyze(IncrementalAnalysisStore store, File file, Map<File, String> contents, Set<String> declaredTypes, Set<String> referencedTypes) {
+    analyze(store, file, contents, declaredTypes, Collections.emptySet(), referencedTypes);
+  }
+
+  private static void analyze(IncrementalAnalysisStore store, File file, Map<File, String> contents, Set<String> declaredTypes, Set<String> supertypes,
+    Set<String> referencedTypes) {
+    assertThat(store.startFile(file, contents.get(file))).isNull();
+    store.endFile(declaredTypes, supertypes, referencedTypes, true);
+  }
+
+  private static Set<String> set(String... types) {
+    return new HashSet<>(Arrays.asList(types));
+  }
+
+}
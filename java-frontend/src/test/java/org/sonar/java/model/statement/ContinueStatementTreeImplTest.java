@@ -57,6 +57,6 @@ public class ContinueStatementTreeImplTest {
   }
 
   private static InternalSyntaxToken createToken(String value) {
-    return new InternalSyntaxToken(1, 1, value, Lists.newArrayList(), 0, 0, false);
+    return new InternalSyntaxToken(1, 1, value, Lists.newArrayList(), 0, false);
   }
 }
@@ -201,6 +201,25 @@ public class JavaTypeTest {
     assertThat(arrayDirectSuperTypes.stream().map(st -> st.fullyQualifiedName())).contains("java.lang.Object", "java.lang.Cloneable", "java.io.Serializable");
   }
 
+  @Test
+  public void super_types_should_be_computed_once() {
+    ClassJavaType integerType = (ClassJavaType) symbols.intType.primitiveWrapperType;
+    assertThat(integerType.superTypes()).isSameAs(integerType.superTypes());
+    assertThat(integerType.getSymbol().superTypeNames()).contains("java.lang.Number", "java.lang.Comparable", "java.io.Serializable", "java.lang.Object");
+    assertThat(integerType.getSymbol().superTypeNames()).isSameAs(integerType.getSymbol().superTypeNames());
+
+    assertThat(integerType.isSubtypeOf("java.io.Serializable")).isTrue();
+    assertThat(integerType.isSubtypeOf("java.lang.Integer")).isTrue();
+    assertThat(integerType.isSubtypeOf("java.lang.CharSequence")).isFalse();
+    assertThat(integerType.isSubtypeOf(symbols.objectType)).isTrue();
+    assertThat(integerType.isSubtypeOf(symbols.stringType)).isFalse();
+    assertThat(symbols.objectType.isSubtypeOf(integerType)).isFalse();
+
+    JavaType comparableOfInteger = integerType.getSymbol().getInterfaces().stream().filter(t -> t.is("java.lang.Comparable")).findFirst().get();
+    assertThat(integerType.isSubtypeOf(comparableOfInteger)).isTrue();
+    assertThat(integerType.isSubtypeOf(comparableOfInteger.erasure())).isTrue();
+  }
+
   @Test
   public void is_primitive_wrapper() {
     for (JavaType wrapper : symbols.boxedTypes.values()) {
@@ -632,6 +632,36 @@ public class TypeAndReferenceSolverTest {
   private static final String NULL = "null";
   private static final String STRING = "\"string\"";
 
+  @Test
+  public void referenced_types_should_be_top_level_classes() {
+    CompilationUnitTree tree = parse("package org.foo;\n"
+      + "import java.util.List;\n"
+      + "class A {\n"
+      + "  class Inner {}\n"
+      + "  void m(List<String> list) {\n"
+      + "    Inner inner = new Inner();\n"
+      + "    list.size();\n"
+      + "    Runnable r = () -> { class Local {} new Local(); };\n"
+      + "    java.util.Map.Entry<String, String> entry = null;\n"
+      + "  }\n"
+      + "}");
+    SemanticModel semanticModel = SemanticModel.createFor(tree, new SquidClassLoader(Collections.emptyList()));
+    assertThat(semanticModel.referencedTypes())
+      .contains("org.foo.A", "java.util.List", "java.lang.String", "java.lang.Runnable", "java.util.Map")
+      .doesNotContain("org.foo.A.Inner", "org.foo.A$Inner", "java.util.Map.Entry", "java.util.Map$Entry");
+  }
+
+  @Test
+  public void supertypes_should_be_top_level_classes() {
+    CompilationUnitTree tree = treeOf("package org.foo;\n"
+      + "class A extends java.util.AbstractList<String> {\n"
+      + "  class Inner implements java.util.Map.Entry<String, String>, Unknown {}\n"
+      + "}");
+    ClassTree classTree = (ClassTree) tree.types().get(0);
+    assertThat(SemanticModel.supertypes(Collections.singletonList(classTree.symbol())))
+      .containsExactly("java.lang.Object", "java.util.AbstractList", "java.util.Map");
+  }
+
   private CompilationUnitTree treeOf(String input) {
     CompilationUnitTree tree = parse(input);
     SemanticModel.createFor(tree, new SquidClassLoader(Collections.emptyList()));
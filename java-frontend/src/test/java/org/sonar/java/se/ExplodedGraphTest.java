@@ -19,7 +19,11 @@
  */
 package org.sonar.java.se;
 
+import java.util.ArrayList;
+import java.util.List;
 import org.junit.Test;
+import org.sonar.java.se.constraint.ObjectConstraint;
+import org.sonar.java.se.symbolicvalues.SymbolicValue;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
@@ -54,6 +58,95 @@ public class ExplodedGraphTest {
     assertThat(child.parents()).hasSize(2);
   }
 
+  @Test
+  public void equal_states_should_lead_to_the_same_node() {
+    ExplodedGraph eg = new ExplodedGraph();
+    SymbolicValue sv = new SymbolicValue();
+    ProgramState ps1 = ProgramState.EMPTY_STATE.stackValue(sv);
+    ProgramState ps2 = ProgramState.EMPTY_STATE.stackValue(sv);
+    assertThat(ps1).isNotSameAs(ps2);
+
+    ProgramPoint programPoint = mockProgramPoint("first");
+    ExplodedGraph.Node node1 = eg.node(programPoint, ps1);
+    assertThat(node1.isNew()).isTrue();
+    assertThat(eg.node(programPoint, ps2)).isSameAs(node1);
+    assertThat(node1.isNew()).isFalse();
+    assertThat(node1.programState).isSameAs(ps1);
+  }
+
+  @Test
+  public void nodes_should_keep_the_visits_of_their_own_state() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ProgramPoint loop = mockProgramPoint("loop");
+    ProgramState firstVisit = ProgramState.EMPTY_STATE.visitedPoint(loop, 1);
+    ProgramState lastVisit = ProgramState.EMPTY_STATE.visitedPoint(loop, 3);
+    assertThat(firstVisit).isEqualTo(lastVisit);
+
+    eg.node(mockProgramPoint("first"), firstVisit);
+    ExplodedGraph.Node node = eg.node(mockProgramPoint("second"), lastVisit);
+    assertThat(node.isNew()).isTrue();
+    assertThat(node.programState).isSameAs(lastVisit);
+    assertThat(node.programState.numberOfTimeVisited(loop)).isEqualTo(3);
+  }
+
+  @Test
+  public void edges_should_keep_insertion_order_of_parents() {
+    ExplodedGraph eg = new ExplodedGraph();
+    ExplodedGraph.Node child = eg.node(mockProgramPoint("child"), null);
+    List<ExplodedGraph.Node> parents = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      ExplodedGraph.Node parent = eg.node(mockProgramPoint("parent" + i), null);
+      parents.add(parent);
+      child.addParent(parent, null);
+      child.addParent(parent, null);
+    }
+    assertThat(child.edges()).hasSize(20);
+    assertThat(child.edges()).extracting("parent").containsExactlyElementsOf(parents);
+    assertThat(child.parents()).containsExactlyElementsOf(parents);
+    assertThat(child.parent()).isSameAs(parents.get(0));
+  }
+
+  @Test
+  public void estimated_memory_should_grow_with_nodes_edges_and_states() {
+    ExplodedGraph eg = new ExplodedGraph();
+    assertThat(eg.estimatedMemory()).isZero();
+    ProgramState ps = ProgramState.EMPTY_STATE.stackValue(new SymbolicValue());
+    ExplodedGraph.Node node1 = eg.node(mockProgramPoint("first"), ps);
+    long oneNode = eg.estimatedMemory();
+    assertThat(oneNode).isPositive();
+
+    ExplodedGraph.Node node2 = eg.node(mockProgramPoint("second"), ps);
+    long twoNodesSharingState = eg.estimatedMemory();
+    assertThat(twoNodesSharingState).isGreaterThan(oneNode).isLessThan(2 * oneNode);
+
+    node2.addParent(node1, null);
+    assertThat(eg.estimatedMemory()).isGreaterThan(twoNodesSharingState);
+  }
+  @Test
+  public void learned_constraints_should_be_shared_between_edges_of_same_states() {
+    ExplodedGraph eg = new ExplodedGraph();
+    SymbolicValue sv = new SymbolicValue();
+    ProgramState parentState = ProgramState.EMPTY_STATE.stackValue(sv);
+    ProgramState childState = parentState.addConstraint(sv, ObjectConstraint.NOT_NULL);
+
+    ExplodedGraph.Node parent1 = eg.node(mockProgramPoint("parent1"), parentState);
+    ExplodedGraph.Node child1 = eg.node(mockProgramPoint("child1"), childState);
+    child1.addParent(parent1, null);
+    ExplodedGraph.Node parent2 = eg.node(mockProgramPoint("parent2"), parentState);
+    ExplodedGraph.Node child2 = eg.node(mockProgramPoint("child2"), childState);
+    child2.addParent(parent2, null);
+
+    ExplodedGraph.Edge edge1 = child1.edges().iterator().next();
+    ExplodedGraph.Edge edge2 = child2.edges().iterator().next();
+    assertThat(edge1.learnedConstraints()).extracting(LearnedConstraint::constraint).containsExactly(ObjectConstraint.NOT_NULL);
+    assertThat(edge2.learnedConstraints()).isSameAs(edge1.learnedConstraints());
+    assertThat(edge2.learnedAssociations()).isSameAs(edge1.learnedAssociations());
+
+    ExplodedGraph.Node sameState = eg.node(mockProgramPoint("sameState"), childState);
+    sameState.addParent(child1, null);
+    assertThat(sameState.edges().iterator().next().learnedConstraints()).isEmpty();
+  }
+
   private ProgramPoint mockProgramPoint(String toString) {
     ProgramPoint mock = mock(ProgramPoint.class);
     when(mock.toString()).thenReturn(toString);
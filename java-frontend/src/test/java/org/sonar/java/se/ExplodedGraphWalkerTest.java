@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -99,6 +100,38 @@ public class ExplodedGraphWalkerTest {
     assertThat(steps[0]).isGreaterThan(steps[1]);
   }
 
+  @Test
+  public void test_state_subsumption() {
+    final int[] steps = new int[2];
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestStateSubsumption.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        ExplodedGraphWalker explodedGraphWalker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
+        MethodTree methodTree = (MethodTree) tree;
+        explodedGraphWalker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+        steps[0] += explodedGraphWalker.steps;
+      }
+    });
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestStateSubsumption.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        ExplodedGraphWalker explodedGraphWalker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
+        explodedGraphWalker.setStateSubsumption(true);
+        MethodTree methodTree = (MethodTree) tree;
+        explodedGraphWalker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+        steps[1] += explodedGraphWalker.steps;
+      }
+    });
+    assertThat(steps[1]).isPositive();
+    assertThat(steps[0]).isGreaterThan(steps[1] * 4);
+  }
+
+  @Test
+  public void state_subsumption_should_not_lose_issues() {
+    JavaCheckVerifier.verifyWithStateSubsumption("src/test/files/se/SeEngineTest.java", seChecks());
+    JavaCheckVerifier.verifyWithStateSubsumption("src/test/files/se/Reproducer.java", seChecks());
+  }
+
   @Test
   public void reproducer() throws Exception {
     JavaCheckVerifier.verify("src/test/files/se/Reproducer.java", seChecks());
@@ -148,10 +181,10 @@ public class ExplodedGraphWalkerTest {
 
               if (getNode) {
                 if (firstExceptionalNode == null) {
-                  firstExceptionalNode = workList.peekFirst();
+                  firstExceptionalNode = workList.peek();
                 }
                 assertThat(workList.size()).as("Should have created a new node in the graph for each of the exceptions").isEqualTo(workListSize + 1);
-                assertThat(workList.peekFirst().programState.peekValue()).as("Exceptional Symbolic Value should stay on the stack").isEqualTo(exceptionSV);
+                assertThat(workList.peek().programState.peekValue()).as("Exceptional Symbolic Value should stay on the stack").isEqualTo(exceptionSV);
                 tested[0]++;
               }
             };
@@ -201,7 +234,7 @@ public class ExplodedGraphWalkerTest {
               assertThat(workList.size()).isEqualTo(workListSize + 1);
               if (shouldEnqueueFalseBranch) {
                 assertThat(programPoints[1]).isNull();
-                programPoints[1] = workList.peekFirst().programPoint;
+                programPoints[1] = workList.peek().programPoint;
               }
             }
           };
@@ -223,6 +256,30 @@ public class ExplodedGraphWalkerTest {
     assertThat(programPoints[1].block.id()).isEqualTo(1);
   }
 
+  @Test
+  public void loops_should_be_bounded_by_the_visits_of_each_path() {
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel()) {
+          @Override
+          public void enqueue(ProgramPoint programPoint, ProgramState programState, boolean exitPath, MethodYield methodYield) {
+            int workListSize = workList.size();
+            super.enqueue(programPoint, programState, exitPath, methodYield);
+            ExplodedGraph.Node enqueued = workList.size() > workListSize ? workList.peek() : null;
+            if (enqueued != null && enqueued.isNew() && enqueued.programPoint.equals(programPoint)) {
+              // an equal state reached on another path must not replace the visits of the enqueued state
+              int visits = programState.numberOfTimeVisited(programPoint) + 1;
+              assertThat(visits).isLessThanOrEqualTo(MAX_EXEC_PROGRAM_POINT + 1);
+              assertThat(enqueued.programState.numberOfTimeVisited(programPoint)).isEqualTo(visits);
+            }
+          }
+        }.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+      }
+    });
+  }
+
   @Test
   public void test_limited_loop_execution() throws Exception {
     JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
@@ -243,13 +300,16 @@ public class ExplodedGraphWalkerTest {
     JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxSteps.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
       @Override
       public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        ExplodedGraphWalker walker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
         try {
-          MethodTree methodTree = (MethodTree) tree;
-          new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel()).visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+          walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
           fail("Too many states were processed !");
         } catch (ExplodedGraphWalker.MaximumStepsReachedException exception) {
           assertThat(exception.getMessage()).startsWith("reached limit of 16000 steps for method");
         }
+        assertThat(walker.statistics().abortReason()).isEqualTo(ExplorationStatistics.AbortReason.MAX_STEPS);
+        assertThat(walker.statistics().steps()).isEqualTo(16_001);
       }
     });
   }
@@ -264,13 +324,83 @@ public class ExplodedGraphWalkerTest {
     JavaCheckVerifier.verifyNoIssue("src/test/files/se/MaxNestedStates.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
       @Override
       public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        ExplodedGraphWalker walker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
         try {
-          MethodTree methodTree = (MethodTree) tree;
-          new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel()).visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+          walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
           fail("Too many states were processed !");
         } catch (ExplodedGraphWalker.MaximumStepsReachedException exception) {
           assertThat(exception.getMessage()).startsWith("reached maximum number of 10000 branched states");
         }
+        assertThat(walker.statistics().abortReason()).isEqualTo(ExplorationStatistics.AbortReason.NESTED_BOOLEAN_STATES);
+      }
+    });
+  }
+
+  @Test
+  public void statistics_of_explored_methods() {
+    SymbolicExecutionVisitor sev = createSymbolicExecutionVisitor("src/test/resources/se/ComputeBehaviorOnce.java");
+    List<ExplorationStatistics> statistics = sev.statistics();
+    // methods explored through method invocations are reported once, in the order of the file
+    assertThat(statistics).extracting(ExplorationStatistics::methodName).containsExactly("foo", "bar", "qix", "multipleCall", "plop");
+    assertThat(statistics).allMatch(s -> s.steps() > 0 && s.nodes() > 0 && s.peakWorkListSize() > 0 && s.durationNanos() > 0);
+    assertThat(statistics).extracting(ExplorationStatistics::abortReason).containsExactly(null, null, null, null, ExplorationStatistics.AbortReason.MAX_STEPS);
+  }
+
+  @Test
+  public void statistics_should_not_include_the_exploration_of_invoked_methods() {
+    // foo invokes bar which invokes qix: their behaviors are computed while exploring foo
+    long[] now = {0};
+    SECheck clockCheck = new SECheck() {
+      @Override
+      public void init(MethodTree methodTree, CFG cfg) {
+        now[0] += "qix".equals(methodTree.simpleName().name()) ? 200 : 10;
+      }
+    };
+    SymbolicExecutionVisitor sev = new SymbolicExecutionVisitor(Collections.singletonList(clockCheck), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      protected ExplodedGraphWalker getWalker() {
+        ExplodedGraphWalker walker = super.getWalker();
+        walker.setNanoClock(() -> now[0]);
+        return walker;
+      }
+    };
+    JavaCheckVerifier.verifyNoIssue("src/test/resources/se/ComputeBehaviorOnce.java", sev);
+    Map<String, Long> durations = sev.statistics().stream()
+      .collect(Collectors.toMap(ExplorationStatistics::methodName, ExplorationStatistics::durationNanos));
+    assertThat(durations).containsEntry("foo", 10L).containsEntry("bar", 10L).containsEntry("qix", 200L);
+    assertThat(durations.values().stream().mapToLong(Long::longValue).sum()).isEqualTo(now[0]);
+  }
+
+  @Test
+  public void statistics_of_flows_computed_for_issues() {
+    List<ExplorationStatistics> statistics = new ArrayList<>();
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/FlowStatistics.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        ExplodedGraphWalker walker = new ExplodedGraphWalker(Collections.singletonList(new NullDereferenceCheck()), this.behaviorCache, (SemanticModel) context.getSemanticModel());
+        walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol()));
+        statistics.add(walker.statistics());
+      }
+    });
+    assertThat(statistics).hasSize(2);
+    assertThat(statistics).allMatch(s -> s.flows() > 0 && s.flowSteps() > 0 && s.flowDurationNanos() > 0 && s.flowDurationNanos() <= s.durationNanos());
+    assertThat(statistics).extracting(ExplorationStatistics::incompleteFlows).containsOnly(0);
+  }
+
+  @Test
+  public void test_maximum_memory_of_exploded_graph() {
+    JavaCheckVerifier.verifyNoIssue("src/test/files/se/SeEngineTestCase.java", new SymbolicExecutionVisitor(Collections.emptyList(), new BehaviorCache(new SquidClassLoader(new ArrayList<>()))) {
+      @Override
+      public void visitNode(Tree tree) {
+        MethodTree methodTree = (MethodTree) tree;
+        ExplodedGraphWalker walker = new ExplodedGraphWalker(this.behaviorCache, (SemanticModel) context.getSemanticModel());
+        walker.setMaxExplodedGraphMemory(1);
+        assertThatThrownBy(() -> walker.visitMethod(methodTree, methodBehaviorForSymbol(methodTree.symbol())))
+          .isInstanceOf(ExplodedGraphWalker.ExplodedGraphTooBigException.class)
+          .hasMessageStartingWith("Exploded graph exceeds 1 bytes");
+        assertThat(walker.statistics().abortReason()).isEqualTo(ExplorationStatistics.AbortReason.EXPLODED_GRAPH_TOO_BIG);
       }
     });
   }
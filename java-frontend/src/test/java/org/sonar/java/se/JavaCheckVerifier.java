@@ -98,6 +98,8 @@ public class JavaCheckVerifier {
   private static final String DEFAULT_TEST_JARS_DIRECTORY = "target/test-jars";
   private final String testJarsDirectory;
   private final Expectations expectations;
+  private boolean stateSubsumption = false;
+  private WorkList.Strategy workListStrategy = WorkList.Strategy.DFS;
 
   public JavaCheckVerifier() {
     this.testJarsDirectory = DEFAULT_TEST_JARS_DIRECTORY;
@@ -129,6 +131,33 @@ public class JavaCheckVerifier {
     new JavaCheckVerifier().scanFile(filename, check);
   }
 
+  /**
+   * Verifies that the provided file will raise all the expected issues when analyzed with the given check, symbolic execution
+   * exploring only once the states which are equivalent for the rest of the exploration.
+   *
+   * @param filename The file to be analyzed
+   * @param check The check to be used for the analysis
+   */
+  public static void verifyWithStateSubsumption(String filename, JavaFileScanner... check) {
+    JavaCheckVerifier javaCheckVerifier = new JavaCheckVerifier();
+    javaCheckVerifier.stateSubsumption = true;
+    javaCheckVerifier.scanFile(filename, check);
+  }
+
+  /**
+   * Verifies that the provided file will raise all the expected issues when analyzed with the given check, symbolic execution
+   * exploring the nodes of the exploded graph in the order of the given strategy.
+   *
+   * @param filename The file to be analyzed
+   * @param workListStrategy The order of exploration of symbolic execution
+   * @param check The check to be used for the analysis
+   */
+  public static void verifyWithWorkListStrategy(String filename, WorkList.Strategy workListStrategy, JavaFileScanner... check) {
+    JavaCheckVerifier javaCheckVerifier = new JavaCheckVerifier();
+    javaCheckVerifier.workListStrategy = workListStrategy;
+    javaCheckVerifier.scanFile(filename, check);
+  }
+
   /**
    * Verifies that the provided file will raise all the expected issues when analyzed with the given check,
    * but using having the classpath extended with a collection of files (classes/jar/zip).
@@ -199,9 +228,12 @@ public class JavaCheckVerifier {
     checkIssues(testJavaFileScannerContext.getIssues());
   }
 
-  private static SonarComponents sonarComponents(File file) {
+  private SonarComponents sonarComponents(File file) {
     SensorContextTester context = SensorContextTester.create(new File("")).setRuntime(SonarRuntimeImpl.forSonarLint(Version.create(6, 7)));
-    context.setSettings(new MapSettings().setProperty("sonar.java.failOnException", true));
+    context.setSettings(new MapSettings()
+      .setProperty("sonar.java.failOnException", true)
+      .setProperty(SonarComponents.SE_STATE_SUBSUMPTION_KEY, stateSubsumption)
+      .setProperty(SonarComponents.SE_WORK_LIST_KEY, workListStrategy.name()));
     SonarComponents sonarComponents = new SonarComponents(null, context.fileSystem(), null, null, null) {
       @Override
       public boolean reportAnalysisError(RecognitionException re, File file) {
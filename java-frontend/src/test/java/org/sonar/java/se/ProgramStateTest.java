@@ -36,6 +36,7 @@ import org.sonar.java.se.symbolicvalues.SymbolicValue;
 import org.sonar.java.se.symbolicvalues.SymbolicValueTestUtil;
 import org.sonar.plugins.java.api.semantic.Symbol;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -244,6 +245,42 @@ public class ProgramStateTest {
     assertThat(ps.getConstraint(sv2, constraint.getClass())).isEqualTo(constraint);
   }
 
+  @Test
+  public void relations_between_unreachable_values_should_be_cleaned_up() {
+    SymbolicValue sv1 = new SymbolicValue();
+    SymbolicValue sv2 = new SymbolicValue();
+    SymbolicValue sv3 = new SymbolicValue();
+    SymbolicValue sv4 = new SymbolicValue();
+    RelationalSymbolicValue rel12 = new RelationalSymbolicValue(RelationalSymbolicValue.Kind.EQUAL);
+    SymbolicValueTestUtil.computedFrom(rel12, sv1, sv2);
+    RelationalSymbolicValue rel23 = new RelationalSymbolicValue(RelationalSymbolicValue.Kind.LESS_THAN);
+    SymbolicValueTestUtil.computedFrom(rel23, sv2, sv3);
+    RelationalSymbolicValue rel4 = new RelationalSymbolicValue(RelationalSymbolicValue.Kind.EQUAL);
+    SymbolicValueTestUtil.computedFrom(rel4, sv4, SymbolicValue.NULL_LITERAL);
+    ProgramState relations = ProgramState.EMPTY_STATE
+      .addConstraint(rel12, BooleanConstraint.TRUE)
+      .addConstraint(rel23, BooleanConstraint.TRUE)
+      .addConstraint(rel4, BooleanConstraint.TRUE);
+
+    ProgramState ps = relations.put(variable("a"), sv3).cleanupDeadRelations(Collections.emptyList());
+    // sv1 and sv2 are not reachable, but relations about them constrain sv3
+    assertThat(ps.getConstraints(rel12)).isNotNull();
+    assertThat(ps.getConstraints(rel23)).isNotNull();
+    assertThat(ps.getConstraints(rel4)).isNull();
+    assertThat(ps.cleanupDeadRelations(Collections.emptyList())).isSameAs(ps);
+
+    ps = relations.cleanupDeadRelations(Collections.singletonList(sv4));
+    assertThat(ps.getConstraints(rel12)).isNull();
+    assertThat(ps.getConstraints(rel23)).isNull();
+    assertThat(ps.getConstraints(rel4)).isNotNull();
+
+    ps = relations.stackValue(sv1).cleanupDeadRelations(Collections.emptyList());
+    assertThat(ps.getConstraints(rel12)).isNotNull();
+    assertThat(ps.getConstraints(rel4)).isNull();
+
+    assertThat(relations.cleanupDeadRelations(Collections.emptyList())).isEqualTo(ProgramState.EMPTY_STATE);
+  }
+
   @Test
   public void test_put_by_index() throws Exception {
     SymbolicValue sv = new SymbolicValue();
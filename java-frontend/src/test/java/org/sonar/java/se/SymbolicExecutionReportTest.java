@@ -0,0 +1,117 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import javax.annotation.Nullable;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SymbolicExecutionReportTest {
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  @Test
+  public void report_should_aggregate_statistics_per_file_and_for_project() throws Exception {
+    File file = new File(temp.getRoot(), SymbolicExecutionReport.FILE_NAME);
+    SymbolicExecutionReport report = new SymbolicExecutionReport(file);
+    report.addFile("A.java", Arrays.asList(
+      statistics("foo", 3, 10, 2_000_000L, null),
+      statistics("bar", 12, 16_001, 5_000_000L, ExplorationStatistics.AbortReason.MAX_STEPS)));
+    report.addFile("Empty.java", Collections.emptyList());
+    report.addFile("B.java", Collections.singletonList(statistics("qix", 1, 5, 1_000_000L, ExplorationStatistics.AbortReason.MAX_STEPS)));
+    report.save();
+
+    JsonObject json = new JsonParser().parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).getAsJsonObject();
+    JsonArray files = json.getAsJsonArray("files");
+    assertThat(files.size()).isEqualTo(2);
+
+    JsonObject fileA = files.get(0).getAsJsonObject();
+    assertThat(fileA.get("file").getAsString()).isEqualTo("A.java");
+    JsonObject summaryA = fileA.getAsJsonObject("summary");
+    assertThat(summaryA.get("methods").getAsInt()).isEqualTo(2);
+    assertThat(summaryA.get("steps").getAsInt()).isEqualTo(16_011);
+    assertThat(summaryA.get("peakWorkListSize").getAsInt()).isEqualTo(24);
+    assertThat(summaryA.get("timeMs").getAsDouble()).isEqualTo(7.0);
+    assertThat(summaryA.getAsJsonObject("aborts").get("MAX_STEPS").getAsInt()).isEqualTo(1);
+    JsonArray methodsA = fileA.getAsJsonArray("methods");
+    assertThat(methodsA.size()).isEqualTo(2);
+    assertThat(methodsA.get(0).getAsJsonObject().get("method").getAsString()).isEqualTo("foo");
+    assertThat(methodsA.get(0).getAsJsonObject().get("flowSteps").getAsInt()).isEqualTo(10);
+    assertThat(methodsA.get(0).getAsJsonObject().get("flowTimeMs").getAsDouble()).isEqualTo(1.0);
+    assertThat(methodsA.get(0).getAsJsonObject().has("abortReason")).isFalse();
+    assertThat(methodsA.get(1).getAsJsonObject().get("abortReason").getAsString()).isEqualTo("MAX_STEPS");
+
+    JsonObject project = json.getAsJsonObject("project");
+    assertThat(project.get("methods").getAsInt()).isEqualTo(3);
+    assertThat(project.get("steps").getAsInt()).isEqualTo(16_016);
+    assertThat(project.get("nodes").getAsInt()).isEqualTo(32_032);
+    assertThat(project.get("timeMs").getAsDouble()).isEqualTo(8.0);
+    assertThat(project.get("flows").getAsInt()).isEqualTo(3);
+    assertThat(project.get("flowSteps").getAsInt()).isEqualTo(16_016);
+    assertThat(project.get("incompleteFlows").getAsInt()).isZero();
+    assertThat(project.get("flowTimeMs").getAsDouble()).isEqualTo(4.0);
+    assertThat(project.getAsJsonObject("aborts").get("MAX_STEPS").getAsInt()).isEqualTo(2);
+  }
+
+  @Test
+  public void report_without_explored_method_should_only_contain_totals() throws Exception {
+    File file = new File(temp.getRoot(), SymbolicExecutionReport.FILE_NAME);
+    new SymbolicExecutionReport(file).save();
+
+    JsonObject json = new JsonParser().parse(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)).getAsJsonObject();
+    assertThat(json.getAsJsonArray("files").size()).isZero();
+    assertThat(json.getAsJsonObject("project").get("methods").getAsInt()).isZero();
+  }
+
+  @Test
+  public void report_should_not_fail_analysis_when_it_can_not_be_written() {
+    File file = new File(temp.getRoot(), "missing/" + SymbolicExecutionReport.FILE_NAME);
+    SymbolicExecutionReport report = new SymbolicExecutionReport(file);
+    report.addFile("A.java", Collections.singletonList(statistics("foo", 1, 1, 1L, null)));
+    report.save();
+    assertThat(file).doesNotExist();
+  }
+
+  private static ExplorationStatistics statistics(String methodName, int line, int steps, long durationNanos,
+    @Nullable ExplorationStatistics.AbortReason abortReason) {
+    ExplorationStatistics statistics = new ExplorationStatistics(methodName, line);
+    statistics.steps = steps;
+    statistics.nodes = 2 * steps;
+    statistics.durationNanos = durationNanos;
+    statistics.flows = 1;
+    statistics.flowSteps = steps;
+    statistics.flowDurationNanos = durationNanos / 2;
+    statistics.enqueued(steps / 1000 + 8, steps / 100);
+    statistics.abortReason = abortReason;
+    return statistics;
+  }
+}
@@ -0,0 +1,114 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se;
+
+import org.junit.Test;
+import org.sonar.java.cfg.CFG;
+import org.sonar.java.cfg.CFGTest;
+import org.sonar.java.se.symbolicvalues.SymbolicValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WorkListTest {
+
+  private static final CFG CFG = CFGTest.buildCFG("void foo(boolean a) { if(a) {foo(true);} foo(false); }");
+
+  private final ExplodedGraph explodedGraph = new ExplodedGraph();
+
+  @Test
+  public void dfs_should_explore_last_enqueued_node_first() {
+    WorkList workList = WorkList.Strategy.DFS.create(CFG);
+    ExplodedGraph.Node first = node(CFG.entryBlock());
+    ExplodedGraph.Node second = node(CFG.entryBlock());
+    workList.add(first);
+    workList.add(second);
+    assertThat(workList.size()).isEqualTo(2);
+    assertThat(workList.peek()).isSameAs(second);
+    assertThat(workList.remove()).isSameAs(second);
+    assertThat(workList.remove()).isSameAs(first);
+    assertThat(workList.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void bfs_should_explore_nodes_in_enqueuing_order() {
+    WorkList workList = WorkList.Strategy.BFS.create(CFG);
+    ExplodedGraph.Node first = node(CFG.entryBlock());
+    ExplodedGraph.Node second = node(CFG.entryBlock());
+    workList.add(first);
+    workList.add(second);
+    assertThat(workList.peek()).isSameAs(first);
+    assertThat(workList.remove()).isSameAs(first);
+    assertThat(workList.remove()).isSameAs(second);
+    assertThat(workList.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void coverage_should_favor_unexplored_program_points_then_blocks_near_exit() {
+    WorkList workList = WorkList.Strategy.COVERAGE.create(CFG);
+    // foo(false) is the only block jumping to the exit block, the entry block is one block further
+    CFG.Block beforeExit = CFG.exitBlock().predecessors().iterator().next();
+    ExplodedGraph.Node atEntry = node(CFG.entryBlock());
+    ExplodedGraph.Node nearExit = node(beforeExit);
+    workList.add(atEntry);
+    workList.add(nearExit);
+    assertThat(workList.peek()).isSameAs(nearExit);
+    assertThat(workList.remove()).isSameAs(nearExit);
+
+    ExplodedGraph.Node nearExitAgain = node(beforeExit);
+    workList.add(nearExitAgain);
+    assertThat(workList.remove()).isSameAs(atEntry);
+    assertThat(workList.remove()).isSameAs(nearExitAgain);
+    assertThat(workList.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void coverage_should_account_for_visits_made_after_nodes_were_enqueued() {
+    WorkList workList = WorkList.Strategy.COVERAGE.create(CFG);
+    CFG.Block beforeExit = CFG.exitBlock().predecessors().iterator().next();
+    ExplodedGraph.Node atEntry = node(CFG.entryBlock());
+    ExplodedGraph.Node nearExit = node(beforeExit);
+    ExplodedGraph.Node nearExitAgain = node(beforeExit);
+    workList.add(atEntry);
+    workList.add(nearExit);
+    workList.add(nearExitAgain);
+    assertThat(workList.remove()).isSameAs(nearExitAgain);
+    // the program point near the exit has now been explored once, while the entry has not
+    assertThat(workList.peek()).isSameAs(atEntry);
+    assertThat(workList.remove()).isSameAs(atEntry);
+    assertThat(workList.remove()).isSameAs(nearExit);
+    assertThat(workList.isEmpty()).isTrue();
+  }
+
+  @Test
+  public void coverage_should_explore_equivalent_nodes_depth_first() {
+    WorkList workList = WorkList.Strategy.COVERAGE.create(CFG);
+    ExplodedGraph.Node first = node(CFG.entryBlock());
+    ExplodedGraph.Node second = node(CFG.entryBlock());
+    workList.add(first);
+    workList.add(second);
+    assertThat(workList.size()).isEqualTo(2);
+    assertThat(workList.remove()).isSameAs(second);
+    assertThat(workList.remove()).isSameAs(first);
+  }
+
+  private ExplodedGraph.Node node(CFG.Block block) {
+    return explodedGraph.node(new ProgramPoint(block), ProgramState.EMPTY_STATE.stackValue(new SymbolicValue()));
+  }
+}
@@ -21,6 +21,7 @@ package org.sonar.java.se.checks;
 
 import org.junit.Test;
 import org.sonar.java.se.JavaCheckVerifier;
+import org.sonar.java.se.WorkList;
 
 public class NullDereferenceCheckTest {
 
@@ -68,4 +69,10 @@ public class NullDereferenceCheckTest {
   public void test_npe_transitive() throws Exception {
     JavaCheckVerifier.verify("src/test/files/se/NPE_transitive.java", new NullDereferenceCheck());
   }
+
+  @Test
+  public void work_list_strategy_should_not_change_issues_of_completely_explored_methods() {
+    JavaCheckVerifier.verifyWithWorkListStrategy("src/test/files/se/NPE_transitive.java", WorkList.Strategy.BFS, new NullDereferenceCheck());
+    JavaCheckVerifier.verifyWithWorkListStrategy("src/test/files/se/NPE_transitive.java", WorkList.Strategy.COVERAGE, new NullDereferenceCheck());
+  }
 }
@@ -126,4 +126,13 @@ public class ConstraintsByDomainTest {
     assertThat(c.hasConstraint(ObjectConstraint.NULL)).isTrue();
     assertThat(c.hasConstraint(ObjectConstraint.NOT_NULL)).isFalse();
   }
+
+  @Test
+  public void equal_constraints_should_be_the_same_instance() {
+    ConstraintsByDomain c1 = ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL).put(BooleanConstraint.TRUE);
+    ConstraintsByDomain c2 = ConstraintsByDomain.empty().put(BooleanConstraint.TRUE).put(ObjectConstraint.NOT_NULL);
+    assertThat(c1).isSameAs(c2);
+    assertThat(c1.remove(BooleanConstraint.class)).isSameAs(ConstraintsByDomain.empty().put(ObjectConstraint.NOT_NULL));
+    assertThat(c1.remove(BooleanConstraint.class).remove(ObjectConstraint.class)).isSameAs(ConstraintsByDomain.empty());
+  }
 }
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
@@ -61,8 +62,10 @@ import static org.sonar.java.se.checks.DivisionByZeroCheck.ZeroConstraint.ZERO;
 import static org.sonar.java.se.constraint.BooleanConstraint.FALSE;
 import static org.sonar.java.se.constraint.BooleanConstraint.TRUE;
 import static org.sonar.java.se.symbolicvalues.RelationState.FULFILLED;
+import static org.sonar.java.se.symbolicvalues.RelationState.UNDETERMINED;
 import static org.sonar.java.se.symbolicvalues.RelationState.UNFULFILLED;
 import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.EQUAL;
+import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.LESS_THAN;
 import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.METHOD_EQUALS;
 import static org.sonar.java.se.symbolicvalues.RelationalSymbolicValue.Kind.NOT_EQUAL;
 import static org.sonar.java.se.symbolicvalues.SymbolicValue.NULL_LITERAL;
@@ -357,6 +360,59 @@ public class RelationalSymbolicValueTest {
     assertThat(transitive).containsOnly(relationalSV(Tree.Kind.EQUAL_TO, a, c), relationalSV(Tree.Kind.EQUAL_TO, b, d), relationalSV(Tree.Kind.EQUAL_TO, a, d));
   }
 
+  @Test
+  public void transitive_relations_should_only_combine_relations_sharing_an_operand() {
+    // chain of equalities v0 == v1 == ... == v99, among which all the pairs of values are equal
+    List<SymbolicValue> values = new ArrayList<>();
+    Set<RelationalSymbolicValue> knownRelations = new HashSet<>();
+    for (int i = 0; i < 100; i++) {
+      values.add(new SymbolicValue());
+      if (i > 0) {
+        knownRelations.add(new RelationalSymbolicValue(EQUAL, values.get(i - 1), values.get(i)));
+      }
+    }
+    RelationalSymbolicValue first = new RelationalSymbolicValue(EQUAL, values.get(0), values.get(1));
+    assertThat(first.transitiveRelations(knownRelations)).hasSize(100 * 99 / 2 - 99);
+
+    RelationalSymbolicValue unrelated = new RelationalSymbolicValue(LESS_THAN, a, b);
+    assertThat(unrelated.transitiveRelations(knownRelations)).isEmpty();
+    assertThat(unrelated.resolveRelationState(knownRelations)).isEqualTo(UNDETERMINED);
+  }
+
+  @Test
+  public void transitive_relations_should_not_be_limited_by_unrelated_relations() {
+    // used to exceed the limit: 171 deduced relations combined with each of the 10 019 known relations
+    Set<RelationalSymbolicValue> knownRelations = new HashSet<>();
+    for (int i = 0; i < 10_000; i++) {
+      knownRelations.add(new RelationalSymbolicValue(LESS_THAN, new SymbolicValue(), new SymbolicValue()));
+    }
+    List<SymbolicValue> values = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      values.add(new SymbolicValue());
+      if (i > 0) {
+        knownRelations.add(new RelationalSymbolicValue(EQUAL, values.get(i - 1), values.get(i)));
+      }
+    }
+    RelationalSymbolicValue first = new RelationalSymbolicValue(EQUAL, values.get(0), values.get(1));
+    assertThat(first.transitiveRelations(knownRelations)).hasSize(20 * 19 / 2 - 19);
+  }
+
+  @Test
+  public void known_relations_should_be_indexed_by_operand() {
+    RelationalSymbolicValue ab = new RelationalSymbolicValue(EQUAL, a, b);
+    RelationalSymbolicValue ba = new RelationalSymbolicValue(LESS_THAN, b, a);
+    RelationalSymbolicValue bc = new RelationalSymbolicValue(EQUAL, b, c);
+    RelationalSymbolicValue cd = new RelationalSymbolicValue(EQUAL, c, d);
+    RelationalSymbolicValue aa = new RelationalSymbolicValue(EQUAL, a, a);
+    KnownRelations knownRelations = new KnownRelations(ImmutableList.of(ab, ba, bc, cd, aa));
+    assertThat(knownRelations).hasSize(5).contains(ab, cd);
+    assertThat(knownRelations.add(ab)).isFalse();
+    assertThat(knownRelations.adjacentTo(ab)).containsExactlyInAnyOrder(ab, ba, bc, aa);
+    assertThat(knownRelations.adjacentTo(aa)).containsExactlyInAnyOrder(ab, ba, aa);
+    assertThat(knownRelations.adjacentTo(new RelationalSymbolicValue(EQUAL, d, e))).containsExactly(cd);
+    assertThat(KnownRelations.of(knownRelations)).isSameAs(knownRelations);
+  }
+
   @Test
   public void test_constraints_are_copied_over_transitive_relations() throws Exception {
     ProgramState ps = ProgramState.EMPTY_STATE;
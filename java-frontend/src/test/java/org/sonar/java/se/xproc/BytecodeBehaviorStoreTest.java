@@ -0,0 +1,152 @@
+/*
+ * SonarQube Java
+ * Copyright (C) 2012-2018 SonarSource SA
+ * mailto:info AT sonarsource DOT com
+ *
+ * This program is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 3 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with this program; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
+ */
+package org.sonar.java.se.xproc;
+
+import com.google.common.collect.Lists;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.io.FileUtils;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.java.bytecode.loader.SquidClassLoader;
+import org.sonar.java.bytecode.se.testdata.BytecodeTestClass;
+import org.sonar.java.bytecode.se.testdata.BytecodeTestSubclass;
+import org.sonar.java.resolve.SemanticModel;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BytecodeBehaviorStoreTest {
+
+  private static final String SIGNATURE = BytecodeTestClass.class.getCanonicalName() + "#fun(ZLjava/lang/Object;)Ljava/lang/Object;";
+  private static final String INHERITED_SIGNATURE = BytecodeTestSubclass.class.getCanonicalName() + "#fun(ZLjava/lang/Object;)Ljava/lang/Object;";
+  private static final String TESTDATA = "org/sonar/java/bytecode/se/testdata/";
+
+  @Rule
+  public TemporaryFolder temp = new TemporaryFolder();
+
+  private static SquidClassLoader squidClassLoader;
+  private static SemanticModel semanticModel;
+
+  @BeforeClass
+  public static void setUp() {
+    List<File> files = Lists.newArrayList(new File("target/test-classes"), new File("target/classes"));
+    files.addAll(FileUtils.listFiles(new File("target/test-jars"), new String[] {"jar"}, false));
+    squidClassLoader = new SquidClassLoader(files);
+    semanticModel = SemanticModel.createFor((CompilationUnitTree) JavaParser.createParser().parse("class A {}"), squidClassLoader);
+  }
+
+  @Test
+  public void behaviors_should_be_reloaded_from_previous_analysis() throws Exception {
+    File file = new File(temp.getRoot(), BytecodeBehaviorStore.FILE_NAME);
+    BehaviorCache behaviorCache = behaviorCache(new BytecodeBehaviorStore(file, squidClassLoader));
+    MethodBehavior computed = behaviorCache.get(SIGNATURE);
+    assertThat(computed.isComplete()).isTrue();
+    behaviorCache.saveBytecodeBehaviors();
+    assertThat(file).exists();
+
+    BytecodeBehaviorStore store = new BytecodeBehaviorStore(file, squidClassLoader);
+    MethodBehavior loaded = store.load(SIGNATURE, new HashSet<>());
+    assertThat(loaded).isNotNull();
+    assertThat(loaded.isComplete()).isTrue();
+    assertThat(loaded.isMethodVarArgs()).isEqualTo(computed.isMethodVarArgs());
+    assertThat(loaded.getDeclaredExceptions()).isEqualTo(computed.getDeclaredExceptions());
+    assertThat(loaded.yields()).containsExactlyElementsOf(computed.yields());
+    assertThat(store.load(SIGNATURE, new HashSet<>())).isNull();
+
+    BehaviorCache nextBehaviorCache = behaviorCache(new BytecodeBehaviorStore(file, squidClassLoader));
+    assertThat(nextBehaviorCache.get(SIGNATURE).yields()).containsExactlyElementsOf(computed.yields());
+  }
+
+  @Test
+  public void behaviors_should_be_discarded_when_class_changed() throws Exception {
+    File file = new File(temp.getRoot(), BytecodeBehaviorStore.FILE_NAME);
+    BehaviorCache behaviorCache = behaviorCache(new BytecodeBehaviorStore(file, squidClassLoader));
+    behaviorCache.get(SIGNATURE);
+    behaviorCache.saveBytecodeBehaviors();
+
+    SquidClassLoader otherClassLoader = new SquidClassLoader(Collections.emptyList());
+    assertThat(new BytecodeBehaviorStore(file, otherClassLoader).load(SIGNATURE, new HashSet<>())).isNull();
+    otherClassLoader.close();
+  }
+
+  @Test
+  public void behaviors_should_be_discarded_when_the_analyzer_changed() throws Exception {
+    File file = new File(temp.getRoot(), BytecodeBehaviorStore.FILE_NAME);
+    BehaviorCache behaviorCache = behaviorCache(new BytecodeBehaviorStore(file, squidClassLoader, "1.0"));
+    behaviorCache.get(SIGNATURE);
+    behaviorCache.saveBytecodeBehaviors();
+
+    assertThat(new BytecodeBehaviorStore(file, squidClassLoader, "1.0").load(SIGNATURE, new HashSet<>())).isNotNull();
+    assertThat(new BytecodeBehaviorStore(file, squidClassLoader, "1.1").load(SIGNATURE, new HashSet<>())).isNull();
+  }
+
+  @Test
+  public void behaviors_should_be_discarded_when_a_supertype_changed() throws Exception {
+    File classes = temp.newFolder();
+    File superclass = new File(classes, TESTDATA + "BytecodeTestClass.class");
+    FileUtils.copyFile(new File("target/test-classes/" + TESTDATA + "BytecodeTestClass.class"), superclass);
+    FileUtils.copyFile(new File("target/test-classes/" + TESTDATA + "BytecodeTestSubclass.class"), new File(classes, TESTDATA + "BytecodeTestSubclass.class"));
+    File file = new File(temp.getRoot(), BytecodeBehaviorStore.FILE_NAME);
+    try (SquidClassLoader classLoader = new SquidClassLoader(Collections.singletonList(classes))) {
+      BehaviorCache behaviorCache = behaviorCache(classLoader, new BytecodeBehaviorStore(file, classLoader));
+      assertThat(behaviorCache.get(INHERITED_SIGNATURE).isComplete()).isTrue();
+      behaviorCache.saveBytecodeBehaviors();
+
+      Set<String> dependencies = new HashSet<>();
+      assertThat(new BytecodeBehaviorStore(file, classLoader).load(INHERITED_SIGNATURE, dependencies)).isNotNull();
+      assertThat(dependencies).contains(BytecodeTestSubclass.class.getCanonicalName(), BytecodeTestClass.class.getCanonicalName());
+    }
+
+    // the class named in the signature did not change, but the one declaring the method did
+    FileUtils.copyFile(new File("target/test-classes/" + TESTDATA + "FinalBytecodeTestClass.class"), superclass);
+    try (SquidClassLoader classLoader = new SquidClassLoader(Collections.singletonList(classes))) {
+      assertThat(new BytecodeBehaviorStore(file, classLoader).load(INHERITED_SIGNATURE, new HashSet<>())).isNull();
+    }
+  }
+
+  @Test
+  public void invalid_file_should_be_ignored() throws IOException {
+    File file = temp.newFile();
+    Files.write(file.toPath(), "not a behavior store".getBytes(StandardCharsets.UTF_8));
+    assertThat(new BytecodeBehaviorStore(file, squidClassLoader).load(SIGNATURE, new HashSet<>())).isNull();
+    assertThat(new BytecodeBehaviorStore(new File(temp.getRoot(), "missing"), squidClassLoader).load(SIGNATURE, new HashSet<>())).isNull();
+  }
+
+  private static BehaviorCache behaviorCache(BytecodeBehaviorStore store) {
+    return behaviorCache(squidClassLoader, store);
+  }
+
+  private static BehaviorCache behaviorCache(SquidClassLoader classLoader, BytecodeBehaviorStore store) {
+    BehaviorCache behaviorCache = new BehaviorCache(classLoader);
+    behaviorCache.setFileContext(null, semanticModel);
+    behaviorCache.setBytecodeBehaviorStore(store);
+    return behaviorCache;
+  }
+}
@@ -59,6 +59,41 @@ public class JavaPlugin implements Plugin {
         .name("Collect analysis error")
         .description("when set to true, if an exception is thrown by the analyzer, feedback will be collected and sent to server")
         .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.ANALYSIS_THREADS_KEY)
+        .defaultValue("1")
+        .hidden()
+        .name("Analysis threads")
+        .description("number of threads used to parse files and build their semantic model, checks are still executed sequentially")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.INCREMENTAL_ANALYSIS_KEY)
+        .defaultValue("false")
+        .hidden()
+        .name("Incremental analysis")
+        .description("reuse issues of previous analysis for files which did not change, as long as the configuration of the analysis did not change either")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.SE_STATE_SUBSUMPTION_KEY)
+        .defaultValue("false")
+        .hidden()
+        .name("Symbolic execution state subsumption")
+        .description("explore only once the states which differ only on dead variables and relations between unreachable values")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.SE_REPORT_KEY)
+        .defaultValue("false")
+        .hidden()
+        .name("Symbolic execution report")
+        .description("write to the work directory the cost of the symbolic execution of each method, aggregated per file and for the project")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.SE_WORK_LIST_KEY)
+        .defaultValue("dfs")
+        .hidden()
+        .name("Symbolic execution work list strategy")
+        .description("order in which symbolic execution explores the paths of a method: dfs, bfs or coverage")
+        .build());
+      builder.add(PropertyDefinition.builder(SonarComponents.SE_MAX_MEMORY_PER_METHOD_KEY)
+        .hidden()
+        .name("Symbolic execution memory per method")
+        .description("estimated memory, in megabytes, above which the symbolic execution of a method is stopped, unlimited when not set")
+        .build());
       builder.add(JavaMetricDefinition.class);
 
       ExternalReportExtensions.define(context);